@@ -0,0 +1,101 @@
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * The routes the server says it has, read from the OpenAPI document the Thingifier
+ * generates at /docs/swagger: one {@link Operation} per route and verb, with the
+ * statuses it documents.
+ *
+ * Routes that stop the server (/shutdown) are left out, so nothing built from the
+ * description can take the server down.
+ */
+public final class ApiDescription {
+    static final String SWAGGER_PATH = "/docs/swagger";
+    private static final Set<String> EXCLUDED_ROUTES = Set.of("/shutdown");
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    /** One verb on one route, e.g. HEAD /todos/:id/tasksof. */
+    static final class Operation {
+        final String method;
+        final String route;
+        final Set<Integer> statuses;
+        final String description;
+
+        Operation(String method, String route, Set<Integer> statuses, String description) {
+            this.method = method;
+            this.route = route;
+            this.statuses = statuses;
+            this.description = description;
+        }
+
+        /** Same form as {@link SuiteEndpoint#name()} without the media type, e.g. "GET /todos/:id". */
+        String name() {
+            return method + " " + route;
+        }
+
+        /** Route segments: collection, :id, relationship, :id; as many as the route has. */
+        String[] segments() {
+            return route.substring(1).split("/");
+        }
+
+        @Override
+        public String toString() {
+            return name() + " " + statuses;
+        }
+    }
+
+    private ApiDescription() {
+    }
+
+    /** Fetches and parses the description served by the server at baseUrl. */
+    static List<Operation> fetch(String baseUrl) throws IOException, InterruptedException {
+        HttpResponse<byte[]> response = HttpClient.newHttpClient().send(
+                HttpRequest.newBuilder(URI.create(baseUrl + SWAGGER_PATH)).timeout(Duration.ofSeconds(10)).build(),
+                HttpResponse.BodyHandlers.ofByteArray());
+        if (response.statusCode() != 200) {
+            throw new IOException(baseUrl + SWAGGER_PATH + " answered " + response.statusCode());
+        }
+        return parse(response.body());
+    }
+
+    /** Operations in document order; statuses that are not numbers (e.g. "default") are skipped. */
+    static List<Operation> parse(byte[] openApiJson) throws IOException {
+        JsonNode paths = MAPPER.readTree(openApiJson).path("paths");
+        if (!paths.isObject()) {
+            throw new IOException("Not an OpenAPI document: no paths object");
+        }
+        List<Operation> operations = new ArrayList<>();
+        for (Iterator<Map.Entry<String, JsonNode>> routes = paths.fields(); routes.hasNext(); ) {
+            Map.Entry<String, JsonNode> route = routes.next();
+            if (EXCLUDED_ROUTES.contains(route.getKey())) {
+                continue;
+            }
+            for (Iterator<Map.Entry<String, JsonNode>> verbs = route.getValue().fields(); verbs.hasNext(); ) {
+                Map.Entry<String, JsonNode> verb = verbs.next();
+                Set<Integer> statuses = new TreeSet<>();
+                verb.getValue().path("responses").fieldNames().forEachRemaining(status -> {
+                    if (status.matches("\\d{3}")) {
+                        statuses.add(Integer.parseInt(status));
+                    }
+                });
+                operations.add(new Operation(verb.getKey().toUpperCase(Locale.ROOT), route.getKey(), statuses,
+                        verb.getValue().path("description").asText("")));
+            }
+        }
+        return operations;
+    }
+}
@@ -0,0 +1,226 @@
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.restassured.RestAssured;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.*;
+
+/**
+ * Measures how the cost of a DELETE grows with the number of relationships the deleted
+ * entity has, and checks that the server leaves no links pointing at it afterwards.
+ *
+ * <ul>
+ *   <li>project.tasks: a project with degree tasks, each created through
+ *       POST /projects/:id/tasks so the todo's tasksof points back at it. One task is
+ *       deleted first (removal from a large relationship), then the project; every
+ *       remaining todo's tasksof must no longer list the project.</li>
+ *   <li>category.todos: a category linked from degree todos (POST /todos/:id/categories)
+ *       and linking back to them (POST /categories/:id/todos). The category is deleted;
+ *       every todo's categories must no longer list it.</li>
+ * </ul>
+ *
+ * Each -Dcascade.degrees value is built -Dcascade.repeats times and the median delete
+ * latency is reported, with the growth exponent between neighbouring degrees (about 1
+ * for linear cleanup, 2 for quadratic). Only the deletes are timed. The todos are
+ * deleted afterwards; dangling links fail the test once every degree has been measured.
+ *
+ * Run with mvn test -Pperf -Dtest=BenchCascadeDelete -Dcascade.degrees=10,100,1000,5000.
+ */
+public class BenchCascadeDelete {
+    private static final String BASE_URL = "http://localhost:4567";
+    private static final int[] DEGREES = Arrays.stream(System.getProperty("cascade.degrees", "1,10,100,1000").split(","))
+            .mapToInt(degree -> Integer.parseInt(degree.trim())).toArray();
+    private static final int REPEATS = Integer.getInteger("cascade.repeats", 5);
+    private static final Duration TIMEOUT = Duration.ofSeconds(60);
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private static HttpClient client;
+    private static String baseUrl;
+
+    /** Median delete latencies per degree, and the links left behind. */
+    private static final class Scenario {
+        final String name;
+        final double[] deleteMillis = new double[DEGREES.length];
+        final double[] deleteOneMillis = new double[DEGREES.length];
+        final List<String> dangling = new ArrayList<>();
+
+        Scenario(String name) {
+            this.name = name;
+        }
+    }
+
+    @BeforeAll
+    static void ServiceRunningCheck() {
+        RestAssured.baseURI = BASE_URL;
+        if (!ServerReadiness.awaitReady(BASE_URL)) {
+            Assumptions.abort("Service is not running at " + BASE_URL + ". Skipping benchmarks.");
+        }
+        baseUrl = ServerReadiness.targetUrl();
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    }
+
+    @Test
+    @DisplayName("Cascade delete: latency against relationship degree, with dangling link check")
+    void benchCascadeDelete() throws Exception {
+        Scenario projects = new Scenario("project.tasks");
+        Scenario categories = new Scenario("category.todos");
+        for (int i = 0; i < DEGREES.length; i++) {
+            double[] projectDeletes = new double[REPEATS];
+            double[] taskDeletes = new double[REPEATS];
+            double[] categoryDeletes = new double[REPEATS];
+            for (int repeat = 0; repeat < REPEATS; repeat++) {
+                long[] timings = deleteProject(DEGREES[i], projects.dangling);
+                taskDeletes[repeat] = timings[0] / 1e6;
+                projectDeletes[repeat] = timings[1] / 1e6;
+                categoryDeletes[repeat] = deleteCategory(DEGREES[i], categories.dangling) / 1e6;
+            }
+            projects.deleteOneMillis[i] = median(taskDeletes);
+            projects.deleteMillis[i] = median(projectDeletes);
+            categories.deleteMillis[i] = median(categoryDeletes);
+        }
+
+        report(projects, true);
+        report(categories, false);
+        List<String> dangling = new ArrayList<>(projects.dangling);
+        dangling.addAll(categories.dangling);
+        Assertions.assertTrue(dangling.isEmpty(), dangling.size() + " dangling links after delete, first: "
+                + dangling.subList(0, Math.min(5, dangling.size())));
+    }
+
+    private static void report(Scenario scenario, boolean withDeleteOne) {
+        System.out.printf("[cascade] %s  degree  delete p50 ms%s  exponent%n",
+                scenario.name, withDeleteOne ? "  delete one task p50 ms" : "");
+        for (int i = 0; i < DEGREES.length; i++) {
+            String exponent = i == 0 ? "" : String.format("%8.2f", growthExponent(
+                    DEGREES[i - 1], scenario.deleteMillis[i - 1], DEGREES[i], scenario.deleteMillis[i]));
+            System.out.printf("[cascade] %s  %6d  %13.2f%s  %s%n", scenario.name, DEGREES[i], scenario.deleteMillis[i],
+                    withDeleteOne ? String.format("  %22.2f", scenario.deleteOneMillis[i]) : "", exponent);
+        }
+        int last = DEGREES.length - 1;
+        if (last > 0) {
+            double exponent = growthExponent(DEGREES[last - 1], scenario.deleteMillis[last - 1],
+                    DEGREES[last], scenario.deleteMillis[last]);
+            System.out.printf("[cascade] %s delete cost grows as degree^%.2f at the top degrees: %s; %d dangling links%n",
+                    scenario.name, exponent, exponent < 0.5 ? "flat" : exponent <= 1.3 ? "linear" : "worse than linear",
+                    scenario.dangling.size());
+        }
+    }
+
+    /** Slope of log(latency) against log(degree) between two measurements. */
+    private static double growthExponent(int degreeA, double millisA, int degreeB, double millisB) {
+        if (degreeA <= 0 || degreeB <= degreeA || millisA <= 0 || millisB <= 0) {
+            return Double.NaN;
+        }
+        return Math.log(millisB / millisA) / Math.log((double) degreeB / degreeA);
+    }
+
+    /**
+     * Builds a project with degree tasks, times deleting one task and then the project,
+     * and returns both in nanos. Each remaining todo is checked and deleted.
+     */
+    private static long[] deleteProject(int degree, List<String> dangling) throws Exception {
+        String project = create("/projects", "{\"title\":\"Cascade Project\"}");
+        List<String> todos = new ArrayList<>();
+        for (int i = 0; i < degree; i++) {
+            todos.add(create("/projects/" + project + "/tasks", "{\"title\":\"Cascade Task " + i + "\"}"));
+        }
+
+        long deleteOne = 0;
+        if (!todos.isEmpty()) {
+            deleteOne = timedDelete("/todos/" + todos.remove(0));
+        }
+        long deleteProject = timedDelete("/projects/" + project);
+        for (String todo : todos) {
+            if (links(get("/todos/" + todo + "/tasksof"), "projects", project)) {
+                dangling.add("todos/" + todo + "/tasksof -> projects/" + project);
+            }
+            delete("/todos/" + todo);
+        }
+        return new long[]{deleteOne, deleteProject};
+    }
+
+    /** Builds a category linked both ways with degree todos and returns the nanos to delete it. */
+    private static long deleteCategory(int degree, List<String> dangling) throws Exception {
+        String category = create("/categories", "{\"title\":\"Cascade Category\"}");
+        List<String> todos = new ArrayList<>();
+        for (int i = 0; i < degree; i++) {
+            String todo = create("/todos", "{\"title\":\"Cascade Todo " + i + "\"}");
+            todos.add(todo);
+            link("/todos/" + todo + "/categories", category);
+            link("/categories/" + category + "/todos", todo);
+        }
+
+        long deleteCategory = timedDelete("/categories/" + category);
+        for (String todo : todos) {
+            if (links(get("/todos/" + todo + "/categories"), "categories", category)) {
+                dangling.add("todos/" + todo + "/categories -> categories/" + category);
+            }
+            delete("/todos/" + todo);
+        }
+        return deleteCategory;
+    }
+
+    private static boolean links(JsonNode listing, String collection, String id) {
+        for (JsonNode entity : listing.path(collection)) {
+            if (id.equals(entity.path("id").asText())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String create(String path, String body) throws Exception {
+        HttpResponse<byte[]> response = send(json(path).POST(HttpRequest.BodyPublishers.ofString(body)).build());
+        Assertions.assertEquals(201, response.statusCode(), "POST " + path);
+        return MAPPER.readTree(response.body()).path("id").asText();
+    }
+
+    private static void link(String path, String id) throws Exception {
+        HttpResponse<byte[]> response = send(json(path)
+                .POST(HttpRequest.BodyPublishers.ofByteArray(BodyTemplate.LINK_JSON.render(id))).build());
+        Assertions.assertEquals(201, response.statusCode(), "POST " + path);
+    }
+
+    private static JsonNode get(String path) throws Exception {
+        HttpResponse<byte[]> response = send(json(path).GET().build());
+        Assertions.assertEquals(200, response.statusCode(), "GET " + path);
+        return MAPPER.readTree(response.body());
+    }
+
+    private static long timedDelete(String path) throws Exception {
+        long start = System.nanoTime();
+        delete(path);
+        return System.nanoTime() - start;
+    }
+
+    private static void delete(String path) throws Exception {
+        HttpResponse<byte[]> response = send(json(path).DELETE().build());
+        Assertions.assertEquals(200, response.statusCode(), "DELETE " + path);
+    }
+
+    private static HttpRequest.Builder json(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path)).timeout(TIMEOUT)
+                .header("Content-Type", SuiteEndpoint.JSON)
+                .header("Accept", SuiteEndpoint.JSON);
+    }
+
+    private static HttpResponse<byte[]> send(HttpRequest request) throws Exception {
+        return client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+    }
+
+    private static double median(double[] values) {
+        double[] sorted = values.clone();
+        Arrays.sort(sorted);
+        int middle = sorted.length / 2;
+        return sorted.length % 2 == 1 ? sorted[middle] : (sorted[middle - 1] + sorted[middle]) / 2;
+    }
+}
@@ -0,0 +1,62 @@
+import io.restassured.RestAssured;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.*;
+
+/**
+ * Drives the suite's endpoints from several local worker JVMs at once through
+ * {@link DistributedLoad}, for loads a single client JVM cannot generate, and reports
+ * the merged coordinated-omission-corrected percentiles as BenchOpenLoop does.
+ *
+ * Run with mvn test -Pperf -Dtest=BenchDistributed -Ddistributed.workers=4
+ * -Ddistributed.rate=2000 -Ddistributed.seconds=60. The rate is the total across
+ * workers. -Ddistributed.workerJvmArgs="-Xmx256m -XX:+UseParallelGC" sets each
+ * worker's JVM flags, and -Dload.includeCreates=true adds the POSTs that create entities.
+ */
+public class BenchDistributed {
+    private static final String BASE_URL = "http://localhost:4567";
+    private static final int WORKERS = Integer.getInteger("distributed.workers", 4);
+    private static final double RATE = Double.parseDouble(System.getProperty("distributed.rate", "800"));
+    private static final int SECONDS = Integer.getInteger("distributed.seconds", 30);
+    private static final int WARMUP_SECONDS = Integer.getInteger("distributed.warmupSeconds", 5);
+    private static final String WORKER_JVM_ARGS = System.getProperty("distributed.workerJvmArgs", "-Xmx256m");
+    private static final int TIMEOUT_MS = Integer.getInteger("load.timeoutMs", 10_000);
+    private static final boolean INCLUDE_CREATES = Boolean.getBoolean("load.includeCreates");
+
+    private static BenchFixture fixture;
+
+    @BeforeAll
+    static void ServiceRunningCheck() {
+        RestAssured.baseURI = BASE_URL;
+        if (!ServerReadiness.awaitReady(BASE_URL)) {
+            Assumptions.abort("Service is not running at " + BASE_URL + ". Skipping benchmarks.");
+        }
+        fixture = BenchFixture.create(ServerReadiness.targetUrl());
+    }
+
+    @AfterAll
+    static void tearDown() {
+        if (fixture != null) {
+            fixture.close();
+        }
+    }
+
+    @Test
+    @DisplayName("Distributed: suite endpoints from several worker JVMs, merged")
+    void benchDistributed() throws Exception {
+        List<String> jvmArgs = WORKER_JVM_ARGS.isBlank()
+                ? List.of() : Arrays.asList(WORKER_JVM_ARGS.trim().split("\\s+"));
+        OpenLoopDriver.Result result = DistributedLoad.run(fixture, INCLUDE_CREATES, WORKERS, RATE,
+                Duration.ofSeconds(SECONDS), Duration.ofSeconds(WARMUP_SECONDS), Duration.ofMillis(TIMEOUT_MS),
+                jvmArgs);
+
+        result.print("distributed");
+        System.out.printf("[distributed] %d workers, %.0f req/s offered, %.1f req/s completed%n",
+                WORKERS, RATE, result.throughputPerSecond());
+        System.out.println("[distributed] all endpoints corrected " + result.totalCorrected().summary());
+        Assertions.assertTrue(result.totalCorrected().count() > 0, "No worker completed any request");
+    }
+}
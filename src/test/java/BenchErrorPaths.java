@@ -0,0 +1,184 @@
+import io.restassured.RestAssured;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.*;
+
+/**
+ * Measures what the server's error responses cost compared with a cheap happy path:
+ * 400 (missing field, malformed JSON, unknown field), 404 (missing instance, unknown
+ * route, missing relationship) and 405 (verb not allowed on a route), so we know
+ * whether a flood of bad requests is cheaper or dearer to serve than real traffic.
+ *
+ * All endpoints are first sent together for -Derrors.mixedWarmupSeconds so the first
+ * one measured does not pay for JIT compilation. Each endpoint is then saturated on
+ * its own through the pipelined client for -Derrors.seconds after
+ * -Derrors.warmupSeconds, and the server's allocated bytes and process CPU are read
+ * over JMX either side of the run, giving allocation and CPU per request alongside
+ * throughput and latency. Every error group is then compared with GET /todos/:id.
+ *
+ * By default a fresh jar is started on -Derrors.port with JMX on -Derrors.jmxPort, so
+ * the client's own CPU is not counted. To measure an already running server, pass
+ * -Derrors.baseUrl and -Derrors.jmxUrl instead.
+ * Run with mvn test -Pperf -Dtest=BenchErrorPaths -Derrors.connections=16 -Derrors.depth=8.
+ */
+public class BenchErrorPaths {
+    private static final int PORT = Integer.getInteger("errors.port", 4594);
+    private static final int JMX_PORT = Integer.getInteger("errors.jmxPort", 4595);
+    private static final int CONNECTIONS = Integer.getInteger("errors.connections", 16);
+    private static final int DEPTH = Integer.getInteger("errors.depth", 8);
+    private static final int SECONDS = Integer.getInteger("errors.seconds", 5);
+    private static final int WARMUP_SECONDS = Integer.getInteger("errors.warmupSeconds", 2);
+    private static final int MIXED_WARMUP_SECONDS = Integer.getInteger("errors.mixedWarmupSeconds", 10);
+    private static final String JSON = SuiteEndpoint.JSON;
+    private static final String MISSING_ID = "99999";
+
+    private static TodoManagerProcess server;
+    private static ServerJmxSampler jmx;
+    private static BenchFixture fixture;
+    private static String baseUrl;
+
+    /** Server-side cost of one endpoint's run. */
+    private static final class Cost {
+        final SuiteEndpoint endpoint;
+        final PipelinedClient.Result result;
+        final double bytesPerRequest;
+        final double cpuMicrosPerRequest;
+
+        Cost(SuiteEndpoint endpoint, PipelinedClient.Result result, long allocatedBytes, long cpuNanos) {
+            this.endpoint = endpoint;
+            this.result = result;
+            long completed = Math.max(1, result.completed());
+            this.bytesPerRequest = (double) allocatedBytes / completed;
+            this.cpuMicrosPerRequest = cpuNanos / 1e3 / completed;
+        }
+    }
+
+    @BeforeAll
+    static void startServer() throws Exception {
+        baseUrl = System.getProperty("errors.baseUrl");
+        String jmxUrl = System.getProperty("errors.jmxUrl");
+        if (baseUrl != null && jmxUrl != null) {
+            if (!ServerReadiness.awaitReady(baseUrl)) {
+                Assumptions.abort("Service is not running at " + baseUrl + ". Skipping benchmarks.");
+            }
+            jmx = ServerJmxSampler.connect(jmxUrl);
+        } else {
+            server = TodoManagerProcess.start(PORT, ServerJmxSampler.jvmArgs(JMX_PORT));
+            baseUrl = server.baseUrl();
+            jmx = ServerJmxSampler.connect(JMX_PORT);
+        }
+        RestAssured.baseURI = baseUrl;
+        fixture = BenchFixture.create(baseUrl);
+    }
+
+    @AfterAll
+    static void stopServer() throws Exception {
+        if (fixture != null) {
+            fixture.close();
+        }
+        if (jmx != null) {
+            jmx.close();
+        }
+        if (server != null) {
+            server.close();
+        }
+    }
+
+    @Test
+    @DisplayName("Error paths: throughput, allocation and CPU of 400/404/405 against a happy path")
+    void benchErrorPaths() throws Exception {
+        List<SuiteEndpoint> endpoints = endpoints();
+        if (MIXED_WARMUP_SECONDS > 0) {
+            new PipelinedClient(baseUrl, PipelinedClient.templates(baseUrl, endpoints), CONNECTIONS, DEPTH)
+                    .run(Duration.ofSeconds(MIXED_WARMUP_SECONDS));
+        }
+        Map<String, List<Cost>> groups = new LinkedHashMap<>();
+        for (SuiteEndpoint endpoint : endpoints) {
+            Cost cost = measure(endpoint);
+            groups.computeIfAbsent(group(endpoint), key -> new ArrayList<>()).add(cost);
+            Assertions.assertEquals(0, cost.result.stats[0].unexpectedStatus,
+                    endpoint.name() + " did not always answer " + endpoint.expectedStatus);
+        }
+
+        System.out.printf("[errors] %-34s %6s %10s %9s %9s %12s %12s%n",
+                "endpoint", "status", "req/s", "p50 ms", "p99 ms", "alloc B/req", "CPU us/req");
+        for (List<Cost> costs : groups.values()) {
+            for (Cost cost : costs) {
+                LatencyHistogram latency = cost.result.stats[0].latency;
+                System.out.printf("[errors] %-34s %6d %10.0f %9.2f %9.2f %12.0f %12.1f%n",
+                        cost.endpoint.name(), cost.endpoint.expectedStatus, cost.result.throughputPerSecond(),
+                        latency.percentile(0.50) / 1e6, latency.percentile(0.99) / 1e6,
+                        cost.bytesPerRequest, cost.cpuMicrosPerRequest);
+            }
+        }
+
+        Cost happy = groups.get("2xx").get(0);
+        for (Map.Entry<String, List<Cost>> group : groups.entrySet()) {
+            if (group.getKey().equals("2xx")) {
+                continue;
+            }
+            double throughput = 0;
+            double bytes = 0;
+            double cpu = 0;
+            for (Cost cost : group.getValue()) {
+                throughput += cost.result.throughputPerSecond();
+                bytes += cost.bytesPerRequest;
+                cpu += cost.cpuMicrosPerRequest;
+            }
+            int n = group.getValue().size();
+            double cpuRatio = cpu / n / Math.max(1e-9, happy.cpuMicrosPerRequest);
+            System.out.printf("[errors] %s responses against %s: %.2fx throughput, %.2fx allocation, "
+                            + "%.2fx CPU per request -> %s to serve%n",
+                    group.getKey(), happy.endpoint.name(),
+                    throughput / n / Math.max(1e-9, happy.result.throughputPerSecond()),
+                    bytes / n / Math.max(1e-9, happy.bytesPerRequest), cpuRatio,
+                    cpuRatio <= 1 ? "cheaper" : "dearer");
+        }
+    }
+
+    /** The happy path first, then each error class; nothing here changes the data set. */
+    private static List<SuiteEndpoint> endpoints() {
+        String todo = "/todos/" + fixture.todoId;
+        String project = "/projects/" + fixture.projectId;
+        List<SuiteEndpoint> endpoints = new ArrayList<>();
+        endpoints.add(new SuiteEndpoint("GET", "/todos/:id", todo, JSON, null, 200));
+        endpoints.add(new SuiteEndpoint("GET", "/todos/:id/categories", todo + "/categories", JSON, null, 200));
+
+        endpoints.add(new SuiteEndpoint("POST", "/todos", "/todos", JSON, "{\"description\":\"no title\"}", 400));
+        endpoints.add(new SuiteEndpoint("POST", "/todos", "/todos", JSON, "{\"title\":", 400));
+        endpoints.add(new SuiteEndpoint("POST", "/projects/:id", project, JSON, "{\"undefined\":\"input\"}", 400));
+
+        endpoints.add(new SuiteEndpoint("GET", "/todos/:id", "/todos/" + MISSING_ID, JSON, null, 404));
+        endpoints.add(new SuiteEndpoint("POST", "/todos/:id", "/todos/" + MISSING_ID, JSON,
+                "{\"title\":\"missing\"}", 404));
+        endpoints.add(new SuiteEndpoint("GET", "/unknown", "/unknown", JSON, null, 404));
+        endpoints.add(new SuiteEndpoint("DELETE", "/categories/:id/projects/:id",
+                "/categories/" + MISSING_ID + "/projects/" + MISSING_ID, JSON, null, 404));
+
+        endpoints.add(new SuiteEndpoint("DELETE", "/todos", "/todos", JSON, null, 405));
+        endpoints.add(new SuiteEndpoint("PATCH", "/todos/:id", todo, JSON, null, 405));
+        return endpoints;
+    }
+
+    private static String group(SuiteEndpoint endpoint) {
+        return endpoint.expectedStatus < 300 ? "2xx" : String.valueOf(endpoint.expectedStatus);
+    }
+
+    private static Cost measure(SuiteEndpoint endpoint) throws Exception {
+        PipelinedClient client = new PipelinedClient(baseUrl,
+                PipelinedClient.templates(baseUrl, List.of(endpoint)), CONNECTIONS, DEPTH);
+        if (WARMUP_SECONDS > 0) {
+            client.run(Duration.ofSeconds(WARMUP_SECONDS));
+        }
+        // JMX calls allocate a little in the server too; it is noise next to a run's worth of requests
+        long bytesBefore = jmx.allocatedBytes();
+        long cpuBefore = jmx.processCpuNanos();
+        PipelinedClient.Result result = client.run(Duration.ofSeconds(SECONDS));
+        return new Cost(endpoint, result, jmx.allocatedBytes() - bytesBefore, jmx.processCpuNanos() - cpuBefore);
+    }
+}
@@ -0,0 +1,57 @@
+import static io.restassured.RestAssured.*;
+
+import io.restassured.http.ContentType;
+
+/**
+ * A linked todo, project and category created for a benchmark and deleted afterwards,
+ * so benchmarks never depend on (or disturb) the seed data the functional tests use.
+ *
+ * The todo is a task of the project, and both the todo and the project are linked
+ * to the category.
+ */
+public final class BenchFixture implements AutoCloseable {
+    final String baseUrl;
+    final String todoId;
+    final String projectId;
+    final String categoryId;
+
+    private BenchFixture(String baseUrl, String todoId, String projectId, String categoryId) {
+        this.baseUrl = baseUrl;
+        this.todoId = todoId;
+        this.projectId = projectId;
+        this.categoryId = categoryId;
+    }
+
+    static BenchFixture create(String baseUrl) {
+        String todoId = create(baseUrl, "/todos", "{\"title\":\"Bench Todo\"}");
+        String projectId = create(baseUrl, "/projects", "{\"title\":\"Bench Project\"}");
+        String categoryId = create(baseUrl, "/categories", "{\"title\":\"Bench Category\"}");
+
+        link(baseUrl, "/projects/" + projectId + "/tasks", todoId);
+        link(baseUrl, "/todos/" + todoId + "/categories", categoryId);
+        link(baseUrl, "/projects/" + projectId + "/categories", categoryId);
+        return new BenchFixture(baseUrl, todoId, projectId, categoryId);
+    }
+
+    /** A fixture another process already created; closing it deletes the entities as usual. */
+    static BenchFixture existing(String baseUrl, String todoId, String projectId, String categoryId) {
+        return new BenchFixture(baseUrl, todoId, projectId, categoryId);
+    }
+
+    static String create(String baseUrl, String path, String body) {
+        return given().baseUri(baseUrl).contentType(ContentType.JSON).body(body).post(path)
+                .then().statusCode(201).extract().jsonPath().getString("id");
+    }
+
+    static void link(String baseUrl, String path, String id) {
+        given().baseUri(baseUrl).contentType(ContentType.JSON).body(BodyTemplate.LINK_JSON.render(id)).post(path)
+                .then().statusCode(201);
+    }
+
+    @Override
+    public void close() {
+        given().baseUri(baseUrl).delete("/todos/" + todoId);
+        given().baseUri(baseUrl).delete("/projects/" + projectId);
+        given().baseUri(baseUrl).delete("/categories/" + categoryId);
+    }
+}
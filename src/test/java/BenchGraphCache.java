@@ -0,0 +1,112 @@
+import static io.restassured.RestAssured.*;
+
+import io.restassured.RestAssured;
+import io.restassured.http.ContentType;
+import io.restassured.specification.RequestSpecification;
+
+import org.junit.jupiter.api.*;
+
+/**
+ * Runs a read-heavy relationship scenario with and without a {@link GraphCache}: each
+ * round re-reads the fixture's /projects/:id/categories, /todos/:id/tasksof,
+ * /categories/:id/todos and /todos/:id/categories listings the way the relationship
+ * tests do, and every -Dcache.writeEvery rounds links or unlinks a second category.
+ *
+ * Every read checks the todo's category count, so a stale cached listing fails the
+ * run. The report compares elapsed time and the requests that actually reached the
+ * server. Run with mvn test -Pperf -Dtest=BenchGraphCache -Dcache.rounds=1000.
+ */
+public class BenchGraphCache {
+    private static final String BASE_URL = "http://localhost:4567";
+    private static final int ROUNDS = Integer.getInteger("cache.rounds", 300);
+    private static final int WRITE_EVERY = Integer.getInteger("cache.writeEvery", 10);
+
+    private static BenchFixture fixture;
+    private static String otherCategoryId;
+
+    @BeforeAll
+    static void ServiceRunningCheck() {
+        RestAssured.baseURI = BASE_URL;
+        if (!ServerReadiness.awaitReady(BASE_URL)) {
+            Assumptions.abort("Service is not running at " + BASE_URL + ". Skipping benchmarks.");
+        }
+        fixture = BenchFixture.create(ServerReadiness.targetUrl());
+        otherCategoryId = BenchFixture.create(fixture.baseUrl, "/categories", "{\"title\":\"Bench Cache Category\"}");
+    }
+
+    @AfterAll
+    static void tearDown() {
+        if (fixture != null) {
+            given().delete("/categories/" + otherCategoryId);
+            fixture.close();
+        }
+    }
+
+    @Test
+    @DisplayName("Graph cache: read-heavy relationship scenario with and without caching")
+    void benchGraphCache() {
+        long uncachedRequests = run(null);
+        // Once to warm both paths, then measured
+        long uncachedNanos = time(null);
+        GraphCache cache = new GraphCache(GraphCache.MAX_ENTRIES, GraphCache.MAX_BYTES);
+        run(cache);
+        cache = new GraphCache(GraphCache.MAX_ENTRIES, GraphCache.MAX_BYTES);
+        long cachedNanos = time(cache);
+        long cachedRequests = cache.misses() + writes();
+
+        System.out.printf("[cache] %d rounds, a write every %d%n", ROUNDS, WRITE_EVERY);
+        System.out.printf("[cache] uncached %8.1f ms  %6d server requests%n", uncachedNanos / 1e6, uncachedRequests);
+        System.out.printf("[cache] cached   %8.1f ms  %6d server requests  (%.1fx faster, %.0f%% fewer requests)%n",
+                cachedNanos / 1e6, cachedRequests, (double) uncachedNanos / Math.max(1, cachedNanos),
+                100.0 * (uncachedRequests - cachedRequests) / uncachedRequests);
+        System.out.println("[cache] " + cache.summary());
+    }
+
+    private static long time(GraphCache cache) {
+        long start = System.nanoTime();
+        run(cache);
+        return System.nanoTime() - start;
+    }
+
+    /** Runs the scenario and returns how many requests it sent into the filter chain. */
+    private static long run(GraphCache cache) {
+        long requests = 0;
+        boolean linked = false;
+        for (int round = 0; round < ROUNDS; round++) {
+            if (WRITE_EVERY > 0 && round % WRITE_EVERY == WRITE_EVERY - 1) {
+                if (linked) {
+                    spec(cache).delete("/todos/" + fixture.todoId + "/categories/" + otherCategoryId)
+                            .then().statusCode(200);
+                } else {
+                    spec(cache).contentType(ContentType.JSON).body(BodyTemplate.LINK_JSON.render(otherCategoryId))
+                            .post("/todos/" + fixture.todoId + "/categories").then().statusCode(201);
+                }
+                linked = !linked;
+                requests++;
+            }
+            spec(cache).get("/projects/" + fixture.projectId + "/categories").then().statusCode(200);
+            spec(cache).get("/todos/" + fixture.todoId + "/tasksof").then().statusCode(200);
+            spec(cache).get("/categories/" + fixture.categoryId + "/todos").then().statusCode(200);
+            int categories = spec(cache).get("/todos/" + fixture.todoId + "/categories")
+                    .then().statusCode(200).extract().jsonPath().getList("categories").size();
+            Assertions.assertEquals(linked ? 2 : 1, categories, "Stale categories listing in round " + round);
+            requests += 4;
+        }
+        if (linked) {
+            spec(cache).delete("/todos/" + fixture.todoId + "/categories/" + otherCategoryId).then().statusCode(200);
+            requests++;
+        }
+        return requests;
+    }
+
+    /** Writes per run, including the unlink that restores the fixture at the end. */
+    private static long writes() {
+        long writes = WRITE_EVERY > 0 ? ROUNDS / WRITE_EVERY : 0;
+        return writes + writes % 2;
+    }
+
+    private static RequestSpecification spec(GraphCache cache) {
+        RequestSpecification spec = given().accept(ContentType.JSON);
+        return cache == null ? spec : spec.filter(cache);
+    }
+}
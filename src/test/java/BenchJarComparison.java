@@ -0,0 +1,134 @@
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.*;
+
+/**
+ * A/B comparison of two Todo Manager jars, e.g. the current release against a new
+ * one: both are started side by side and every endpoint the functional suite uses
+ * is sent to each in turn, so drift in the machine affects both equally.
+ *
+ * Each round visits the endpoints in a fresh random order and flips a coin for which
+ * jar goes first, one request at a time. After -Dab.warmupRounds, -Dab.rounds rounds
+ * are kept. Per endpoint, B is compared with A by a Mann-Whitney test (Holm-adjusted
+ * across endpoints) and a bootstrap interval for the ratio of medians, see
+ * {@link LatencyComparison}. A route is only called faster or slower when both agree
+ * at -Dab.alpha; everything else is reported as no significant difference.
+ *
+ * Run with mvn test -Pperf -Dtest=BenchJarComparison -Dab.jarA=runTodoManagerRestAPI-1.5.5.jar
+ * -Dab.jarB=runTodoManagerRestAPI-1.5.6.jar. Both default to -Dtodo.jar, which makes an
+ * A/A run: any route it reports as different is a false positive.
+ */
+public class BenchJarComparison {
+    private static final String JAR_A = System.getProperty("ab.jarA", TodoManagerProcess.DEFAULT_JAR);
+    private static final String JAR_B = System.getProperty("ab.jarB", TodoManagerProcess.DEFAULT_JAR);
+    private static final int PORT_A = Integer.getInteger("ab.portA", 4596);
+    private static final int PORT_B = Integer.getInteger("ab.portB", 4597);
+    private static final int ROUNDS = Integer.getInteger("ab.rounds", 100);
+    private static final int WARMUP_ROUNDS = Integer.getInteger("ab.warmupRounds", 10);
+    private static final int RESAMPLES = Integer.getInteger("ab.resamples", 2_000);
+    private static final double ALPHA = Double.parseDouble(System.getProperty("ab.alpha", "0.05"));
+    private static final double CONFIDENCE = Double.parseDouble(System.getProperty("ab.confidence", "0.95"));
+    private static final Duration TIMEOUT = Duration.ofSeconds(10);
+
+    private static TodoManagerProcess serverA;
+    private static TodoManagerProcess serverB;
+    private static BenchFixture fixtureA;
+    private static BenchFixture fixtureB;
+
+    @BeforeAll
+    static void startServers() throws Exception {
+        serverA = TodoManagerProcess.start(JAR_A, PORT_A, List.of());
+        serverB = TodoManagerProcess.start(JAR_B, PORT_B, List.of());
+        fixtureA = BenchFixture.create(serverA.baseUrl());
+        fixtureB = BenchFixture.create(serverB.baseUrl());
+    }
+
+    @AfterAll
+    static void stopServers() {
+        for (TodoManagerProcess server : new TodoManagerProcess[]{serverA, serverB}) {
+            if (server != null) {
+                server.close();
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("A/B: per-endpoint latency of two jars, interleaved, with significance tests")
+    void compareJars() throws Exception {
+        List<SuiteEndpoint> endpointsA = SuiteEndpoints.repeatable(fixtureA);
+        List<SuiteEndpoint> endpointsB = SuiteEndpoints.repeatable(fixtureB);
+        int count = endpointsA.size();
+        double[][] millisA = new double[count][ROUNDS];
+        double[][] millisB = new double[count][ROUNDS];
+        long[] statusMismatches = new long[count];
+
+        HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        Random random = new Random(429);
+        List<Integer> order = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            order.add(i);
+        }
+        for (int round = -WARMUP_ROUNDS; round < ROUNDS; round++) {
+            Collections.shuffle(order, random);
+            for (int i : order) {
+                boolean aFirst = random.nextBoolean();
+                HttpResponse<Void> first = null;
+                HttpResponse<Void> second = null;
+                for (int turn = 0; turn < 2; turn++) {
+                    boolean isA = aFirst == (turn == 0);
+                    SuiteEndpoint endpoint = (isA ? endpointsA : endpointsB).get(i);
+                    String baseUrl = (isA ? serverA : serverB).baseUrl();
+                    HttpRequest request = endpoint.toHttpRequest(baseUrl, TIMEOUT);
+                    long start = System.nanoTime();
+                    HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                    double millis = (System.nanoTime() - start) / 1e6;
+                    if (round >= 0) {
+                        (isA ? millisA : millisB)[i][round] = millis;
+                    }
+                    if (turn == 0) {
+                        first = response;
+                    } else {
+                        second = response;
+                    }
+                }
+                if (round >= 0 && first.statusCode() != second.statusCode()) {
+                    statusMismatches[i]++;
+                }
+            }
+        }
+
+        LatencyComparison.Result[] results = new LatencyComparison.Result[count];
+        for (int i = 0; i < count; i++) {
+            // The same route appears with a fixture id and a missing one, so the status tells them apart
+            SuiteEndpoint endpoint = endpointsA.get(i);
+            results[i] = LatencyComparison.compare(endpoint.name() + " " + endpoint.expectedStatus,
+                    millisA[i], millisB[i], RESAMPLES, CONFIDENCE, i);
+        }
+        LatencyComparison.holm(results);
+
+        System.out.printf("[ab] A = %s, B = %s, %d interleaved rounds%n", JAR_A, JAR_B, ROUNDS);
+        System.out.printf("[ab] %-48s %9s %9s %7s %17s %9s  %s%n",
+                "endpoint", "A p50 ms", "B p50 ms", "B/A", "CI", "adj. p", "B is");
+        int faster = 0;
+        int slower = 0;
+        for (int i = 0; i < count; i++) {
+            LatencyComparison.Result result = results[i];
+            String verdict = result.verdict(ALPHA);
+            faster += verdict.equals("faster") ? 1 : 0;
+            slower += verdict.equals("slower") ? 1 : 0;
+            System.out.printf("[ab] %-48s %9.2f %9.2f %7.2f %8.2f..%-7.2f %9.4f  %s%s%n",
+                    result.name, result.medianA, result.medianB, result.ratio, result.ratioLow, result.ratioHigh,
+                    result.adjustedP, verdict,
+                    statusMismatches[i] == 0 ? "" : " (status differs in " + statusMismatches[i] + " rounds)");
+        }
+        System.out.printf("[ab] B is significantly faster on %d, slower on %d, no different on %d of %d endpoints "
+                + "(alpha %.2f, Holm-adjusted)%n", faster, slower, count - faster - slower, count, ALPHA);
+    }
+}
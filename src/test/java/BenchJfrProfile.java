@@ -0,0 +1,89 @@
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.*;
+
+/**
+ * Starts a jar with Flight Recorder, replays the suite's endpoints one at a time with an
+ * X-Correlation-Id header on each request, and reports per endpoint where the server
+ * spent its CPU samples and allocations, attributed to Thingifier classes such as
+ * JsonThing, XmlThing, BodyParser and SimpleQuery.
+ *
+ * Run with mvn test -Pperf -Dtest=BenchJfrProfile -Djfr.seconds=60. -Djfr.endpoints
+ * keeps only endpoints whose name contains one of the comma-separated strings, e.g.
+ * -Djfr.endpoints="GET /projects/:id/categories [xml]" for
+ * testGetProjectCategoryRelationshipXml. The recording is kept in target/ for JDK
+ * Mission Control; -Djfr.top sets how many methods and allocation sites are listed.
+ */
+public class BenchJfrProfile {
+    private static final int PORT = Integer.getInteger("jfr.port", 4592);
+    private static final int SECONDS = Integer.getInteger("jfr.seconds", 30);
+    private static final int SAMPLE_PERIOD_MS = Integer.getInteger("jfr.samplePeriodMs", 1);
+    private static final int TOP = Integer.getInteger("jfr.top", 5);
+    private static final String ENDPOINTS = System.getProperty("jfr.endpoints", "");
+    private static final Path RECORDING = Path.of("target", "todo-manager-" + PORT + ".jfr");
+
+    private static TodoManagerProcess server;
+    private static BenchFixture fixture;
+
+    @BeforeAll
+    static void startServer() throws Exception {
+        Files.createDirectories(RECORDING.getParent());
+        Files.deleteIfExists(RECORDING);
+        server = TodoManagerProcess.start(PORT, JfrRequestProfile.jvmArgs(RECORDING, SAMPLE_PERIOD_MS));
+        fixture = BenchFixture.create(server.baseUrl());
+    }
+
+    @AfterAll
+    static void stopServer() {
+        if (server != null) {
+            server.close();
+        }
+    }
+
+    @Test
+    @DisplayName("JFR: hot methods and allocations per endpoint")
+    void profileEndpoints() throws Exception {
+        List<SuiteEndpoint> endpoints = new ArrayList<>();
+        for (SuiteEndpoint endpoint : SuiteEndpoints.repeatable(fixture)) {
+            if (ENDPOINTS.isEmpty() || List.of(ENDPOINTS.split(",")).stream().anyMatch(endpoint.name()::contains)) {
+                endpoints.add(endpoint);
+            }
+        }
+        Assertions.assertFalse(endpoints.isEmpty(), "No endpoint matches -Djfr.endpoints=" + ENDPOINTS);
+
+        HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        JfrRequestProfile.Timeline timeline = new JfrRequestProfile.Timeline();
+        long deadline = System.nanoTime() + SECONDS * 1_000_000_000L;
+        long correlationId = 0;
+        while (System.nanoTime() < deadline) {
+            SuiteEndpoint endpoint = endpoints.get((int) (correlationId % endpoints.size()));
+            HttpRequest request = HttpRequest.newBuilder(endpoint.toHttpRequest(server.baseUrl(), Duration.ofSeconds(10)),
+                            (name, value) -> true)
+                    .header("X-Correlation-Id", Long.toString(correlationId))
+                    .build();
+            long start = System.nanoTime();
+            client.send(request, HttpResponse.BodyHandlers.discarding());
+            long end = System.nanoTime();
+            timeline.add(new JfrRequestProfile.Request(correlationId, endpoint.name(),
+                    timeline.epochNanos(start), timeline.epochNanos(end)));
+            correlationId++;
+        }
+
+        // The recording is written when the server JVM exits
+        server.close();
+        server = null;
+        Assertions.assertTrue(Files.isRegularFile(RECORDING), "No recording at " + RECORDING);
+
+        Map<String, JfrRequestProfile.EndpointProfile> profiles = JfrRequestProfile.correlate(RECORDING, timeline);
+        System.out.println("[jfr] " + timeline.size() + " requests over " + SECONDS + " s, recording " + RECORDING);
+        profiles.forEach((endpoint, profile) -> profile.print(System.out, endpoint, TOP));
+    }
+}
@@ -0,0 +1,89 @@
+import io.restassured.RestAssured;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.*;
+
+/**
+ * Replays the suite's endpoints open-loop through a {@link NetworkConditionsProxy} under
+ * a series of simulated networks and reports how throughput, tail latency, failures and
+ * the number of connections the client's pool opened change with each.
+ *
+ * Run with mvn test -Pperf -Dtest=BenchNetworkConditions -Dload.rate=100
+ * -Dload.seconds=15. -Dproxy.profiles picks from loopback, lan, wan, mobile and lossy;
+ * -Dproxy.custom=latencyMs,jitterMs,bytesPerSecond,resetProbability adds one more.
+ */
+public class BenchNetworkConditions {
+    private static final String BASE_URL = "http://localhost:4567";
+    private static final double RATE = Double.parseDouble(System.getProperty("load.rate", "100"));
+    private static final int SECONDS = Integer.getInteger("load.seconds", 15);
+    private static final int TIMEOUT_MS = Integer.getInteger("load.timeoutMs", 10_000);
+    private static final List<String> PROFILES =
+            List.of(System.getProperty("proxy.profiles", "loopback,lan,wan,mobile,lossy").split(","));
+    private static final Map<String, NetworkConditionsProxy.Conditions> KNOWN = new LinkedHashMap<>();
+
+    static {
+        KNOWN.put("loopback", new NetworkConditionsProxy.Conditions(0, 0, 0, 0));
+        KNOWN.put("lan", new NetworkConditionsProxy.Conditions(1, 0, 0, 0));
+        KNOWN.put("wan", new NetworkConditionsProxy.Conditions(40, 10, 0, 0));
+        KNOWN.put("mobile", new NetworkConditionsProxy.Conditions(120, 40, 128 * 1024, 0));
+        KNOWN.put("lossy", new NetworkConditionsProxy.Conditions(40, 10, 0, 0.002));
+    }
+
+    private static BenchFixture fixture;
+
+    @BeforeAll
+    static void ServiceRunningCheck() {
+        RestAssured.baseURI = BASE_URL;
+        if (!ServerReadiness.awaitReady(BASE_URL)) {
+            Assumptions.abort("Service is not running at " + BASE_URL + ". Skipping benchmarks.");
+        }
+        fixture = BenchFixture.create(ServerReadiness.targetUrl());
+    }
+
+    @AfterAll
+    static void tearDown() {
+        if (fixture != null) {
+            fixture.close();
+        }
+    }
+
+    @Test
+    @DisplayName("Network conditions: suite endpoints through a simulated network")
+    void benchThroughProxy() throws Exception {
+        Map<String, NetworkConditionsProxy.Conditions> profiles = new LinkedHashMap<>();
+        for (String profile : PROFILES) {
+            NetworkConditionsProxy.Conditions conditions = KNOWN.get(profile.trim());
+            Assertions.assertNotNull(conditions, "Unknown -Dproxy.profiles entry " + profile);
+            profiles.put(profile.trim(), conditions);
+        }
+        String custom = System.getProperty("proxy.custom");
+        if (custom != null) {
+            String[] parts = custom.split(",");
+            profiles.put("custom", new NetworkConditionsProxy.Conditions(Long.parseLong(parts[0].trim()),
+                    Long.parseLong(parts[1].trim()), Long.parseLong(parts[2].trim()), Double.parseDouble(parts[3].trim())));
+        }
+
+        URI target = URI.create(ServerReadiness.targetUrl());
+        List<SuiteEndpoint> endpoints = SuiteEndpoints.repeatable(fixture);
+        for (Map.Entry<String, NetworkConditionsProxy.Conditions> profile : profiles.entrySet()) {
+            try (NetworkConditionsProxy proxy = NetworkConditionsProxy.start(target.getHost(), target.getPort(),
+                    profile.getValue())) {
+                // A new driver per profile, so its connection pool starts empty
+                OpenLoopDriver driver = new OpenLoopDriver(proxy.baseUrl(), Duration.ofMillis(TIMEOUT_MS));
+                OpenLoopDriver.Result result = driver.run(OpenLoopDriver.roundRobin(endpoints), RATE,
+                        Duration.ofSeconds(SECONDS));
+                long failed = result.endpoints.values().stream().mapToLong(stats -> stats.failures.get()).sum();
+                System.out.printf("[network] %-8s %s%n", profile.getKey(), profile.getValue());
+                System.out.printf("[network] %-8s %.1f req/s, max in flight %d, %d connections opened, "
+                                + "%d resets, %d failed%n", "", result.throughputPerSecond(), result.maxInFlight,
+                        proxy.connections(), proxy.resets(), failed);
+                System.out.printf("[network] %-8s corrected %s%n", "", result.totalCorrected().summary());
+            }
+        }
+    }
+}
@@ -0,0 +1,73 @@
+import io.restassured.RestAssured;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+import org.junit.jupiter.api.*;
+
+/**
+ * Drives every verb and route the functional suite uses at a fixed request rate and
+ * reports coordinated-omission-corrected and uncorrected percentiles per endpoint.
+ *
+ * Run with mvn test -Pperf -Dtest=BenchOpenLoop -Dload.rate=500 -Dload.seconds=60.
+ * -Dload.includeCreates=true also replays the POSTs that create new entities, and
+ * -Dvalidation.sample=0.05 checks the suite's body assertions on 5% of responses.
+ * The slowest -Doutliers.perEndpoint requests of each endpoint are written with full
+ * headers and bodies to -Doutliers.file (default target/outliers-openloop.txt).
+ * -Dsamples.dir=target/samples also keeps every sample in a memory-mapped
+ * {@link SampleStore} and summarises it afterwards per -Dsamples.intervalSeconds.
+ */
+public class BenchOpenLoop {
+    private static final String BASE_URL = "http://localhost:4567";
+    private static final double RATE = Double.parseDouble(System.getProperty("load.rate", "200"));
+    private static final int SECONDS = Integer.getInteger("load.seconds", 30);
+    private static final int TIMEOUT_MS = Integer.getInteger("load.timeoutMs", 10_000);
+    private static final boolean INCLUDE_CREATES = Boolean.getBoolean("load.includeCreates");
+    private static final String SAMPLES_DIR = System.getProperty("samples.dir");
+    private static final int SAMPLE_INTERVAL_SECONDS = Integer.getInteger("samples.intervalSeconds", 10);
+    private static final Path OUTLIERS_FILE = Path.of(System.getProperty("outliers.file", "target/outliers-openloop.txt"));
+
+    private static BenchFixture fixture;
+
+    @BeforeAll
+    static void ServiceRunningCheck() {
+        RestAssured.baseURI = BASE_URL;
+        if (!ServerReadiness.awaitReady(BASE_URL)) {
+            Assumptions.abort("Service is not running at " + BASE_URL + ". Skipping benchmarks.");
+        }
+        fixture = BenchFixture.create(ServerReadiness.targetUrl());
+    }
+
+    @AfterAll
+    static void tearDown() {
+        if (fixture != null) {
+            fixture.close();
+        }
+    }
+
+    @Test
+    @DisplayName("Open loop: every suite endpoint at a fixed rate")
+    void benchSuiteEndpoints() throws Exception {
+        OpenLoopDriver driver = new OpenLoopDriver(ServerReadiness.targetUrl(), Duration.ofMillis(TIMEOUT_MS));
+        SampleStore samples = SAMPLES_DIR == null ? null : SampleStore.create(Path.of(SAMPLES_DIR), SampleStore.SEGMENT_BYTES);
+        driver.recordSamples(samples);
+        OpenLoopDriver.Result result = driver.run(
+                OpenLoopDriver.roundRobin(INCLUDE_CREATES ? SuiteEndpoints.all(fixture) : SuiteEndpoints.repeatable(fixture)),
+                RATE, Duration.ofSeconds(SECONDS));
+        if (samples != null) {
+            samples.close();
+            if (samples.dropped() > 0) {
+                System.out.println("[openloop] " + samples.dropped() + " samples completed after the store closed");
+            }
+            SampleStoreReader.summarise(Path.of(SAMPLES_DIR), SAMPLE_INTERVAL_SECONDS * 1_000_000_000L)
+                    .print("openloop-samples");
+        }
+
+        result.print("openloop");
+        System.out.println("[openloop] all endpoints corrected " + result.totalCorrected().summary());
+        System.out.println("[openloop] validated " + result.validated() + " sampled bodies, "
+                + result.validationFailures() + " failed");
+        result.writeOutliers(OUTLIERS_FILE);
+        System.out.println("[openloop] slowest requests per endpoint written to " + OUTLIERS_FILE);
+    }
+}
@@ -0,0 +1,204 @@
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.management.OperatingSystemMXBean;
+
+import io.restassured.RestAssured;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.junit.jupiter.api.*;
+
+/**
+ * Sweeps request body size from bytes to megabytes for POST (create) and PUT (replace)
+ * on /todos, /projects and /categories, in JSON and XML, to see how the server's body
+ * parsing and validation scale, and reports the size at which throughput collapses.
+ *
+ * After -Dpayload.warmup untimed requests, each size is sent -Dpayload.iterations times
+ * one at a time (fewer for the largest bodies, so each step moves at most 32 MB). For
+ * every step it prints the statuses, p50 latency from send to response, requests and
+ * megabytes per second, and two client costs per request: the CPU spent encoding the
+ * body, which the latency leaves out, and the whole client process CPU including the
+ * HTTP client's own threads. A series collapses at the first size whose byte
+ * throughput falls below half the best seen at a smaller size, and breaks at the first
+ * size whose statuses differ from the smallest body's (shapes such as unknownFields
+ * are rejected with 400 at every size).
+ *
+ * Run with mvn test -Pperf -Dtest=BenchPayloadSize. -Dpayload.sizes sets the sizes in
+ * bytes. Every shape in {@link SyntheticBody} is swept by default, deep nesting and
+ * many unknown fields included; -Dpayload.shapes, -Dpayload.collections and
+ * -Dpayload.formats narrow the sweep. Against -Dtodo.reference=true the client CPU includes the server's.
+ */
+public class BenchPayloadSize {
+    private static final String BASE_URL = "http://localhost:4567";
+    private static final int[] SIZES = Arrays.stream(
+            System.getProperty("payload.sizes", "64,1024,16384,131072,1048576,4194304").split(","))
+            .mapToInt(size -> Integer.parseInt(size.trim())).toArray();
+    private static final List<String> SHAPES =
+            List.of(System.getProperty("payload.shapes", String.join(",", SyntheticBody.SHAPES)).split(","));
+    private static final List<String> COLLECTIONS =
+            List.of(System.getProperty("payload.collections", "todos,projects,categories").split(","));
+    private static final List<String> FORMATS = List.of(System.getProperty("payload.formats", "json,xml").split(","));
+    private static final int ITERATIONS = Integer.getInteger("payload.iterations", 20);
+    private static final int WARMUP = Integer.getInteger("payload.warmup", 5);
+    private static final long BYTES_PER_STEP = 32L * 1024 * 1024;
+    private static final Duration TIMEOUT = Duration.ofMillis(Long.getLong("payload.timeoutMs", 30_000));
+    private static final Map<String, String> ELEMENTS = Map.of("todos", "todo", "projects", "project",
+            "categories", "category");
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private static HttpClient client;
+    private static String baseUrl;
+
+    @BeforeAll
+    static void ServiceRunningCheck() {
+        RestAssured.baseURI = BASE_URL;
+        if (!ServerReadiness.awaitReady(BASE_URL)) {
+            Assumptions.abort("Service is not running at " + BASE_URL + ". Skipping benchmarks.");
+        }
+        baseUrl = ServerReadiness.targetUrl();
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).connectTimeout(TIMEOUT).build();
+    }
+
+    @Test
+    @DisplayName("Payload size: POST and PUT body sweep")
+    void benchBodySizes() throws Exception {
+        List<String> collapses = new ArrayList<>();
+        for (String collection : COLLECTIONS) {
+            String scratchId = BenchFixture.create(baseUrl, "/" + collection, "{\"title\":\"Bench Payload\"}");
+            try {
+                for (String format : FORMATS) {
+                    for (String shape : SHAPES) {
+                        for (String method : List.of("POST", "PUT")) {
+                            String path = "/" + collection + (method.equals("PUT") ? "/" + scratchId : "");
+                            collapses.add(sweep(method, path, collection, format.equals("xml"), shape));
+                        }
+                    }
+                }
+            } finally {
+                send(HttpRequest.newBuilder(URI.create(baseUrl + "/" + collection + "/" + scratchId))
+                        .timeout(TIMEOUT).DELETE().build());
+            }
+        }
+        System.out.println("[payload] collapse points");
+        collapses.forEach(line -> System.out.println("[payload]   " + line));
+    }
+
+    /** Runs one series across all sizes; returns its collapse summary. */
+    private String sweep(String method, String path, String collection, boolean xml, String shape) throws Exception {
+        String series = String.format("%s %s [%s] %s", method, "/" + collection + (method.equals("PUT") ? "/:id" : ""),
+                xml ? "xml" : "json", shape);
+        String element = ELEMENTS.getOrDefault(collection, "item");
+        OperatingSystemMXBean os = (OperatingSystemMXBean) ManagementFactory.getOperatingSystemMXBean();
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        // Statuses of the smallest body are what the series should keep getting, 400 included
+        Map<Integer, Integer> baseline = null;
+        double bestBytesPerSecond = 0;
+        int bestSize = 0;
+
+        List<String> created = new ArrayList<>();
+        for (int i = 0; i < WARMUP; i++) {
+            send(request(method, path, SyntheticBody.of(shape, xml, element, SIZES[0]), xml), created);
+        }
+        deleteAll(path, created);
+
+        for (int size : SIZES) {
+            int iterations = (int) Math.max(3, Math.min(ITERATIONS, BYTES_PER_STEP / size));
+            LatencyHistogram latency = new LatencyHistogram();
+            Map<Integer, Integer> statuses = new TreeMap<>();
+            long wallNanos = 0;
+            long encodeNanos = 0;
+            long bytes = 0;
+            int errors = 0;
+
+            long processCpuBefore = os.getProcessCpuTime();
+            for (int i = 0; i < iterations; i++) {
+                long encodeStart = threads.getCurrentThreadCpuTime();
+                byte[] body = SyntheticBody.of(shape, xml, element, size);
+                HttpRequest request = request(method, path, body, xml);
+                encodeNanos += threads.getCurrentThreadCpuTime() - encodeStart;
+                // The wall clock starts once the request is built, so encoding is only counted in encode
+                long start = System.nanoTime();
+                int status;
+                try {
+                    status = send(request, created);
+                } catch (Exception e) {
+                    errors++;
+                    continue;
+                }
+                long elapsed = System.nanoTime() - start;
+                wallNanos += elapsed;
+                bytes += body.length;
+                latency.record(elapsed);
+                statuses.merge(status, 1, Integer::sum);
+            }
+            long processCpuNanos = os.getProcessCpuTime() - processCpuBefore;
+            deleteAll(path, created);
+
+            long completed = latency.count();
+            double bytesPerSecond = wallNanos == 0 ? 0 : bytes / (wallNanos / 1e9);
+            System.out.printf("[payload] %-40s %8d B x%-3d %s p50=%9.2f ms %8.1f req/s %7.2f MB/s "
+                            + "encode %8.1f us/req, client CPU %8.1f us/req%n",
+                    series, size, iterations, statuses, latency.percentile(0.50) / 1e6,
+                    wallNanos == 0 ? 0 : completed / (wallNanos / 1e9), bytesPerSecond / 1e6,
+                    encodeNanos / 1e3 / iterations, processCpuNanos / 1e3 / iterations);
+
+            if (baseline == null) {
+                baseline = statuses;
+            }
+            if (errors > 0 || !statuses.keySet().equals(baseline.keySet())) {
+                return String.format("%s: breaks at %d B (%d of %d requests failed, statuses %s against %s)",
+                        series, size, errors, iterations, statuses, baseline.keySet());
+            }
+            if (bestSize > 0 && bytesPerSecond < bestBytesPerSecond / 2) {
+                return String.format("%s: collapses at %d B (%.2f MB/s against %.2f MB/s at %d B)",
+                        series, size, bytesPerSecond / 1e6, bestBytesPerSecond / 1e6, bestSize);
+            }
+            if (bytesPerSecond > bestBytesPerSecond) {
+                bestBytesPerSecond = bytesPerSecond;
+                bestSize = size;
+            }
+        }
+        return String.format("%s: no collapse up to %d B (best %.2f MB/s at %d B, statuses %s)",
+                series, SIZES[SIZES.length - 1], bestBytesPerSecond / 1e6, bestSize, baseline.keySet());
+    }
+
+    private static HttpRequest request(String method, String path, byte[] body, boolean xml) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(TIMEOUT)
+                .method(method, HttpRequest.BodyPublishers.ofByteArray(body))
+                .header("Content-Type", xml ? SuiteEndpoint.XML : SuiteEndpoint.JSON)
+                .header("Accept", SuiteEndpoint.JSON)
+                .build();
+    }
+
+    /** Sends request and returns its status, noting the id of anything it created. */
+    private static int send(HttpRequest request, List<String> created) throws Exception {
+        HttpResponse<byte[]> response = send(request);
+        if (response.statusCode() == 201) {
+            created.add(MAPPER.readTree(response.body()).path("id").asText());
+        }
+        return response.statusCode();
+    }
+
+    /** Deletes what a POST series created, outside the measured part. */
+    private static void deleteAll(String collectionPath, List<String> created) throws Exception {
+        for (String id : created) {
+            send(HttpRequest.newBuilder(URI.create(baseUrl + collectionPath + "/" + id)).timeout(TIMEOUT).DELETE().build());
+        }
+        created.clear();
+    }
+
+    private static HttpResponse<byte[]> send(HttpRequest request) throws Exception {
+        return client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+    }
+}
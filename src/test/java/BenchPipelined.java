@@ -0,0 +1,109 @@
+import static io.restassured.RestAssured.*;
+
+import io.restassured.RestAssured;
+import io.restassured.specification.RequestSpecification;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.*;
+
+/**
+ * Saturates the server with the todo and project JSON endpoints (the ones
+ * TestTodoJSONDoc and TestProjectJSONDoc exercise) through the pipelined NIO client,
+ * then sends the same endpoints one at a time through REST-Assured, and reports the
+ * throughput and client CPU per request of both.
+ *
+ * Run with mvn test -Pperf -Dtest=BenchPipelined -Dpipeline.connections=4
+ * -Dpipeline.depth=16 -Dpipeline.seconds=20. -Dpipeline.checkBodies=true reads and
+ * checks entity GET bodies instead of skipping them; -Dload.includeCreates=true adds
+ * the POSTs that create entities.
+ */
+public class BenchPipelined {
+    private static final String BASE_URL = "http://localhost:4567";
+    private static final int CONNECTIONS = Integer.getInteger("pipeline.connections", 4);
+    private static final int DEPTH = Integer.getInteger("pipeline.depth", 16);
+    private static final int SECONDS = Integer.getInteger("pipeline.seconds", 20);
+    private static final int COMPARE_SECONDS = Integer.getInteger("pipeline.compareSeconds", 5);
+    private static final boolean CHECK_BODIES = Boolean.getBoolean("pipeline.checkBodies");
+    private static final boolean INCLUDE_CREATES = Boolean.getBoolean("load.includeCreates");
+    private static final byte[] ID_MARKER = "\"id\":\"".getBytes(StandardCharsets.US_ASCII);
+
+    private static BenchFixture fixture;
+    private static List<SuiteEndpoint> endpoints;
+
+    @BeforeAll
+    static void ServiceRunningCheck() {
+        RestAssured.baseURI = BASE_URL;
+        if (!ServerReadiness.awaitReady(BASE_URL)) {
+            Assumptions.abort("Service is not running at " + BASE_URL + ". Skipping benchmarks.");
+        }
+        fixture = BenchFixture.create(ServerReadiness.targetUrl());
+
+        endpoints = new ArrayList<>();
+        for (SuiteEndpoint endpoint : INCLUDE_CREATES ? SuiteEndpoints.all(fixture) : SuiteEndpoints.repeatable(fixture)) {
+            boolean todoOrProject = endpoint.route.startsWith("/todos") || endpoint.route.startsWith("/projects");
+            if (todoOrProject && SuiteEndpoint.JSON.equals(endpoint.mediaType)) {
+                endpoints.add(endpoint);
+            }
+        }
+    }
+
+    @AfterAll
+    static void tearDown() {
+        if (fixture != null) {
+            fixture.close();
+        }
+    }
+
+    @Test
+    @DisplayName("Pipelined: todo and project JSON endpoints at maximum rate")
+    void benchPipelined() throws Exception {
+        String host = ServerReadiness.targetUrl().replaceFirst("^http://", "");
+        List<PipelinedClient.Template> templates = new ArrayList<>();
+        for (SuiteEndpoint endpoint : endpoints) {
+            // Relationship lists can be empty (PUT clears links), so only entity reads are checked
+            boolean checked = CHECK_BODIES && endpoint.method.equals("GET") && endpoint.expectedStatus == 200
+                    && !endpoint.family().equals("relationships");
+            templates.add(new PipelinedClient.Template(endpoint, host, checked ? ID_MARKER : null));
+        }
+
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        long cpuBefore = threads.getCurrentThreadCpuTime();
+        PipelinedClient.Result result = new PipelinedClient(ServerReadiness.targetUrl(), templates, CONNECTIONS, DEPTH)
+                .run(Duration.ofSeconds(SECONDS));
+        long pipelinedCpu = threads.getCurrentThreadCpuTime() - cpuBefore;
+
+        System.out.println("[pipelined] " + templates.size() + " endpoints, " + CONNECTIONS + " connections x depth "
+                + DEPTH + (CHECK_BODIES ? ", checking entity GET bodies" : ""));
+        result.print("pipelined");
+
+        long[] restAssured = restAssuredBaseline(Duration.ofSeconds(COMPARE_SECONDS));
+        System.out.printf("[pipelined] client CPU per request: pipelined %.1f us (%.0f req/s), "
+                        + "REST-Assured %.1f us (%.0f req/s, one at a time)%n",
+                pipelinedCpu / 1e3 / Math.max(1, result.completed()), result.throughputPerSecond(),
+                restAssured[1] / 1e3 / Math.max(1, restAssured[0]), restAssured[0] / (double) COMPARE_SECONDS);
+    }
+
+    /** Sends the same endpoints sequentially through REST-Assured; returns {requests, client CPU nanos}. */
+    private static long[] restAssuredBaseline(Duration duration) {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        long cpuBefore = threads.getCurrentThreadCpuTime();
+        long deadline = System.nanoTime() + duration.toNanos();
+        long requests = 0;
+        while (System.nanoTime() < deadline) {
+            SuiteEndpoint endpoint = endpoints.get((int) (requests % endpoints.size()));
+            RequestSpecification request = given().accept(endpoint.mediaType);
+            if (endpoint.body != null) {
+                request.contentType(endpoint.mediaType).body(endpoint.body);
+            }
+            request.request(endpoint.method, endpoint.path).statusCode();
+            requests++;
+        }
+        return new long[] {requests, threads.getCurrentThreadCpuTime() - cpuBefore};
+    }
+}
@@ -0,0 +1,151 @@
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.restassured.RestAssured;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.*;
+
+/**
+ * Compares the server's query filtering (GET /todos?field=value) with fetching the
+ * whole list and filtering it in the client, across selectivities and dataset sizes.
+ *
+ * For each -Dquery.sizes dataset the benchmark creates that many todos, tagged so that
+ * description=rare matches 0.1% of them (at least one), description=tenth 10% and
+ * doneStatus=false 90%. Each filter is timed -Dquery.iterations times one request at a
+ * time, against an unfiltered GET /todos parsed and filtered with Jackson. The report
+ * shows latency, bytes transferred and which side wins; the todos are deleted afterwards.
+ * The seed todos are part of every dataset, so actual match counts are reported.
+ *
+ * Run with mvn test -Pperf -Dtest=BenchQueryFilter -Dquery.sizes=100,1000,10000.
+ */
+public class BenchQueryFilter {
+    private static final String BASE_URL = "http://localhost:4567";
+    private static final int[] SIZES = Arrays.stream(System.getProperty("query.sizes", "100,1000,5000").split(","))
+            .mapToInt(size -> Integer.parseInt(size.trim())).toArray();
+    private static final int ITERATIONS = Integer.getInteger("query.iterations", 50);
+    private static final int WARMUP = Integer.getInteger("query.warmup", 10);
+    private static final Duration TIMEOUT = Duration.ofSeconds(30);
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final BodyTemplate TODO_JSON = BodyTemplate.json(
+            "{\"title\":\"Query Bench :seq\",\"description\":\":description\",\"doneStatus\"::done}",
+            ":seq", ":description", ":done");
+    // field, value, share of the created todos that get it
+    private static final String[][] FILTERS = {
+            {"description", "rare", "0.001"},
+            {"description", "tenth", "0.1"},
+            {"doneStatus", "false", "0.9"},
+    };
+
+    private static HttpClient client;
+    private static String baseUrl;
+
+    /** Latency and size of one way of getting the matching todos. */
+    private static final class Timing {
+        final LatencyHistogram latency = new LatencyHistogram();
+        long bytes;
+        int matches;
+
+        double p50Millis() {
+            return latency.percentile(0.50) / 1e6;
+        }
+    }
+
+    @BeforeAll
+    static void ServiceRunningCheck() {
+        RestAssured.baseURI = BASE_URL;
+        if (!ServerReadiness.awaitReady(BASE_URL)) {
+            Assumptions.abort("Service is not running at " + BASE_URL + ". Skipping benchmarks.");
+        }
+        baseUrl = ServerReadiness.targetUrl();
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    }
+
+    @Test
+    @DisplayName("Query filter: server-side against client-side filtering")
+    void benchFilters() throws Exception {
+        for (int size : SIZES) {
+            List<String> created = createDataset(size);
+            try {
+                System.out.printf("[query] %d created todos%n", size);
+                for (String[] filter : FILTERS) {
+                    Timing server = time(filter, true);
+                    Timing client = time(filter, false);
+                    System.out.printf("[query]   %-18s %5d matches  server p50 %8.2f ms %9d B  "
+                                    + "client p50 %8.2f ms %9d B  -> %s filtering %.1fx faster%n",
+                            filter[0] + "=" + filter[1], server.matches, server.p50Millis(), server.bytes,
+                            client.p50Millis(), client.bytes,
+                            server.p50Millis() <= client.p50Millis() ? "server" : "client",
+                            Math.max(server.p50Millis(), client.p50Millis())
+                                    / Math.max(1e-3, Math.min(server.p50Millis(), client.p50Millis())));
+                    Assertions.assertEquals(server.matches, client.matches,
+                            "Server and client filtering disagree on " + filter[0] + "=" + filter[1]);
+                }
+            } finally {
+                for (String id : created) {
+                    send(HttpRequest.newBuilder(URI.create(baseUrl + "/todos/" + id)).timeout(TIMEOUT).DELETE().build());
+                }
+            }
+        }
+    }
+
+    /** Creates size todos; the first 0.1% are rare, the next 10% tenth, and 10% are done. */
+    private static List<String> createDataset(int size) throws Exception {
+        int rare = Math.max(1, (int) Math.round(size * 0.001));
+        int tenth = (int) Math.round(size * 0.1);
+        List<String> created = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            String description = i < rare ? "rare" : i < rare + tenth ? "tenth" : "common";
+            // doneStatus is independent of the description buckets: every tenth todo is done
+            boolean done = i % 10 == 9;
+            byte[] body = TODO_JSON.render(Integer.toString(i), description, Boolean.toString(done));
+            HttpResponse<byte[]> response = send(HttpRequest.newBuilder(URI.create(baseUrl + "/todos"))
+                    .timeout(TIMEOUT)
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(body))
+                    .header("Content-Type", SuiteEndpoint.JSON)
+                    .header("Accept", SuiteEndpoint.JSON)
+                    .build());
+            Assertions.assertEquals(201, response.statusCode(), "Creating todo " + i);
+            created.add(MAPPER.readTree(response.body()).path("id").asText());
+        }
+        return created;
+    }
+
+    /** Times fetching the todos that match filter, filtered by the server or by the client. */
+    private static Timing time(String[] filter, boolean serverSide) throws Exception {
+        String path = serverSide ? "/todos?" + filter[0] + "=" + filter[1] : "/todos";
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(TIMEOUT).header("Accept", SuiteEndpoint.JSON).build();
+        Timing timing = new Timing();
+        for (int i = 0; i < WARMUP + ITERATIONS; i++) {
+            long start = System.nanoTime();
+            HttpResponse<byte[]> response = send(request);
+            // Parsing is part of both paths: the caller needs the matching todos either way
+            int matches = 0;
+            for (JsonNode todo : MAPPER.readTree(response.body()).path("todos")) {
+                if (serverSide || filter[1].equals(todo.path(filter[0]).asText())) {
+                    matches++;
+                }
+            }
+            long elapsed = System.nanoTime() - start;
+            if (i >= WARMUP) {
+                timing.latency.record(elapsed);
+                timing.bytes = response.body().length;
+                timing.matches = matches;
+            }
+        }
+        return timing;
+    }
+
+    private static HttpResponse<byte[]> send(HttpRequest request) throws Exception {
+        return client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+    }
+}
@@ -0,0 +1,49 @@
+import java.io.File;
+import java.time.Duration;
+
+import org.junit.jupiter.api.*;
+
+/**
+ * Turns a captured session into a repeatable benchmark by replaying its traffic log.
+ *
+ * Capture first with mvn test -Dcapture.file=target/capture.tmlog, then run
+ * mvn test -Pperf -Dtest=BenchReplay -Dreplay.file=target/capture.tmlog -Dreplay.speed=10.
+ * -Dreplay.speed is 1, 10 or max; -Dreplay.mode=concurrency keeps the recorded
+ * concurrency instead of the recorded timing.
+ *
+ * Ids created during capture will not exist on a fresh server, so a replay against
+ * one reports some unexpected statuses; replay against the server that was captured
+ * (or a copy of its state) for like-for-like results.
+ */
+public class BenchReplay {
+    private static final String BASE_URL = "http://localhost:4567";
+    private static final String REPLAY_FILE = System.getProperty("replay.file", "target/capture.tmlog");
+    private static final String SPEED = System.getProperty("replay.speed", "1");
+    private static final String MODE = System.getProperty("replay.mode", "timing");
+    private static final int TIMEOUT_MS = Integer.getInteger("load.timeoutMs", 10_000);
+
+    @BeforeAll
+    static void ServiceRunningCheck() {
+        if (!new File(REPLAY_FILE).isFile()) {
+            Assumptions.abort("No traffic log at " + REPLAY_FILE + ". Capture one with -Dcapture.file first.");
+        }
+        if (!ServerReadiness.awaitReady(BASE_URL)) {
+            Assumptions.abort("Service is not running at " + BASE_URL + ". Skipping benchmarks.");
+        }
+    }
+
+    @Test
+    @DisplayName("Replay: captured traffic log")
+    void benchReplay() throws Exception {
+        TrafficReplayer replayer = new TrafficReplayer(ServerReadiness.targetUrl(), Duration.ofMillis(TIMEOUT_MS));
+        OpenLoopDriver.Result result;
+        if ("concurrency".equals(MODE)) {
+            result = replayer.replayConcurrency(new File(REPLAY_FILE));
+        } else {
+            result = replayer.replayTiming(new File(REPLAY_FILE), "max".equals(SPEED) ? 0 : Double.parseDouble(SPEED));
+        }
+
+        System.out.println("[replay] " + REPLAY_FILE + " mode=" + MODE + " speed=" + SPEED);
+        result.print("replay");
+    }
+}
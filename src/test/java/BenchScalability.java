@@ -0,0 +1,150 @@
+import io.restassured.RestAssured;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.*;
+
+/**
+ * Capacity report: runs each endpoint family (todos, projects, categories,
+ * relationships) closed-loop at increasing client counts, fits the throughput curve to
+ * the Universal Scalability Law and prints the contention and coherency coefficients
+ * with the predicted peak.
+ *
+ * Run with mvn test -Pperf -Dtest=BenchScalability. -Dusl.levels=1,2,4,...,512 sets the
+ * client counts, -Dusl.seconds the measured time per level (after -Dusl.warmupSeconds)
+ * and -Dusl.families which families to sweep. Each client sends the family's suite
+ * endpoints in turn and waits for every response before sending the next.
+ *
+ * The clients run in this JVM, so on a small machine the top levels measure the client
+ * as much as the server; compare the fitted lambda with a run against
+ * -Dtodo.reference=true to see how much of the curve is the client.
+ */
+public class BenchScalability {
+    private static final String BASE_URL = "http://localhost:4567";
+    private static final int[] LEVELS = Arrays.stream(
+            System.getProperty("usl.levels", "1,2,4,8,16,32,64,128,256,512").split(","))
+            .mapToInt(level -> Integer.parseInt(level.trim())).toArray();
+    private static final int SECONDS = Integer.getInteger("usl.seconds", 5);
+    private static final int WARMUP_SECONDS = Integer.getInteger("usl.warmupSeconds", 1);
+    private static final List<String> FAMILIES =
+            List.of(System.getProperty("usl.families", "todos,projects,categories,relationships").split(","));
+    private static final int TIMEOUT_MS = Integer.getInteger("load.timeoutMs", 10_000);
+
+    private static BenchFixture fixture;
+
+    @BeforeAll
+    static void ServiceRunningCheck() {
+        RestAssured.baseURI = BASE_URL;
+        if (!ServerReadiness.awaitReady(BASE_URL)) {
+            Assumptions.abort("Service is not running at " + BASE_URL + ". Skipping benchmarks.");
+        }
+        fixture = BenchFixture.create(ServerReadiness.targetUrl());
+    }
+
+    @AfterAll
+    static void tearDown() {
+        if (fixture != null) {
+            fixture.close();
+        }
+    }
+
+    @Test
+    @DisplayName("Scalability: USL fit per endpoint family")
+    void benchConcurrencySweep() throws Exception {
+        Map<String, List<SuiteEndpoint>> families = new LinkedHashMap<>();
+        for (SuiteEndpoint endpoint : SuiteEndpoints.repeatable(fixture)) {
+            if (FAMILIES.contains(endpoint.family())) {
+                families.computeIfAbsent(endpoint.family(), family -> new ArrayList<>()).add(endpoint);
+            }
+        }
+
+        Map<String, UslFit> fits = new LinkedHashMap<>();
+        for (Map.Entry<String, List<SuiteEndpoint>> family : families.entrySet()) {
+            double[] throughput = new double[LEVELS.length];
+            for (int i = 0; i < LEVELS.length; i++) {
+                long[] outcome = closedLoop(family.getValue(), LEVELS[i]);
+                throughput[i] = outcome[0] / (double) SECONDS;
+                System.out.printf("[usl] %-14s N=%-4d X=%9.1f req/s  mean=%8.2f ms  errors=%d%n",
+                        family.getKey(), LEVELS[i], throughput[i],
+                        outcome[0] == 0 ? 0 : outcome[1] / 1e6 / outcome[0], outcome[2]);
+            }
+            UslFit fit = UslFit.fit(LEVELS, throughput);
+            fits.put(family.getKey(), fit);
+            System.out.println("[usl] " + family.getKey() + " " + fit);
+        }
+
+        System.out.println("[usl] capacity summary");
+        fits.forEach((family, fit) -> System.out.printf(
+                "[usl]   %-14s contention sigma=%.4f coherency kappa=%.6f peak %.1f req/s at N=%.0f%n",
+                family, fit.sigma, fit.kappa, fit.peakThroughput(), fit.peakConcurrency()));
+    }
+
+    /**
+     * Runs that many closed-loop clients over the endpoints for the warm-up and measured
+     * windows. Returns {responses, total latency nanos, errors} for the measured window.
+     */
+    private static long[] closedLoop(List<SuiteEndpoint> endpoints, int clients) throws InterruptedException {
+        String baseUrl = ServerReadiness.targetUrl();
+        Duration timeout = Duration.ofMillis(TIMEOUT_MS);
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(timeout)
+                .build();
+        HttpRequest[] requests = endpoints.stream()
+                .map(endpoint -> endpoint.toHttpRequest(baseUrl, timeout)).toArray(HttpRequest[]::new);
+
+        AtomicLong responses = new AtomicLong();
+        AtomicLong latencyNanos = new AtomicLong();
+        AtomicLong errors = new AtomicLong();
+        long measureFrom = System.nanoTime() + WARMUP_SECONDS * 1_000_000_000L;
+        long measureTo = measureFrom + SECONDS * 1_000_000_000L;
+        CountDownLatch done = new CountDownLatch(clients);
+
+        for (int c = 0; c < clients; c++) {
+            int offset = c;
+            Thread thread = new Thread(() -> {
+                try {
+                    for (int i = offset; ; i++) {
+                        long start = System.nanoTime();
+                        if (start >= measureTo) {
+                            break;
+                        }
+                        SuiteEndpoint endpoint = endpoints.get(i % requests.length);
+                        boolean ok;
+                        try {
+                            int status = client.send(requests[i % requests.length],
+                                    HttpResponse.BodyHandlers.discarding()).statusCode();
+                            ok = status == endpoint.expectedStatus;
+                        } catch (Exception e) {
+                            ok = false;
+                        }
+                        long end = System.nanoTime();
+                        if (start >= measureFrom && end <= measureTo) {
+                            responses.incrementAndGet();
+                            latencyNanos.addAndGet(end - start);
+                            if (!ok) {
+                                errors.incrementAndGet();
+                            }
+                        }
+                    }
+                } finally {
+                    done.countDown();
+                }
+            }, "usl-client-" + c);
+            thread.setDaemon(true);
+            thread.start();
+        }
+        done.await();
+        return new long[] {responses.get(), latencyNanos.get(), errors.get()};
+    }
+}
@@ -0,0 +1,180 @@
+import static io.restassured.RestAssured.*;
+
+import io.restassured.RestAssured;
+import io.restassured.http.ContentType;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.*;
+
+/**
+ * Soak test: loops the create/relate/delete scenario from TestCategoryRelationshipsJSON
+ * for a long time and tracks the server's heap, GC and thread count over JMX.
+ *
+ * Every sample forces a full GC in the server first, so the recorded heap is what the
+ * server actually retains. A leak is flagged when retained heap keeps rising (positive
+ * slope with a good linear fit and more than -Dsoak.leakBytes of growth) while the
+ * number of live todos, projects and categories stays flat.
+ *
+ * By default a fresh jar is started on -Dsoak.port with JMX on -Dsoak.jmxPort. To soak
+ * an already running server, pass -Dsoak.baseUrl and -Dsoak.jmxUrl instead.
+ * Run with mvn test -Pperf -Dtest=BenchSoak -Dsoak.minutes=240.
+ */
+public class BenchSoak {
+    private static final double MINUTES = Double.parseDouble(System.getProperty("soak.minutes", "5"));
+    private static final int SAMPLE_SECONDS = Integer.getInteger("soak.sampleSeconds", 30);
+    private static final int PORT = Integer.getInteger("soak.port", 4590);
+    private static final int JMX_PORT = Integer.getInteger("soak.jmxPort", 4591);
+    private static final long LEAK_BYTES = Long.getLong("soak.leakBytes", 5L * 1024 * 1024);
+    private static final int ENTITY_TOLERANCE = Integer.getInteger("soak.entityTolerance", 5);
+
+    private static TodoManagerProcess server;
+    private static ServerJmxSampler jmx;
+
+    @BeforeAll
+    static void startServer() throws Exception {
+        String baseUrl = System.getProperty("soak.baseUrl");
+        String jmxUrl = System.getProperty("soak.jmxUrl");
+        if (baseUrl != null && jmxUrl != null) {
+            if (!ServerReadiness.awaitReady(baseUrl)) {
+                Assumptions.abort("Service is not running at " + baseUrl + ". Skipping soak.");
+            }
+            jmx = ServerJmxSampler.connect(jmxUrl);
+        } else {
+            server = TodoManagerProcess.start(PORT, ServerJmxSampler.jvmArgs(JMX_PORT));
+            baseUrl = server.baseUrl();
+            jmx = ServerJmxSampler.connect(JMX_PORT);
+        }
+        RestAssured.baseURI = baseUrl;
+    }
+
+    @AfterAll
+    static void stopServer() throws Exception {
+        if (jmx != null) {
+            jmx.close();
+        }
+        if (server != null) {
+            server.close();
+        }
+    }
+
+    @Test
+    @DisplayName("Soak: create/relate/delete loop with retained heap trend")
+    void soakRelationshipLifecycle() {
+        long end = System.currentTimeMillis() + (long) (MINUTES * 60_000);
+        long nextSample = 0;
+        long iterations = 0;
+        List<ServerJmxSampler.Sample> samples = new ArrayList<>();
+        List<Integer> entityCounts = new ArrayList<>();
+
+        System.out.println("[soak] minute  iterations  retainedMB  committedMB  gcCount  gcMs  threads  entities");
+        while (true) {
+            long now = System.currentTimeMillis();
+            if (now >= nextSample) {
+                jmx.fullGc();
+                ServerJmxSampler.Sample sample = jmx.sample();
+                int entities = liveEntityCount();
+                samples.add(sample);
+                entityCounts.add(entities);
+                System.out.printf("[soak] %6.1f  %10d  %10.2f  %11.2f  %7d  %4d  %7d  %8d%n",
+                        (sample.timestampMillis - samples.get(0).timestampMillis) / 60_000.0, iterations,
+                        sample.heapUsedBytes / 1048576.0, sample.heapCommittedBytes / 1048576.0,
+                        sample.gcCount, sample.gcTimeMillis, sample.threadCount, entities);
+                nextSample = now + SAMPLE_SECONDS * 1_000L;
+            }
+            if (now >= end) {
+                break;
+            }
+            createRelateDelete();
+            iterations++;
+        }
+
+        String verdict = leakVerdict(samples, entityCounts);
+        System.out.println("[soak] " + iterations + " iterations, " + verdict);
+        Assertions.assertFalse(verdict.startsWith("LEAK"), verdict);
+    }
+
+    /** One pass of the relationship lifecycle the functional tests exercise. */
+    private void createRelateDelete() {
+        String todoId = create("/todos", "{\"title\":\"Soak Todo\"}");
+        String projectId = create("/projects", "{\"title\":\"Soak Project\"}");
+        String categoryId = create("/categories", "{\"title\":\"Soak Category\"}");
+
+        relate("/todos/" + todoId + "/categories", categoryId);
+        relate("/projects/" + projectId + "/categories", categoryId);
+        relate("/projects/" + projectId + "/tasks", todoId);
+
+        given().accept(ContentType.JSON).get("/projects/" + projectId + "/tasks").then().statusCode(200);
+        given().accept(ContentType.JSON).get("/categories/" + categoryId + "/todos").then().statusCode(200);
+
+        given().delete("/projects/" + projectId + "/categories/" + categoryId).then().statusCode(200);
+        given().delete("/projects/" + projectId + "/tasks/" + todoId).then().statusCode(200);
+
+        given().delete("/todos/" + todoId).then().statusCode(200);
+        given().delete("/projects/" + projectId).then().statusCode(200);
+        given().delete("/categories/" + categoryId).then().statusCode(200);
+    }
+
+    private static String create(String path, String body) {
+        return given().contentType(ContentType.JSON).body(body).post(path)
+                .then().statusCode(201).extract().jsonPath().getString("id");
+    }
+
+    private static void relate(String path, String id) {
+        given().contentType(ContentType.JSON).body(BodyTemplate.LINK_JSON.render(id)).post(path)
+                .then().statusCode(201);
+    }
+
+    private static int liveEntityCount() {
+        return given().accept(ContentType.JSON).get("/todos").jsonPath().getList("todos").size()
+                + given().accept(ContentType.JSON).get("/projects").jsonPath().getList("projects").size()
+                + given().accept(ContentType.JSON).get("/categories").jsonPath().getList("categories").size();
+    }
+
+    /**
+     * Fits retained heap against time. Growth only counts as a leak when the entity
+     * count stayed flat, otherwise the heap is simply holding more data.
+     */
+    static String leakVerdict(List<ServerJmxSampler.Sample> samples, List<Integer> entityCounts) {
+        if (samples.size() < 3) {
+            return "too few samples for a trend (" + samples.size() + ")";
+        }
+
+        int n = samples.size();
+        double[] x = new double[n];
+        double[] y = new double[n];
+        for (int i = 0; i < n; i++) {
+            x[i] = (samples.get(i).timestampMillis - samples.get(0).timestampMillis) / 60_000.0;
+            y[i] = samples.get(i).heapUsedBytes;
+        }
+        double meanX = 0;
+        double meanY = 0;
+        for (int i = 0; i < n; i++) {
+            meanX += x[i] / n;
+            meanY += y[i] / n;
+        }
+        double sxx = 0;
+        double sxy = 0;
+        double syy = 0;
+        for (int i = 0; i < n; i++) {
+            sxx += (x[i] - meanX) * (x[i] - meanX);
+            sxy += (x[i] - meanX) * (y[i] - meanY);
+            syy += (y[i] - meanY) * (y[i] - meanY);
+        }
+        double slope = sxx == 0 ? 0 : sxy / sxx;
+        double rSquared = sxx == 0 || syy == 0 ? 0 : (sxy * sxy) / (sxx * syy);
+        double growth = slope * (x[n - 1] - x[0]);
+
+        int minEntities = entityCounts.stream().mapToInt(Integer::intValue).min().orElse(0);
+        int maxEntities = entityCounts.stream().mapToInt(Integer::intValue).max().orElse(0);
+        boolean entitiesFlat = maxEntities - minEntities <= ENTITY_TOLERANCE;
+
+        String trend = String.format("retained heap %+.1f KB/min (R^2 %.2f, %+.2f MB over run), entities %d..%d",
+                slope / 1024.0, rSquared, growth / 1048576.0, minEntities, maxEntities);
+        if (entitiesFlat && slope > 0 && rSquared >= 0.6 && growth > LEAK_BYTES) {
+            return "LEAK suspected: " + trend;
+        }
+        return "no leak: " + trend;
+    }
+}
@@ -0,0 +1,371 @@
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.restassured.RestAssured;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import org.junit.jupiter.api.*;
+
+/**
+ * Benchmarks every route and verb the server describes at /docs/swagger, not just the
+ * ones the functional suite sends, and prints a coverage matrix of which operations
+ * now have performance data and which of those the suite never exercises.
+ *
+ * Each operation is sent one request at a time with JSON bodies: -Dswagger.warmup
+ * untimed rounds, then -Dswagger.iterations timed ones. Reads go to a {@link BenchFixture};
+ * amends and relationship changes go to scratch instances; creates are deleted again
+ * and deletes get a fresh instance or link to remove, set up outside the timed part.
+ * The full table is also written to -Dswagger.csv (default target/route-coverage.csv).
+ *
+ * What counts as exercised by the suite comes from real suite traffic, not from the
+ * load catalogue in {@link SuiteEndpoints}: by default the checked-in
+ * src/test/resources/suite-operations.txt, or with -Dswagger.suiteCapture=LOG the
+ * operations in a traffic log recorded with mvn test -Dcapture.file=LOG. In that case
+ * the list is printed, so the checked-in file can be regenerated from it.
+ *
+ * Run with mvn test -Pperf -Dtest=BenchSwaggerRoutes.
+ */
+public class BenchSwaggerRoutes {
+    private static final String BASE_URL = "http://localhost:4567";
+    private static final int WARMUP = Integer.getInteger("swagger.warmup", 50);
+    private static final int ITERATIONS = Integer.getInteger("swagger.iterations", 200);
+    private static final Path CSV = Path.of(System.getProperty("swagger.csv", "target/route-coverage.csv"));
+    private static final String SUITE_CAPTURE = System.getProperty("swagger.suiteCapture");
+    private static final String SUITE_OPERATIONS = "/suite-operations.txt";
+    private static final List<String> VERBS = List.of("GET", "HEAD", "OPTIONS", "POST", "PUT", "PATCH", "DELETE");
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private static BenchFixture fixture;
+    private static List<ApiDescription.Operation> operations;
+    private static HttpClient client;
+    private static String baseUrl;
+    private static final Map<String, String> readIds = new HashMap<>();
+    private static final Map<String, String> scratchIds = new HashMap<>();
+    private static final Map<String, String> relationshipTargets = new HashMap<>();
+    private static final List<String> created = new ArrayList<>();
+
+    /** How one operation is sent: untimed setup returning the request to time, then untimed cleanup. */
+    private interface Probe {
+        HttpRequest prepare() throws Exception;
+
+        default void cleanUp(HttpResponse<byte[]> response) throws Exception {
+        }
+    }
+
+    /** Measurements for one operation. */
+    private static final class Row {
+        final ApiDescription.Operation operation;
+        final boolean inSuite;
+        final LatencyHistogram latency = new LatencyHistogram();
+        final Map<Integer, Integer> statuses = new TreeMap<>();
+        long measuredNanos;
+        String error;
+
+        Row(ApiDescription.Operation operation, boolean inSuite) {
+            this.operation = operation;
+            this.inSuite = inSuite;
+        }
+
+        boolean benchmarked() {
+            return latency.count() > 0;
+        }
+
+        long undocumented() {
+            return statuses.entrySet().stream()
+                    .filter(status -> !operation.statuses.contains(status.getKey()))
+                    .mapToLong(Map.Entry::getValue).sum();
+        }
+    }
+
+    @BeforeAll
+    static void ServiceRunningCheck() {
+        RestAssured.baseURI = BASE_URL;
+        if (!ServerReadiness.awaitReady(BASE_URL)) {
+            Assumptions.abort("Service is not running at " + BASE_URL + ". Skipping benchmarks.");
+        }
+        baseUrl = ServerReadiness.targetUrl();
+        try {
+            operations = ApiDescription.fetch(baseUrl);
+        } catch (Exception e) {
+            Assumptions.abort(baseUrl + " does not describe its routes at " + ApiDescription.SWAGGER_PATH + ": " + e);
+        }
+        fixture = BenchFixture.create(baseUrl);
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        readIds.put("todos", fixture.todoId);
+        readIds.put("projects", fixture.projectId);
+        readIds.put("categories", fixture.categoryId);
+    }
+
+    @AfterAll
+    static void tearDown() throws Exception {
+        for (String path : created) {
+            send(request("DELETE", path, null));
+        }
+        if (fixture != null) {
+            fixture.close();
+        }
+    }
+
+    @Test
+    @DisplayName("Swagger: every described route and verb")
+    void benchEveryOperation() throws Exception {
+        Set<String> suiteOperations = suiteOperations();
+
+        List<Row> rows = new ArrayList<>();
+        for (ApiDescription.Operation operation : operations) {
+            Row row = new Row(operation, suiteOperations.contains(operation.name()));
+            try {
+                measure(row, probe(operation));
+            } catch (Exception e) {
+                row.error = e.toString();
+            }
+            rows.add(row);
+        }
+
+        printMatrix(rows);
+        writeCsv(rows);
+        long benchmarked = rows.stream().filter(Row::benchmarked).count();
+        long suiteMisses = rows.stream().filter(row -> row.benchmarked() && !row.inSuite).count();
+        System.out.printf("[swagger] %d operations described, %d benchmarked, %d of them not exercised by the suite; "
+                + "table written to %s%n", rows.size(), benchmarked, suiteMisses, CSV);
+        rows.stream().filter(row -> row.error != null)
+                .forEach(row -> System.out.println("[swagger] " + row.operation.name() + " not benchmarked: " + row.error));
+        rows.stream().filter(row -> row.undocumented() > 0)
+                .forEach(row -> System.out.println("[swagger] " + row.operation.name() + " answered " + row.statuses
+                        + ", documented " + row.operation.statuses));
+    }
+
+    /** "GET /todos/:id"-style operations the functional suite sends, from a capture or the checked-in list. */
+    private static Set<String> suiteOperations() throws IOException {
+        Set<String> suiteOperations = new TreeSet<>();
+        if (SUITE_CAPTURE != null) {
+            try (TrafficLog.Reader reader = new TrafficLog.Reader(new File(SUITE_CAPTURE))) {
+                for (TrafficLog.Record record = reader.next(); record != null; record = reader.next()) {
+                    suiteOperations.add(record.method + " " + record.route());
+                }
+            }
+            System.out.println("[swagger] " + suiteOperations.size() + " operations in suite capture " + SUITE_CAPTURE);
+            suiteOperations.forEach(operation -> System.out.println("[swagger]   " + operation));
+            return suiteOperations;
+        }
+        try (InputStream in = BenchSwaggerRoutes.class.getResourceAsStream(SUITE_OPERATIONS)) {
+            if (in == null) {
+                throw new IOException(SUITE_OPERATIONS + " is not on the test classpath");
+            }
+            BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+            for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                if (!line.isBlank() && !line.startsWith("#")) {
+                    suiteOperations.add(line.trim());
+                }
+            }
+        }
+        return suiteOperations;
+    }
+
+    private static void measure(Row row, Probe probe) throws Exception {
+        for (int i = 0; i < WARMUP + ITERATIONS; i++) {
+            HttpRequest request = probe.prepare();
+            long start = System.nanoTime();
+            HttpResponse<byte[]> response = send(request);
+            long elapsed = System.nanoTime() - start;
+            probe.cleanUp(response);
+            if (i >= WARMUP) {
+                row.latency.record(elapsed);
+                row.measuredNanos += elapsed;
+                row.statuses.merge(response.statusCode(), 1, Integer::sum);
+            }
+        }
+    }
+
+    /** Picks ids, bodies, setup and cleanup for an operation from the shape of its route. */
+    private static Probe probe(ApiDescription.Operation operation) throws Exception {
+        String[] segments = operation.segments();
+        String method = operation.method;
+        String collection = segments[0];
+        boolean read = method.equals("GET") || method.equals("HEAD") || method.equals("OPTIONS");
+        String titleBody = "{\"title\":\"Bench " + collection + "\"}";
+        String body = method.equals("POST") || method.equals("PUT") || method.equals("PATCH") ? titleBody : null;
+
+        switch (segments.length) {
+            case 1:
+                if (method.equals("POST")) {
+                    return new Probe() {
+                        @Override
+                        public HttpRequest prepare() {
+                            return request("POST", "/" + collection, titleBody);
+                        }
+
+                        @Override
+                        public void cleanUp(HttpResponse<byte[]> response) throws Exception {
+                            if (response.statusCode() == 201) {
+                                send(request("DELETE", "/" + collection + "/" + idOf(response), null));
+                            }
+                        }
+                    };
+                }
+                return () -> request(method, "/" + collection, body);
+            case 2:
+                if (method.equals("DELETE")) {
+                    return () -> request("DELETE", "/" + collection + "/" + create(collection), null);
+                }
+                String id = read ? readId(collection) : scratchId(collection);
+                return () -> request(method, "/" + collection + "/" + id, body);
+            case 3: {
+                String relationship = "/" + segments[2];
+                String targetId = readId(targetOf(collection, segments[2]));
+                if (read) {
+                    return () -> request(method, "/" + collection + "/" + readId(collection) + relationship, null);
+                }
+                String linkBody = new String(BodyTemplate.LINK_JSON.render(targetId), StandardCharsets.UTF_8);
+                String source = "/" + collection + "/" + scratchId(collection) + relationship;
+                return () -> request(method, source, method.equals("DELETE") ? null : linkBody);
+            }
+            default: {
+                String relationship = "/" + segments[2];
+                String targetId = readId(targetOf(collection, segments[2]));
+                if (method.equals("DELETE")) {
+                    String source = "/" + collection + "/" + scratchId(collection) + relationship;
+                    String linkBody = new String(BodyTemplate.LINK_JSON.render(targetId), StandardCharsets.UTF_8);
+                    return () -> {
+                        send(request("POST", source, linkBody));
+                        return request("DELETE", source + "/" + targetId, null);
+                    };
+                }
+                String path = "/" + collection + "/" + readId(collection) + relationship + "/" + targetId;
+                return () -> request(method, path, body);
+            }
+        }
+    }
+
+    /** The fixture instance of a collection, created on first use for collections the fixture lacks. */
+    private static String readId(String collection) throws Exception {
+        String id = readIds.get(collection);
+        if (id == null) {
+            id = create(collection);
+            readIds.put(collection, id);
+            created.add("/" + collection + "/" + id);
+        }
+        return id;
+    }
+
+    /** An instance of a collection that amends, replaces and relationship changes may disturb. */
+    private static String scratchId(String collection) throws Exception {
+        String id = scratchIds.get(collection);
+        if (id == null) {
+            id = create(collection);
+            scratchIds.put(collection, id);
+            created.add("/" + collection + "/" + id);
+        }
+        return id;
+    }
+
+    /** The collection a relationship points at, read from the key of its JSON listing. */
+    private static String targetOf(String collection, String relationship) throws Exception {
+        String key = collection + "/" + relationship;
+        String target = relationshipTargets.get(key);
+        if (target == null) {
+            HttpResponse<byte[]> response = send(request("GET",
+                    "/" + collection + "/" + readId(collection) + "/" + relationship, null));
+            target = MAPPER.readTree(response.body()).fieldNames().next();
+            relationshipTargets.put(key, target);
+        }
+        return target;
+    }
+
+    private static String create(String collection) throws Exception {
+        HttpResponse<byte[]> response = send(request("POST", "/" + collection,
+                "{\"title\":\"Bench " + collection + "\"}"));
+        if (response.statusCode() != 201) {
+            throw new IllegalStateException("POST /" + collection + " answered " + response.statusCode());
+        }
+        return idOf(response);
+    }
+
+    private static String idOf(HttpResponse<byte[]> response) throws Exception {
+        JsonNode id = MAPPER.readTree(response.body()).get("id");
+        if (id == null) {
+            throw new IllegalStateException("No id in " + new String(response.body(), StandardCharsets.UTF_8));
+        }
+        return id.asText();
+    }
+
+    private static HttpRequest request(String method, String path, String body) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(Duration.ofSeconds(10))
+                .method(method, body == null ? HttpRequest.BodyPublishers.noBody()
+                        : HttpRequest.BodyPublishers.ofString(body))
+                .header("Accept", SuiteEndpoint.JSON);
+        if (body != null) {
+            builder.header("Content-Type", SuiteEndpoint.JSON);
+        }
+        return builder.build();
+    }
+
+    private static HttpResponse<byte[]> send(HttpRequest request) throws Exception {
+        return client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+    }
+
+    /** Routes down, verbs across; each cell is the p50 in ms, * when the suite never sends it. */
+    private static void printMatrix(List<Row> rows) {
+        Map<String, Map<String, Row>> byRoute = new LinkedHashMap<>();
+        rows.forEach(row -> byRoute.computeIfAbsent(row.operation.route, route -> new HashMap<>())
+                .put(row.operation.method, row));
+
+        StringBuilder header = new StringBuilder(String.format("[swagger] %-30s", "p50 ms"));
+        VERBS.forEach(verb -> header.append(String.format("%10s", verb)));
+        System.out.println(header);
+        byRoute.forEach((route, verbs) -> {
+            StringBuilder line = new StringBuilder(String.format("[swagger] %-30s", route));
+            for (String verb : VERBS) {
+                Row row = verbs.get(verb);
+                String cell = row == null ? "-"
+                        : !row.benchmarked() ? "error"
+                        : String.format("%.2f%s", row.latency.percentile(0.50) / 1e6, row.inSuite ? " " : "*");
+                line.append(String.format("%10s", cell));
+            }
+            System.out.println(line);
+        });
+        System.out.println("[swagger] - not described, * not exercised by the functional suite");
+    }
+
+    private static void writeCsv(List<Row> rows) throws Exception {
+        if (CSV.getParent() != null) {
+            Files.createDirectories(CSV.getParent());
+        }
+        try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(CSV, StandardCharsets.UTF_8))) {
+            out.println("method,route,documented_statuses,in_suite,benchmarked,observed_statuses,"
+                    + "requests,req_per_s,p50_ms,p99_ms,max_ms");
+            for (Row row : rows) {
+                out.printf("%s,%s,%s,%s,%s,%s,%d,%.1f,%.3f,%.3f,%.3f%n",
+                        row.operation.method, row.operation.route,
+                        row.operation.statuses.toString().replace(", ", " "), row.inSuite, row.benchmarked(),
+                        row.statuses.toString().replace(", ", " "), row.latency.count(),
+                        row.measuredNanos == 0 ? 0 : row.latency.count() / (row.measuredNanos / 1e9),
+                        row.latency.percentile(0.50) / 1e6, row.latency.percentile(0.99) / 1e6,
+                        row.latency.max() / 1e6);
+            }
+        }
+    }
+}
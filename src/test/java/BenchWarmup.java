@@ -0,0 +1,116 @@
+import static io.restassured.RestAssured.*;
+
+import io.restassured.RestAssured;
+import io.restassured.http.ContentType;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.*;
+
+/**
+ * Times the hot read endpoints until their latency settles, discards the warm-up
+ * samples and reports how many iterations each endpoint needed to get there.
+ *
+ * Every endpoint is measured on a freshly started jar (on -Dwarmup.port, default 4593),
+ * not the shared server: that one has already been primed by the suite's readiness
+ * warm-up and by earlier tests, which would understate the iterations a cold server
+ * needs. Only the few writes that set up the fixture reach it before the timed GETs.
+ *
+ * Run with mvn test -Pperf -Dtest=BenchWarmup. -Dbench.maxIterations caps the
+ * run per endpoint and -Dbench.steadyIterations sets how many samples are kept
+ * after steady state is reached.
+ */
+public class BenchWarmup {
+    private static final int PORT = Integer.getInteger("warmup.port", 4593);
+    private static final int MAX_ITERATIONS = Integer.getInteger("bench.maxIterations", 5_000);
+    private static final int STEADY_ITERATIONS = Integer.getInteger("bench.steadyIterations", 1_000);
+
+    private TodoManagerProcess server;
+    private String projectId;
+    private String todoId;
+    private String categoryId;
+
+    @BeforeEach
+    void startColdServer() throws Exception {
+        server = TodoManagerProcess.start(PORT, List.of());
+        RestAssured.baseURI = server.baseUrl();
+
+        projectId = given().contentType(ContentType.JSON).body("{\"title\":\"Bench Project\"}")
+                .post("/projects").jsonPath().getString("id");
+        todoId = given().contentType(ContentType.JSON).body("{\"title\":\"Bench Todo\"}")
+                .post("/todos").jsonPath().getString("id");
+        categoryId = given().contentType(ContentType.JSON).body("{\"title\":\"Bench Category\"}")
+                .post("/categories").jsonPath().getString("id");
+
+        given().contentType(ContentType.JSON).body(BodyTemplate.LINK_JSON.render(todoId))
+                .post("/projects/" + projectId + "/tasks").then().statusCode(201);
+        given().contentType(ContentType.JSON).body(BodyTemplate.LINK_JSON.render(todoId))
+                .post("/categories/" + categoryId + "/todos").then().statusCode(201);
+    }
+
+    @AfterEach
+    void stopServer() {
+        // The jar keeps its data in memory, so stopping it is the whole clean-up
+        if (server != null) {
+            server.close();
+        }
+    }
+
+    @Test
+    @DisplayName("Warm-up: GET /todos")
+    void benchTodos() {
+        measure("GET /todos", "/todos");
+    }
+
+    @Test
+    @DisplayName("Warm-up: GET /projects/:id/tasks")
+    void benchProjectTasks() {
+        measure("GET /projects/:id/tasks", "/projects/" + projectId + "/tasks");
+    }
+
+    @Test
+    @DisplayName("Warm-up: GET /categories/:id/todos")
+    void benchCategoryTodos() {
+        measure("GET /categories/:id/todos", "/categories/" + categoryId + "/todos");
+    }
+
+    private void measure(String endpoint, String path) {
+        SteadyStateDetector detector = SteadyStateDetector.forHttpLatency();
+        long[] steadySamples = new long[STEADY_ITERATIONS];
+        int kept = 0;
+
+        for (int i = 0; i < MAX_ITERATIONS && kept < STEADY_ITERATIONS; i++) {
+            long start = System.nanoTime();
+            given().accept(ContentType.JSON).get(path).then().statusCode(200);
+            long elapsed = System.nanoTime() - start;
+
+            boolean steadyBefore = detector.isSteady();
+            detector.add(elapsed);
+            if (steadyBefore) {
+                steadySamples[kept++] = elapsed;
+            }
+        }
+
+        if (!detector.isSteady()) {
+            System.out.println("[warmup] " + endpoint + ": no steady state within " + MAX_ITERATIONS + " iterations");
+            return;
+        }
+
+        long[] sorted = Arrays.copyOf(steadySamples, kept);
+        Arrays.sort(sorted);
+        System.out.printf("[warmup] %-26s warm-up %5d iterations, steady n=%d mean=%.1fus p50=%.1fus p99=%.1fus%n",
+                endpoint, detector.warmupSamples(), kept,
+                Arrays.stream(sorted).average().orElse(0) / 1_000.0,
+                percentile(sorted, 0.50) / 1_000.0,
+                percentile(sorted, 0.99) / 1_000.0);
+    }
+
+    private static long percentile(long[] sorted, double quantile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(quantile * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+    }
+}
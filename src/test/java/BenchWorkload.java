@@ -0,0 +1,58 @@
+import io.restassured.RestAssured;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+import org.junit.jupiter.api.*;
+
+/**
+ * Replays a weighted traffic mix from a workload file at a target rate with the
+ * open-loop driver, so production-like ratios can be modelled without writing Java.
+ *
+ * Run with mvn test -Pperf -Dtest=BenchWorkload -Dworkload.file=path/to/mix.jsonl
+ * -Dload.rate=300 -Dload.seconds=60. The default mix is src/test/resources/workload.jsonl;
+ * see WorkloadMix for the line format.
+ */
+public class BenchWorkload {
+    private static final String BASE_URL = "http://localhost:4567";
+    private static final String WORKLOAD_FILE = System.getProperty("workload.file", "src/test/resources/workload.jsonl");
+    private static final double RATE = Double.parseDouble(System.getProperty("load.rate", "200"));
+    private static final int SECONDS = Integer.getInteger("load.seconds", 30);
+    private static final int TIMEOUT_MS = Integer.getInteger("load.timeoutMs", 10_000);
+    private static final int LIVE_IDS = Integer.getInteger("workload.liveIds", 20);
+    private static final long SEED = Long.getLong("workload.seed", 429);
+
+    private static LiveIds liveIds;
+
+    @BeforeAll
+    static void ServiceRunningCheck() {
+        RestAssured.baseURI = BASE_URL;
+        if (!ServerReadiness.awaitReady(BASE_URL)) {
+            Assumptions.abort("Service is not running at " + BASE_URL + ". Skipping benchmarks.");
+        }
+        liveIds = LiveIds.create(ServerReadiness.targetUrl(), LIVE_IDS, SEED);
+    }
+
+    @AfterAll
+    static void tearDown() {
+        if (liveIds != null) {
+            liveIds.close();
+        }
+    }
+
+    @Test
+    @DisplayName("Workload: weighted mix from workload file at a fixed rate")
+    void benchWorkloadMix() throws Exception {
+        try (WorkloadMix mix = WorkloadMix.load(Path.of(WORKLOAD_FILE))) {
+            System.out.println("[workload] " + mix.size() + " entries from " + WORKLOAD_FILE
+                    + (mix.skippedLines > 0 ? ", skipped " + mix.skippedLines + " lines" : ""));
+
+            OpenLoopDriver driver = new OpenLoopDriver(ServerReadiness.targetUrl(), Duration.ofMillis(TIMEOUT_MS));
+            OpenLoopDriver.Result result = driver.run(mix.sampler(liveIds::randomId, SEED), RATE,
+                    Duration.ofSeconds(SECONDS));
+
+            result.print("workload");
+            System.out.println("[workload] all endpoints corrected " + result.totalCorrected().summary());
+        }
+    }
+}
@@ -0,0 +1,185 @@
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A request body with named placeholders, encoded to bytes once so each request only
+ * splices in its values.
+ *
+ * <pre>
+ * BodyTemplate link = BodyTemplate.json("{\"id\":\":id\"}", ":id");
+ * given().body(link.render(todoId))...
+ * </pre>
+ *
+ * The static fragments between placeholders are kept as UTF-8 byte arrays. Values are
+ * escaped for the template's format (JSON strings or XML text) while they are copied,
+ * with no intermediate Strings. {@link #render} returns a new exact-size array;
+ * {@link #writeTo} copies into a buffer the caller owns and allocates nothing. The load
+ * drivers use render, because HttpClient holds on to a body until it has been sent.
+ */
+public final class BodyTemplate {
+    /** Body that links a relationship to an existing instance, e.g. POST /projects/:id/tasks. */
+    static final BodyTemplate LINK_JSON = json("{\"id\":\":id\"}", ":id");
+
+    private final boolean xml;
+    private final byte[][] fragments;
+    // slots[i] is the placeholder that goes between fragments[i] and fragments[i + 1]
+    private final int[] slots;
+    private final int placeholderCount;
+    private final int staticLength;
+
+    private BodyTemplate(boolean xml, byte[][] fragments, int[] slots, int placeholderCount) {
+        this.xml = xml;
+        this.fragments = fragments;
+        this.slots = slots;
+        this.placeholderCount = placeholderCount;
+        int length = 0;
+        for (byte[] fragment : fragments) {
+            length += fragment.length;
+        }
+        this.staticLength = length;
+    }
+
+    static BodyTemplate json(String template, String... placeholders) {
+        return compile(false, template, placeholders);
+    }
+
+    static BodyTemplate xml(String template, String... placeholders) {
+        return compile(true, template, placeholders);
+    }
+
+    private static BodyTemplate compile(boolean xml, String template, String[] placeholders) {
+        List<byte[]> fragments = new ArrayList<>();
+        List<Integer> slots = new ArrayList<>();
+        int from = 0;
+        while (true) {
+            int at = -1;
+            int which = -1;
+            for (int p = 0; p < placeholders.length; p++) {
+                int found = template.indexOf(placeholders[p], from);
+                // Earliest match wins; on a tie the longer name (":todoId" over ":to")
+                if (found >= 0 && (at < 0 || found < at
+                        || found == at && placeholders[p].length() > placeholders[which].length())) {
+                    at = found;
+                    which = p;
+                }
+            }
+            if (at < 0) {
+                fragments.add(template.substring(from).getBytes(StandardCharsets.UTF_8));
+                break;
+            }
+            fragments.add(template.substring(from, at).getBytes(StandardCharsets.UTF_8));
+            slots.add(which);
+            from = at + placeholders[which].length();
+        }
+        return new BodyTemplate(xml, fragments.toArray(new byte[0][]),
+                slots.stream().mapToInt(Integer::intValue).toArray(), placeholders.length);
+    }
+
+    /** Whether the placeholder at this index appears in the template. */
+    boolean uses(int placeholder) {
+        for (int slot : slots) {
+            if (slot == placeholder) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** Encoded size of the body for these values, in placeholder declaration order. */
+    int length(String... values) {
+        checkArity(values);
+        int length = staticLength;
+        for (int slot : slots) {
+            length += encodedLength(values[slot]);
+        }
+        return length;
+    }
+
+    /** The body as a new exact-size byte array. */
+    byte[] render(String... values) {
+        byte[] body = new byte[length(values)];
+        writeTo(ByteBuffer.wrap(body), values);
+        return body;
+    }
+
+    /** Writes the body at out's position; out must have {@link #length} bytes remaining. */
+    void writeTo(ByteBuffer out, String... values) {
+        checkArity(values);
+        out.put(fragments[0]);
+        for (int i = 0; i < slots.length; i++) {
+            encode(values[slots[i]], out);
+            out.put(fragments[i + 1]);
+        }
+    }
+
+    private void checkArity(String[] values) {
+        if (values.length != placeholderCount) {
+            throw new IllegalArgumentException("Template takes " + placeholderCount + " values, got " + values.length);
+        }
+    }
+
+    private int encodedLength(String value) {
+        int length = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            String escape = escape(c);
+            if (escape != null) {
+                length += escape.length();
+            } else if (c < 0x80) {
+                length++;
+            } else if (c < 0x800) {
+                length += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < value.length()) {
+                length += 4;
+                i++;
+            } else {
+                length += 3;
+            }
+        }
+        return length;
+    }
+
+    private void encode(String value, ByteBuffer out) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            String escape = escape(c);
+            if (escape != null) {
+                for (int e = 0; e < escape.length(); e++) {
+                    out.put((byte) escape.charAt(e));
+                }
+            } else if (c < 0x80) {
+                out.put((byte) c);
+            } else if (c < 0x800) {
+                out.put((byte) (0xc0 | c >> 6)).put((byte) (0x80 | c & 0x3f));
+            } else if (Character.isHighSurrogate(c) && i + 1 < value.length()) {
+                int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                out.put((byte) (0xf0 | codePoint >> 18)).put((byte) (0x80 | codePoint >> 12 & 0x3f))
+                        .put((byte) (0x80 | codePoint >> 6 & 0x3f)).put((byte) (0x80 | codePoint & 0x3f));
+            } else {
+                out.put((byte) (0xe0 | c >> 12)).put((byte) (0x80 | c >> 6 & 0x3f)).put((byte) (0x80 | c & 0x3f));
+            }
+        }
+    }
+
+    /** The escape sequence for c in this format, or null if c is written as is. */
+    private String escape(char c) {
+        if (xml) {
+            switch (c) {
+                case '<': return "&lt;";
+                case '>': return "&gt;";
+                case '&': return "&amp;";
+                default: return null;
+            }
+        }
+        switch (c) {
+            case '"': return "\\\"";
+            case '\\': return "\\\\";
+            case '\n': return "\\n";
+            case '\r': return "\\r";
+            case '\t': return "\\t";
+            default: return c < 0x20 ? String.format("\\u%04x", (int) c) : null;
+        }
+    }
+}
@@ -0,0 +1,249 @@
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Drives the server from several local worker JVMs, so one client JVM's GC and
+ * HTTP overhead do not cap the load, and merges what they measured into a single
+ * {@link OpenLoopDriver.Result}.
+ *
+ * The coordinator listens on a loopback port and launches the workers with the
+ * test classpath. Each worker builds the suite's endpoint mix against a shared
+ * {@link BenchFixture}, warms up for -Ddistributed.warmupSeconds, reports ready and
+ * waits. Once all are ready the coordinator sends one start time; every worker then
+ * runs an open loop at its share of the total rate, phase-shifted so that together
+ * their requests are evenly spaced, and sends back its per-endpoint histograms and
+ * counters. Worker output goes to target/load-worker-N.log; -Ddeadline.*,
+ * -Dvalidation.* and -Doutliers.* settings are passed on to the workers.
+ */
+public final class DistributedLoad {
+    private static final long READY_TIMEOUT_MS = Long.getLong("distributed.readyTimeoutMs", 60_000);
+    private static final long START_DELAY_MS = Long.getLong("distributed.startDelayMs", 500);
+    private static final String[] FORWARDED_PREFIXES = {"deadline.", "validation.", "outliers."};
+    private static final String READY = "READY";
+
+    private DistributedLoad() {
+    }
+
+    /**
+     * Runs workers JVMs against fixture's server at totalRate requests per second
+     * between them, and returns their merged result.
+     */
+    static OpenLoopDriver.Result run(BenchFixture fixture, boolean includeCreates, int workers, double totalRate,
+                                     Duration duration, Duration warmup, Duration requestTimeout,
+                                     List<String> workerJvmArgs) throws IOException {
+        List<Process> processes = new ArrayList<>();
+        boolean finished = false;
+        try (ServerSocket coordinator = new ServerSocket(0, workers, InetAddress.getLoopbackAddress())) {
+            for (int worker = 0; worker < workers; worker++) {
+                processes.add(launch(coordinator.getLocalPort(), worker, workers, fixture, includeCreates,
+                        totalRate / workers, duration, warmup, requestTimeout, workerJvmArgs));
+            }
+
+            Socket[] connections = new Socket[workers];
+            long readyDeadline = System.currentTimeMillis() + READY_TIMEOUT_MS + warmup.toMillis();
+            coordinator.setSoTimeout(1_000);
+            for (int ready = 0; ready < workers; ) {
+                Socket connection;
+                try {
+                    connection = coordinator.accept();
+                } catch (SocketTimeoutException e) {
+                    checkWorkers(processes, readyDeadline);
+                    continue;
+                }
+                DataInputStream in = new DataInputStream(connection.getInputStream());
+                int worker = in.readInt();
+                if (!READY.equals(in.readUTF())) {
+                    throw new IOException("Worker " + worker + " did not report ready");
+                }
+                connections[worker] = connection;
+                ready++;
+            }
+
+            long startEpochMillis = System.currentTimeMillis() + START_DELAY_MS;
+            for (Socket connection : connections) {
+                DataOutputStream out = new DataOutputStream(connection.getOutputStream());
+                out.writeLong(startEpochMillis);
+                out.flush();
+            }
+
+            Map<String, OpenLoopDriver.EndpointStats> merged = new HashMap<>();
+            long scheduled = 0;
+            long elapsedNanos = 0;
+            int maxInFlight = 0;
+            for (int worker = 0; worker < workers; worker++) {
+                // A worker runs for the whole duration before answering, then drains its stragglers
+                connections[worker].setSoTimeout((int) (START_DELAY_MS + duration.toMillis() * 2
+                        + requestTimeout.toMillis() * 4));
+                DataInputStream in = new DataInputStream(connections[worker].getInputStream());
+                long workerScheduled = in.readLong();
+                long workerElapsed = in.readLong();
+                int workerMaxInFlight = in.readInt();
+                long completed = 0;
+                for (int endpoints = in.readInt(); endpoints > 0; endpoints--) {
+                    String name = in.readUTF();
+                    OpenLoopDriver.EndpointStats stats = merged.computeIfAbsent(name,
+                            key -> new OpenLoopDriver.EndpointStats());
+                    completed += readStats(in, stats);
+                }
+                connections[worker].close();
+                System.out.printf("[distributed] worker %d: %d requests, %d completed in %.1f s (%.1f req/s), "
+                                + "max in flight %d%n", worker, workerScheduled, completed, workerElapsed / 1e9,
+                        completed / (workerElapsed / 1e9), workerMaxInFlight);
+                scheduled += workerScheduled;
+                elapsedNanos = Math.max(elapsedNanos, workerElapsed);
+                // Per-worker peaks need not coincide, so their sum is an upper bound
+                maxInFlight += workerMaxInFlight;
+            }
+            finished = true;
+            return new OpenLoopDriver.Result(merged, scheduled, elapsedNanos, maxInFlight);
+        } finally {
+            for (Process process : processes) {
+                try {
+                    // Workers that reported exit by themselves; after a failure none is waited for
+                    if (!finished || !process.waitFor(10, TimeUnit.SECONDS)) {
+                        process.destroyForcibly();
+                    }
+                } catch (InterruptedException e) {
+                    process.destroyForcibly();
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+    }
+
+    /** Fails if a worker exited before reporting ready, or they took too long. */
+    private static void checkWorkers(List<Process> processes, long readyDeadline) throws IOException {
+        for (int worker = 0; worker < processes.size(); worker++) {
+            if (!processes.get(worker).isAlive()) {
+                throw new IOException("Load worker " + worker + " exited with " + processes.get(worker).exitValue()
+                        + " before starting, see target/load-worker-" + worker + ".log");
+            }
+        }
+        if (System.currentTimeMillis() > readyDeadline) {
+            throw new IOException("Load workers not ready within " + READY_TIMEOUT_MS + " ms after warm-up");
+        }
+    }
+
+    private static Process launch(int coordinatorPort, int worker, int workers, BenchFixture fixture,
+                                  boolean includeCreates, double rate, Duration duration, Duration warmup,
+                                  Duration requestTimeout, List<String> jvmArgs) throws IOException {
+        List<String> command = new ArrayList<>();
+        command.add(new File(System.getProperty("java.home"), "bin/java").getPath());
+        command.addAll(jvmArgs);
+        for (String name : System.getProperties().stringPropertyNames()) {
+            for (String prefix : FORWARDED_PREFIXES) {
+                if (name.startsWith(prefix)) {
+                    command.add("-D" + name + "=" + System.getProperty(name));
+                }
+            }
+        }
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add(DistributedLoad.class.getName());
+        command.addAll(List.of(
+                String.valueOf(coordinatorPort), String.valueOf(worker), String.valueOf(workers),
+                fixture.baseUrl, fixture.todoId, fixture.projectId, fixture.categoryId,
+                String.valueOf(includeCreates), String.valueOf(rate), String.valueOf(duration.toMillis()),
+                String.valueOf(warmup.toMillis()), String.valueOf(requestTimeout.toMillis())));
+
+        File log = new File("target/load-worker-" + worker + ".log");
+        log.getParentFile().mkdirs();
+        return new ProcessBuilder(command).redirectErrorStream(true).redirectOutput(log).start();
+    }
+
+    /** Worker entry point; started by {@link #run}, not by hand. */
+    public static void main(String[] args) throws Exception {
+        int coordinatorPort = Integer.parseInt(args[0]);
+        int worker = Integer.parseInt(args[1]);
+        int workers = Integer.parseInt(args[2]);
+        BenchFixture fixture = BenchFixture.existing(args[3], args[4], args[5], args[6]);
+        boolean includeCreates = Boolean.parseBoolean(args[7]);
+        double rate = Double.parseDouble(args[8]);
+        Duration duration = Duration.ofMillis(Long.parseLong(args[9]));
+        Duration warmup = Duration.ofMillis(Long.parseLong(args[10]));
+        Duration requestTimeout = Duration.ofMillis(Long.parseLong(args[11]));
+
+        List<SuiteEndpoint> endpoints = includeCreates
+                ? SuiteEndpoints.all(fixture) : SuiteEndpoints.repeatable(fixture);
+        OpenLoopDriver driver = new OpenLoopDriver(fixture.baseUrl, requestTimeout);
+        if (!warmup.isZero()) {
+            driver.run(OpenLoopDriver.roundRobin(endpoints), rate, warmup);
+        }
+
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), coordinatorPort)) {
+            DataOutputStream out = new DataOutputStream(socket.getOutputStream());
+            DataInputStream in = new DataInputStream(socket.getInputStream());
+            out.writeInt(worker);
+            out.writeUTF(READY);
+            out.flush();
+            // Give up rather than linger if the coordinator never sends the start time
+            socket.setSoTimeout((int) READY_TIMEOUT_MS);
+
+            long startEpochMillis = in.readLong();
+            // Worker i starts i/N of a request interval late, so the merged schedule stays evenly spaced
+            long phaseNanos = (long) (1e9 / (rate * workers) * worker);
+            long waitNanos = (startEpochMillis - System.currentTimeMillis()) * 1_000_000L + phaseNanos;
+            if (waitNanos > 0) {
+                LockSupport.parkNanos(waitNanos);
+            }
+            System.out.printf("[worker %d] %.1f req/s for %d s%n", worker, rate, duration.toSeconds());
+            OpenLoopDriver.Result result = driver.run(OpenLoopDriver.roundRobin(endpoints), rate, duration);
+            result.print("worker " + worker);
+
+            out.writeLong(result.scheduled);
+            out.writeLong(result.elapsedNanos);
+            out.writeInt(result.maxInFlight);
+            out.writeInt(result.endpoints.size());
+            for (Map.Entry<String, OpenLoopDriver.EndpointStats> endpoint : result.endpoints.entrySet()) {
+                out.writeUTF(endpoint.getKey());
+                writeStats(out, endpoint.getValue());
+            }
+            out.flush();
+        }
+        System.exit(0);
+    }
+
+    private static void writeStats(DataOutputStream out, OpenLoopDriver.EndpointStats stats) throws IOException {
+        stats.corrected.writeTo(out);
+        stats.uncorrected.writeTo(out);
+        out.writeLong(stats.unexpectedStatus.get());
+        out.writeLong(stats.failures.get());
+        out.writeLong(stats.timeouts.get());
+        out.writeLong(stats.validated.get());
+        out.writeLong(stats.validationFailures.get());
+        String firstValidationFailure = stats.firstValidationFailure == null ? "" : stats.firstValidationFailure;
+        out.writeUTF(firstValidationFailure.substring(0, Math.min(1_000, firstValidationFailure.length())));
+    }
+
+    /** Adds one worker's stats for an endpoint into stats and returns its completed requests. */
+    private static long readStats(DataInputStream in, OpenLoopDriver.EndpointStats stats) throws IOException {
+        LatencyHistogram corrected = LatencyHistogram.readFrom(in);
+        stats.corrected.merge(corrected);
+        stats.uncorrected.merge(LatencyHistogram.readFrom(in));
+        stats.unexpectedStatus.addAndGet(in.readLong());
+        long failures = in.readLong();
+        stats.failures.addAndGet(failures);
+        stats.timeouts.addAndGet(in.readLong());
+        stats.validated.addAndGet(in.readLong());
+        long validationFailures = in.readLong();
+        String firstValidationFailure = in.readUTF();
+        if (validationFailures > 0 && stats.validationFailures.getAndAdd(validationFailures) == 0) {
+            stats.firstValidationFailure = firstValidationFailure;
+        }
+        // The histograms hold failed and timed-out requests too
+        return corrected.count() - failures;
+    }
+}
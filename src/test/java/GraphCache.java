@@ -0,0 +1,205 @@
+import io.restassured.RestAssured;
+import io.restassured.builder.ResponseBuilder;
+import io.restassured.filter.Filter;
+import io.restassured.filter.FilterContext;
+import io.restassured.response.Response;
+import io.restassured.specification.FilterableRequestSpecification;
+import io.restassured.specification.FilterableResponseSpecification;
+
+import java.net.URI;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * REST-Assured filter that answers repeated GETs of the todo/project/category graph
+ * from a client-side LRU cache instead of the server.
+ *
+ * Only 200 responses to GETs under /todos, /projects and /categories are kept, keyed
+ * by URI and Accept header, and bounded by -Dcache.maxEntries (default 256) and
+ * -Dcache.maxBytes (default 4 MB). Any other verb through the filter is one of the
+ * suite's own writes and clears the cache, since a relationship change alters
+ * listings on both sides. A response that carried an ETag is revalidated with
+ * If-None-Match rather than served blind; the jar sends none today, so its entries
+ * rely on write invalidation alone, which only holds while nothing else writes to
+ * the server.
+ *
+ * Enabled for the whole suite with -Dcache.enabled=true; hit and invalidation counts
+ * are printed when the test JVM exits.
+ */
+public final class GraphCache implements Filter {
+    static final int MAX_ENTRIES = Integer.getInteger("cache.maxEntries", 256);
+    static final long MAX_BYTES = Long.getLong("cache.maxBytes", 4L * 1024 * 1024);
+    private static final String[] CACHED_COLLECTIONS = {"/todos", "/projects", "/categories"};
+    private static GraphCache installed;
+
+    private final Lru<Response> entries;
+    private long generation;
+    private long hits;
+    private long misses;
+    private long revalidated;
+    private long invalidations;
+
+    /** Least recently used entries go first once either bound is exceeded. */
+    static final class Lru<V> {
+        private final int maxEntries;
+        private final long maxBytes;
+        private final LinkedHashMap<String, Map.Entry<V, Long>> map = new LinkedHashMap<>(16, 0.75f, true);
+        private long bytes;
+        private long evictions;
+
+        Lru(int maxEntries, long maxBytes) {
+            this.maxEntries = maxEntries;
+            this.maxBytes = maxBytes;
+        }
+
+        V get(String key) {
+            Map.Entry<V, Long> entry = map.get(key);
+            return entry == null ? null : entry.getKey();
+        }
+
+        /** Stores value unless it alone is larger than the byte bound. */
+        void put(String key, V value, long size) {
+            remove(key);
+            if (size > maxBytes || maxEntries <= 0) {
+                return;
+            }
+            map.put(key, Map.entry(value, size));
+            bytes += size;
+            for (Iterator<Map.Entry<V, Long>> eldest = map.values().iterator();
+                 map.size() > maxEntries || bytes > maxBytes; ) {
+                bytes -= eldest.next().getValue();
+                eldest.remove();
+                evictions++;
+            }
+        }
+
+        void remove(String key) {
+            Map.Entry<V, Long> removed = map.remove(key);
+            if (removed != null) {
+                bytes -= removed.getValue();
+            }
+        }
+
+        void clear() {
+            map.clear();
+            bytes = 0;
+        }
+
+        int size() {
+            return map.size();
+        }
+
+        long bytes() {
+            return bytes;
+        }
+
+        long evictions() {
+            return evictions;
+        }
+    }
+
+    GraphCache(int maxEntries, long maxBytes) {
+        this.entries = new Lru<>(maxEntries, maxBytes);
+    }
+
+    /** Installs a suite-wide cache if -Dcache.enabled is set. Safe to call repeatedly. */
+    static synchronized void installIfConfigured() {
+        if (!Boolean.getBoolean("cache.enabled") || installed != null) {
+            return;
+        }
+        installed = new GraphCache(MAX_ENTRIES, MAX_BYTES);
+        RestAssured.filters(installed);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> System.out.println("[cache] " + installed.summary())));
+        System.out.println("[cache] caching graph reads, up to " + MAX_ENTRIES + " entries and " + MAX_BYTES + " bytes");
+    }
+
+    @Override
+    public Response filter(FilterableRequestSpecification requestSpec,
+                           FilterableResponseSpecification responseSpec, FilterContext ctx) {
+        String method = requestSpec.getMethod();
+        if (!"GET".equals(method)) {
+            if (!"HEAD".equals(method) && !"OPTIONS".equals(method)) {
+                invalidate();
+                try {
+                    return ctx.next(requestSpec, responseSpec);
+                } finally {
+                    // Again afterwards, in case a GET in flight cached what this write changed
+                    clear();
+                }
+            }
+            return ctx.next(requestSpec, responseSpec);
+        }
+        String path = URI.create(requestSpec.getURI()).getPath();
+        if (!cacheable(path)) {
+            return ctx.next(requestSpec, responseSpec);
+        }
+
+        String key = requestSpec.getURI() + " " + requestSpec.getHeaders().getValue("Accept");
+        Response cached;
+        long startGeneration;
+        synchronized (this) {
+            cached = entries.get(key);
+            startGeneration = generation;
+            if (cached != null && cached.getHeader("ETag") == null) {
+                hits++;
+                return copy(cached);
+            }
+        }
+        if (cached != null) {
+            requestSpec.header("If-None-Match", cached.getHeader("ETag"));
+        }
+        Response response = ctx.next(requestSpec, responseSpec);
+        synchronized (this) {
+            if (response.getStatusCode() == 304 && cached != null) {
+                revalidated++;
+                return copy(cached);
+            }
+            misses++;
+            if (response.getStatusCode() == 200 && generation == startGeneration) {
+                byte[] body = response.asByteArray();
+                entries.put(key, response, body.length + key.length());
+            } else if (cached != null) {
+                entries.remove(key);
+            }
+        }
+        return response;
+    }
+
+    /** Drops every entry; called for each write that goes through the filter. */
+    synchronized void invalidate() {
+        invalidations++;
+        clear();
+    }
+
+    private synchronized void clear() {
+        generation++;
+        entries.clear();
+    }
+
+    synchronized long misses() {
+        return misses;
+    }
+
+    synchronized String summary() {
+        long reads = hits + revalidated + misses;
+        return String.format("%d graph reads, %d served from cache (%.1f%%, %d revalidated), %d invalidations, "
+                        + "%d evictions, %d entries / %d bytes held",
+                reads, hits + revalidated, reads == 0 ? 0 : 100.0 * (hits + revalidated) / reads, revalidated,
+                invalidations, entries.evictions(), entries.size(), entries.bytes());
+    }
+
+    private static boolean cacheable(String path) {
+        for (String collection : CACHED_COLLECTIONS) {
+            if (path.equals(collection) || path.startsWith(collection + "/")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** A fresh response with the cached status, headers and body, so callers never share state. */
+    private static Response copy(Response cached) {
+        return new ResponseBuilder().clone(cached).build();
+    }
+}
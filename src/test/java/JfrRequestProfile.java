@@ -0,0 +1,196 @@
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingFile;
+
+/**
+ * Joins a Flight Recorder recording of the server JVM to the requests the harness sent
+ * while it was recording, and reports hot methods, hot allocations and GC time per
+ * endpoint.
+ *
+ * The jar does not know about correlation ids, so the join is by time: each request is
+ * logged with its correlation id and wall-clock start and end, and a JFR event belongs to
+ * the request whose interval contains the event's start time. Send requests one at a time
+ * so that intervals do not overlap; events between requests are counted as idle.
+ *
+ * Stacks are attributed to their topmost frame in -Djfr.packages (the Thingifier by
+ * default), so a sample inside Jackson or the JDK is charged to the JsonThing or
+ * BodyParser method that called it.
+ */
+public final class JfrRequestProfile {
+    static final String IDLE = "(between requests)";
+    private static final List<String> PACKAGES =
+            List.of(System.getProperty("jfr.packages", "uk.co.compendiumdev.thingifier").split(","));
+
+    /** One request as the client saw it, in epoch nanoseconds. */
+    static final class Request {
+        final long correlationId;
+        final String endpoint;
+        final long startNanos;
+        final long endNanos;
+
+        Request(long correlationId, String endpoint, long startNanos, long endNanos) {
+            this.correlationId = correlationId;
+            this.endpoint = endpoint;
+            this.startNanos = startNanos;
+            this.endNanos = endNanos;
+        }
+    }
+
+    /** Requests in start order, searchable by time. */
+    static final class Timeline {
+        private final List<Request> requests = new ArrayList<>();
+        // Wall clock read once; later times are offsets on the monotonic clock
+        private final long epochNanosAtOrigin;
+        private final long nanoTimeAtOrigin;
+
+        Timeline() {
+            Instant now = Instant.now();
+            this.nanoTimeAtOrigin = System.nanoTime();
+            this.epochNanosAtOrigin = now.getEpochSecond() * 1_000_000_000L + now.getNano();
+        }
+
+        /** Converts a System.nanoTime() reading to epoch nanoseconds. */
+        long epochNanos(long nanoTime) {
+            return epochNanosAtOrigin + (nanoTime - nanoTimeAtOrigin);
+        }
+
+        /** Records a request; requests must be added in start order. */
+        void add(Request request) {
+            if (!requests.isEmpty() && request.startNanos < requests.get(requests.size() - 1).startNanos) {
+                throw new IllegalArgumentException("Requests must be added in start order");
+            }
+            requests.add(request);
+        }
+
+        int size() {
+            return requests.size();
+        }
+
+        /** The request in flight at this epoch time, or null if none was. */
+        Request at(long epochNanos) {
+            int low = 0;
+            int high = requests.size() - 1;
+            int latest = -1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                if (requests.get(mid).startNanos <= epochNanos) {
+                    latest = mid;
+                    low = mid + 1;
+                } else {
+                    high = mid - 1;
+                }
+            }
+            if (latest < 0 || requests.get(latest).endNanos < epochNanos) {
+                return null;
+            }
+            return requests.get(latest);
+        }
+    }
+
+    /** What the server did while one endpoint's requests were in flight. */
+    static final class EndpointProfile {
+        long requests;
+        long executionSamples;
+        final Map<String, Long> hotMethods = new HashMap<>();
+        final Map<String, Long> allocatedBytes = new HashMap<>();
+        long gcCount;
+        long gcNanos;
+
+        void print(PrintStream out, String endpoint, int top) {
+            out.printf("[jfr] %s: %d requests, %d execution samples, %d GCs (%.1f ms)%n",
+                    endpoint, requests, executionSamples, gcCount, gcNanos / 1e6);
+            for (Map.Entry<String, Long> method : top(hotMethods, top)) {
+                out.printf("[jfr]     cpu   %5.1f%%  %s%n", 100.0 * method.getValue() / executionSamples, method.getKey());
+            }
+            for (Map.Entry<String, Long> site : top(allocatedBytes, top)) {
+                out.printf("[jfr]     alloc %7.1f KB/request  %s%n",
+                        site.getValue() / 1024.0 / Math.max(1, requests), site.getKey());
+            }
+        }
+
+        private static List<Map.Entry<String, Long>> top(Map<String, Long> counts, int top) {
+            return counts.entrySet().stream()
+                    .sorted(Map.Entry.<String, Long>comparingByValue(Comparator.reverseOrder()))
+                    .limit(top)
+                    .toList();
+        }
+    }
+
+    private JfrRequestProfile() {
+    }
+
+    /** JVM flags that record the whole run with the profile settings and write it on exit. */
+    static List<String> jvmArgs(Path recording, int samplePeriodMillis) {
+        return List.of("-XX:StartFlightRecording=settings=profile,dumponexit=true"
+                + ",jdk.ExecutionSample#period=" + samplePeriodMillis + "ms"
+                + ",filename=" + recording.toAbsolutePath());
+    }
+
+    /** Per-endpoint profiles, keyed by endpoint in first-request order, plus {@link #IDLE}. */
+    static Map<String, EndpointProfile> correlate(Path recording, Timeline timeline) throws IOException {
+        Map<String, EndpointProfile> profiles = new LinkedHashMap<>();
+        for (Request request : timeline.requests) {
+            profiles.computeIfAbsent(request.endpoint, endpoint -> new EndpointProfile()).requests++;
+        }
+        profiles.put(IDLE, new EndpointProfile());
+
+        try (RecordingFile file = new RecordingFile(recording)) {
+            while (file.hasMoreEvents()) {
+                RecordedEvent event = file.readEvent();
+                String type = event.getEventType().getName();
+                boolean sample = type.equals("jdk.ExecutionSample");
+                boolean allocation = type.equals("jdk.ObjectAllocationSample");
+                boolean gc = type.equals("jdk.GarbageCollection");
+                if (!sample && !allocation && !gc) {
+                    continue;
+                }
+                Instant start = event.getStartTime();
+                Request request = timeline.at(start.getEpochSecond() * 1_000_000_000L + start.getNano());
+                EndpointProfile profile = profiles.get(request == null ? IDLE : request.endpoint);
+                if (sample) {
+                    profile.executionSamples++;
+                    profile.hotMethods.merge(attributedFrame(event.getStackTrace()), 1L, Long::sum);
+                } else if (allocation) {
+                    String site = attributedFrame(event.getStackTrace())
+                            + " -> " + event.getClass("objectClass").getName();
+                    profile.allocatedBytes.merge(site, event.getLong("weight"), Long::sum);
+                } else {
+                    profile.gcCount++;
+                    profile.gcNanos += event.getDuration().toNanos();
+                }
+            }
+        }
+        return profiles;
+    }
+
+    /** The topmost frame in one of the profiled packages, or the top frame if there is none. */
+    static String attributedFrame(RecordedStackTrace stackTrace) {
+        if (stackTrace == null || stackTrace.getFrames().isEmpty()) {
+            return "(no stack)";
+        }
+        for (RecordedFrame frame : stackTrace.getFrames()) {
+            String type = frame.getMethod().getType().getName();
+            if (PACKAGES.stream().anyMatch(type::startsWith)) {
+                return shortName(type) + "." + frame.getMethod().getName();
+            }
+        }
+        RecordedFrame top = stackTrace.getFrames().get(0);
+        return "(outside) " + shortName(top.getMethod().getType().getName()) + "." + top.getMethod().getName();
+    }
+
+    private static String shortName(String type) {
+        return type.substring(type.lastIndexOf('.') + 1);
+    }
+}
@@ -0,0 +1,156 @@
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Statistics for deciding whether one server is really faster than another from two
+ * sets of latency samples, without assuming the latencies are normally distributed.
+ *
+ * {@link #mannWhitney} tests whether one sample tends to be larger than the other
+ * (two-sided, normal approximation with tie and continuity correction), and
+ * {@link #bootstrapMedianRatio} gives a percentile confidence interval for the ratio
+ * of the medians, i.e. how much faster or slower. {@link #holm} adjusts the p-values
+ * of many endpoints together so that testing fifty routes does not turn up a few
+ * "significant" ones by chance.
+ */
+public final class LatencyComparison {
+
+    /** Outcome of comparing B against A for one endpoint. */
+    static final class Result {
+        final String name;
+        final double medianA;
+        final double medianB;
+        final double ratio;
+        final double ratioLow;
+        final double ratioHigh;
+        final double p;
+        double adjustedP;
+
+        Result(String name, double medianA, double medianB, double[] ratioInterval, double p) {
+            this.name = name;
+            this.medianA = medianA;
+            this.medianB = medianB;
+            this.ratio = medianB / medianA;
+            this.ratioLow = ratioInterval[0];
+            this.ratioHigh = ratioInterval[1];
+            this.p = p;
+            this.adjustedP = p;
+        }
+
+        /** "faster" or "slower" for B when both the test and the interval agree, otherwise "same". */
+        String verdict(double alpha) {
+            if (adjustedP >= alpha) {
+                return "same";
+            }
+            if (ratioHigh < 1) {
+                return "faster";
+            }
+            return ratioLow > 1 ? "slower" : "same";
+        }
+    }
+
+    private LatencyComparison() {
+    }
+
+    /** Compares samples b against a: medians, a bootstrap interval for their ratio and a Mann-Whitney p-value. */
+    static Result compare(String name, double[] a, double[] b, int resamples, double confidence, long seed) {
+        return new Result(name, median(a), median(b), bootstrapMedianRatio(a, b, resamples, confidence, seed),
+                mannWhitney(a, b));
+    }
+
+    /** Two-sided p-value of the Mann-Whitney U test that a and b come from the same distribution. */
+    static double mannWhitney(double[] a, double[] b) {
+        int n1 = a.length;
+        int n2 = b.length;
+        int n = n1 + n2;
+        double[] values = new double[n];
+        boolean[] fromA = new boolean[n];
+        Integer[] order = new Integer[n];
+        for (int i = 0; i < n; i++) {
+            values[i] = i < n1 ? a[i] : b[i - n1];
+            fromA[i] = i < n1;
+            order[i] = i;
+        }
+        Arrays.sort(order, (x, y) -> Double.compare(values[x], values[y]));
+
+        double rankSumA = 0;
+        double tieTerm = 0;
+        for (int start = 0; start < n; ) {
+            int end = start;
+            while (end + 1 < n && values[order[end + 1]] == values[order[start]]) {
+                end++;
+            }
+            // Tied values share the average of the ranks they span (ranks are 1-based)
+            double rank = (start + end + 2) / 2.0;
+            for (int i = start; i <= end; i++) {
+                if (fromA[order[i]]) {
+                    rankSumA += rank;
+                }
+            }
+            double ties = end - start + 1;
+            tieTerm += ties * ties * ties - ties;
+            start = end + 1;
+        }
+
+        double u = rankSumA - n1 * (n1 + 1) / 2.0;
+        double mean = n1 * (double) n2 / 2;
+        double variance = n1 * (double) n2 / 12 * ((n + 1) - tieTerm / ((double) n * (n - 1)));
+        if (variance <= 0) {
+            return 1;
+        }
+        double z = Math.max(0, Math.abs(u - mean) - 0.5) / Math.sqrt(variance);
+        return Math.min(1, 2 * (1 - normalCdf(z)));
+    }
+
+    /**
+     * Percentile bootstrap interval, at the given confidence (e.g. 0.95), for
+     * median(b) / median(a); below 1 means b is faster.
+     */
+    static double[] bootstrapMedianRatio(double[] a, double[] b, int resamples, double confidence, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        double[] ratios = new double[resamples];
+        double[] sampleA = new double[a.length];
+        double[] sampleB = new double[b.length];
+        for (int r = 0; r < resamples; r++) {
+            for (int i = 0; i < sampleA.length; i++) {
+                sampleA[i] = a[random.nextInt(a.length)];
+            }
+            for (int i = 0; i < sampleB.length; i++) {
+                sampleB[i] = b[random.nextInt(b.length)];
+            }
+            ratios[r] = median(sampleB) / median(sampleA);
+        }
+        Arrays.sort(ratios);
+        double tail = (1 - confidence) / 2;
+        return new double[]{
+                ratios[(int) Math.floor(tail * (resamples - 1))],
+                ratios[(int) Math.ceil((1 - tail) * (resamples - 1))]};
+    }
+
+    /** Sets each result's adjustedP by the Holm-Bonferroni step-down method. */
+    static void holm(Result[] results) {
+        Result[] byP = results.clone();
+        Arrays.sort(byP, (x, y) -> Double.compare(x.p, y.p));
+        double running = 0;
+        for (int i = 0; i < byP.length; i++) {
+            running = Math.max(running, Math.min(1, (byP.length - i) * byP[i].p));
+            byP[i].adjustedP = running;
+        }
+    }
+
+    /** Median of values; sorts a copy. */
+    static double median(double[] values) {
+        double[] sorted = values.clone();
+        Arrays.sort(sorted);
+        int middle = sorted.length / 2;
+        return sorted.length % 2 == 1 ? sorted[middle] : (sorted[middle - 1] + sorted[middle]) / 2;
+    }
+
+    /** Standard normal CDF via the Abramowitz and Stegun 7.1.26 erf approximation (error below 1.5e-7). */
+    static double normalCdf(double z) {
+        double x = Math.abs(z) / Math.sqrt(2);
+        double t = 1 / (1 + 0.3275911 * x);
+        double erf = 1 - t * (0.254829592 + t * (-0.284496736 + t * (1.421413741
+                + t * (-1.453152027 + t * 1.061405429)))) * Math.exp(-x * x);
+        return z >= 0 ? 0.5 * (1 + erf) : 0.5 * (1 - erf);
+    }
+}
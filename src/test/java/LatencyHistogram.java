@@ -0,0 +1,141 @@
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Fixed-size log-linear latency histogram, safe to record into from many threads.
+ *
+ * Values under 128 ns get their own bucket; above that every power of two is split
+ * into 64 buckets, so any recorded value is reported within about 1.6% of its true
+ * value whatever its magnitude. Memory use is constant no matter how many samples
+ * are recorded, which keeps long load runs from growing the client heap.
+ *
+ * {@link #writeTo} and {@link #readFrom} carry a histogram between processes, e.g.
+ * from load workers to the coordinator that merges them, in a sparse binary form.
+ */
+public final class LatencyHistogram {
+    private static final int LINEAR_BUCKETS = 128;
+    private static final int SUB_BUCKETS = 64;
+    private static final int SUB_BUCKET_BITS = 6;
+    private static final int BUCKET_COUNT = LINEAR_BUCKETS + (63 - 7) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+    private final AtomicLong totalCount = new AtomicLong();
+    private final AtomicLong totalNanos = new AtomicLong();
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    public void record(long nanos) {
+        long value = Math.max(0, nanos);
+        counts.incrementAndGet(bucketOf(value));
+        totalCount.incrementAndGet();
+        totalNanos.addAndGet(value);
+        maxNanos.accumulateAndGet(value, Math::max);
+    }
+
+    /** Adds every sample of other into this histogram. */
+    public void merge(LatencyHistogram other) {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            long count = other.counts.get(i);
+            if (count != 0) {
+                counts.addAndGet(i, count);
+            }
+        }
+        totalCount.addAndGet(other.totalCount.get());
+        totalNanos.addAndGet(other.totalNanos.get());
+        maxNanos.accumulateAndGet(other.maxNanos.get(), Math::max);
+    }
+
+    /** Writes the totals and the non-empty buckets as (index, count) pairs. */
+    public void writeTo(DataOutput out) throws IOException {
+        out.writeLong(totalCount.get());
+        out.writeLong(totalNanos.get());
+        out.writeLong(maxNanos.get());
+        int used = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            used += counts.get(i) != 0 ? 1 : 0;
+        }
+        out.writeInt(used);
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            long count = counts.get(i);
+            if (count != 0) {
+                out.writeShort(i);
+                out.writeLong(count);
+            }
+        }
+    }
+
+    /** Reads a histogram written by {@link #writeTo}. */
+    public static LatencyHistogram readFrom(DataInput in) throws IOException {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.totalCount.set(in.readLong());
+        histogram.totalNanos.set(in.readLong());
+        histogram.maxNanos.set(in.readLong());
+        for (int used = in.readInt(); used > 0; used--) {
+            int bucket = in.readUnsignedShort();
+            if (bucket >= BUCKET_COUNT) {
+                throw new IOException("Histogram bucket " + bucket + " out of range");
+            }
+            histogram.counts.set(bucket, in.readLong());
+        }
+        return histogram;
+    }
+
+    public long count() {
+        return totalCount.get();
+    }
+
+    public long max() {
+        return maxNanos.get();
+    }
+
+    public double mean() {
+        long count = totalCount.get();
+        return count == 0 ? 0 : (double) totalNanos.get() / count;
+    }
+
+    /** Value at the given quantile (0.0 to 1.0), in nanoseconds. */
+    public long percentile(double quantile) {
+        long count = totalCount.get();
+        if (count == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(quantile * count));
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += counts.get(i);
+            if (seen >= rank) {
+                return Math.min(upperBoundOf(i), maxNanos.get());
+            }
+        }
+        return maxNanos.get();
+    }
+
+    /** One-line summary in milliseconds, as printed by the load reports. */
+    public String summary() {
+        return String.format("n=%d mean=%.2f p50=%.2f p90=%.2f p99=%.2f p99.9=%.2f max=%.2f ms",
+                count(), mean() / 1e6, percentile(0.50) / 1e6, percentile(0.90) / 1e6,
+                percentile(0.99) / 1e6, percentile(0.999) / 1e6, max() / 1e6);
+    }
+
+    static int bucketOf(long value) {
+        if (value < LINEAR_BUCKETS) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int shift = exponent - SUB_BUCKET_BITS;
+        int mantissa = (int) (value >>> shift);
+        return LINEAR_BUCKETS + (exponent - 7) * SUB_BUCKETS + (mantissa - SUB_BUCKETS);
+    }
+
+    static long upperBoundOf(int bucket) {
+        if (bucket < LINEAR_BUCKETS) {
+            return bucket;
+        }
+        int exponent = 7 + (bucket - LINEAR_BUCKETS) / SUB_BUCKETS;
+        long mantissa = SUB_BUCKETS + (bucket - LINEAR_BUCKETS) % SUB_BUCKETS;
+        int shift = exponent - SUB_BUCKET_BITS;
+        return ((mantissa + 1) << shift) - 1;
+    }
+}
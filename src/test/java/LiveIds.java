@@ -0,0 +1,72 @@
+import static io.restassured.RestAssured.*;
+
+import io.restassured.http.ContentType;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * Pools of todos, projects and categories created for a load run, used to fill the
+ * ":id" placeholders of workload templates. Working on its own entities means a
+ * workload can amend and relate freely without changing the seed data the
+ * functional tests assert against. Everything is deleted again on close.
+ */
+public final class LiveIds implements AutoCloseable {
+    private static final Map<String, String> COLLECTION_OF_SEGMENT = Map.of(
+            "todos", "todos",
+            "tasks", "todos",
+            "projects", "projects",
+            "tasksof", "projects",
+            "categories", "categories");
+
+    private final String baseUrl;
+    private final Map<String, List<String>> ids;
+    private final SplittableRandom random;
+
+    private LiveIds(String baseUrl, Map<String, List<String>> ids, long seed) {
+        this.baseUrl = baseUrl;
+        this.ids = ids;
+        this.random = new SplittableRandom(seed);
+    }
+
+    static LiveIds create(String baseUrl, int perCollection, long seed) {
+        Map<String, List<String>> ids = Map.of(
+                "todos", new ArrayList<>(),
+                "projects", new ArrayList<>(),
+                "categories", new ArrayList<>());
+        for (int i = 0; i < perCollection; i++) {
+            ids.get("todos").add(BenchFixture.create(baseUrl, "/todos", "{\"title\":\"Live Todo " + i + "\"}"));
+            ids.get("projects").add(BenchFixture.create(baseUrl, "/projects", "{\"title\":\"Live Project " + i + "\"}"));
+            ids.get("categories").add(BenchFixture.create(baseUrl, "/categories", "{\"title\":\"Live Category " + i + "\"}"));
+        }
+        return new LiveIds(baseUrl, ids, seed);
+    }
+
+    /**
+     * Collection a route segment refers to, e.g. "tasks" holds todos and "tasksof"
+     * holds projects. Returns null for segments that are not collections.
+     */
+    static String collectionOf(String segment) {
+        return COLLECTION_OF_SEGMENT.get(segment);
+    }
+
+    /** A random live id from the collection. Not thread-safe; call from one thread. */
+    String randomId(String collection) {
+        List<String> pool = ids.get(collection);
+        if (pool == null || pool.isEmpty()) {
+            throw new IllegalArgumentException("No live ids for collection " + collection);
+        }
+        return pool.get(random.nextInt(pool.size()));
+    }
+
+    @Override
+    public void close() {
+        ids.forEach((collection, pool) -> {
+            for (String id : pool) {
+                given().baseUri(baseUrl).accept(ContentType.JSON).delete("/" + collection + "/" + id);
+            }
+        });
+    }
+}
@@ -0,0 +1,257 @@
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * In-process TCP proxy that puts a simulated network between a client and the server:
+ * one-way latency with jitter, a bandwidth limit and random connection resets.
+ *
+ * <pre>
+ * try (NetworkConditionsProxy proxy = NetworkConditionsProxy.start("localhost", 4567,
+ *         new NetworkConditionsProxy.Conditions(40, 10, 0, 0))) {
+ *     RestAssured.baseURI = proxy.baseUrl();
+ * }
+ * </pre>
+ *
+ * Each direction of each connection has a reader that timestamps every chunk it reads
+ * and a writer that holds the chunk until its delivery time, so latency delays the
+ * bytes without turning the connection into stop-and-wait. Delivery times never go
+ * backwards, so jitter reorders nothing. The bandwidth limit paces each direction of
+ * each connection separately.
+ *
+ * Closing the proxy closes the listener and every connection still open through it,
+ * which ends their pump threads.
+ */
+public final class NetworkConditionsProxy implements AutoCloseable {
+    private static final int CHUNK = 16 * 1024;
+    private static final byte[] END = new byte[0];
+
+    /** What the simulated network does to every chunk of bytes it carries. */
+    static final class Conditions {
+        final long latencyMillis;
+        final long jitterMillis;
+        final long bytesPerSecond;
+        final double resetProbability;
+
+        /**
+         * latencyMillis is added one way, so a request/response pays it twice; jitter is
+         * uniform in +/- jitterMillis; bytesPerSecond 0 is unlimited; resetProbability is
+         * the chance that any one chunk aborts its connection with a TCP reset.
+         */
+        Conditions(long latencyMillis, long jitterMillis, long bytesPerSecond, double resetProbability) {
+            this.latencyMillis = latencyMillis;
+            this.jitterMillis = jitterMillis;
+            this.bytesPerSecond = bytesPerSecond;
+            this.resetProbability = resetProbability;
+        }
+
+        @Override
+        public String toString() {
+            return latencyMillis + "+/-" + jitterMillis + " ms one way, "
+                    + (bytesPerSecond == 0 ? "unlimited" : bytesPerSecond / 1024 + " KB/s")
+                    + (resetProbability > 0 ? ", reset p=" + resetProbability : "");
+        }
+    }
+
+    private final ServerSocket listener;
+    private final InetSocketAddress target;
+    private volatile Conditions conditions;
+    private final AtomicLong connections = new AtomicLong();
+    private final AtomicLong resets = new AtomicLong();
+    private final AtomicLong bytes = new AtomicLong();
+    // Client and server sockets of every connection not yet closed
+    private final Set<Socket[]> open = ConcurrentHashMap.newKeySet();
+
+    private NetworkConditionsProxy(ServerSocket listener, InetSocketAddress target, Conditions conditions) {
+        this.listener = listener;
+        this.target = target;
+        this.conditions = conditions;
+    }
+
+    /** Listens on an ephemeral localhost port and forwards to host:port. */
+    static NetworkConditionsProxy start(String host, int port, Conditions conditions) throws IOException {
+        ServerSocket listener = new ServerSocket(0, 1024, InetAddress.getLoopbackAddress());
+        NetworkConditionsProxy proxy = new NetworkConditionsProxy(listener, new InetSocketAddress(host, port), conditions);
+        daemon(proxy::acceptLoop, "proxy-accept-" + listener.getLocalPort());
+        return proxy;
+    }
+
+    String baseUrl() {
+        return "http://localhost:" + listener.getLocalPort();
+    }
+
+    /** Applies to chunks read from now on, including on open connections. */
+    void setConditions(Conditions conditions) {
+        this.conditions = conditions;
+    }
+
+    long connections() {
+        return connections.get();
+    }
+
+    long resets() {
+        return resets.get();
+    }
+
+    long bytes() {
+        return bytes.get();
+    }
+
+    @Override
+    public void close() {
+        try {
+            listener.close();
+        } catch (IOException ignored) {
+            // Closing anyway
+        }
+        for (Socket[] pair : open) {
+            closePair(pair);
+        }
+    }
+
+    private void acceptLoop() {
+        while (!listener.isClosed()) {
+            Socket client;
+            try {
+                client = listener.accept();
+            } catch (IOException e) {
+                return;
+            }
+            connections.incrementAndGet();
+            try {
+                Socket server = new Socket();
+                server.connect(target);
+                client.setTcpNoDelay(true);
+                server.setTcpNoDelay(true);
+                Socket[] pair = {client, server};
+                open.add(pair);
+                AtomicInteger openDirections = new AtomicInteger(2);
+                pump(client, server, pair, openDirections, "up");
+                pump(server, client, pair, openDirections, "down");
+                if (listener.isClosed()) {
+                    // Accepted while close() was running, after it had looked at the open set
+                    closePair(pair);
+                }
+            } catch (IOException e) {
+                closeQuietly(client);
+            }
+        }
+    }
+
+    /** Starts the reader and writer for one direction of a connection. */
+    private void pump(Socket from, Socket to, Socket[] pair, AtomicInteger openDirections, String direction)
+            throws IOException {
+        InputStream in = from.getInputStream();
+        OutputStream out = to.getOutputStream();
+        BlockingQueue<Object[]> queue = new LinkedBlockingQueue<>();
+        String name = "proxy-" + direction + "-" + from.getPort();
+
+        daemon(() -> {
+            long lastDelivery = 0;
+            byte[] buffer = new byte[CHUNK];
+            try {
+                int read;
+                while ((read = in.read(buffer)) >= 0) {
+                    Conditions now = conditions;
+                    long delay = now.latencyMillis * 1_000_000L;
+                    if (now.jitterMillis > 0) {
+                        delay += ThreadLocalRandom.current().nextLong(-now.jitterMillis, now.jitterMillis + 1) * 1_000_000L;
+                    }
+                    lastDelivery = Math.max(lastDelivery, System.nanoTime() + Math.max(0, delay));
+                    queue.add(new Object[] {Arrays.copyOf(buffer, read), lastDelivery});
+                }
+            } catch (IOException ignored) {
+                // Connection closed or reset; the writer finishes what it has
+            }
+            queue.add(new Object[] {END, lastDelivery});
+        }, name + "-read");
+
+        daemon(() -> {
+            long linkFreeAt = System.nanoTime();
+            try {
+                while (true) {
+                    Object[] chunk = queue.take();
+                    byte[] data = (byte[]) chunk[0];
+                    sleepUntil((long) chunk[1]);
+                    if (data == END) {
+                        to.shutdownOutput();
+                        if (openDirections.decrementAndGet() == 0) {
+                            closePair(pair);
+                        }
+                        return;
+                    }
+                    Conditions now = conditions;
+                    if (now.resetProbability > 0 && ThreadLocalRandom.current().nextDouble() < now.resetProbability) {
+                        resets.incrementAndGet();
+                        reset(pair);
+                        return;
+                    }
+                    if (now.bytesPerSecond > 0) {
+                        linkFreeAt = Math.max(linkFreeAt, System.nanoTime()) + data.length * 1_000_000_000L / now.bytesPerSecond;
+                        sleepUntil(linkFreeAt);
+                    }
+                    bytes.addAndGet(data.length);
+                    out.write(data);
+                    out.flush();
+                }
+            } catch (IOException e) {
+                closePair(pair);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, name + "-write");
+    }
+
+    /** Closes both sides with SO_LINGER 0 so the peers see a reset rather than a clean close. */
+    private void reset(Socket[] pair) {
+        for (Socket socket : pair) {
+            try {
+                socket.setSoLinger(true, 0);
+            } catch (SocketException ignored) {
+                // Already closed
+            }
+        }
+        closePair(pair);
+    }
+
+    private void closePair(Socket[] pair) {
+        open.remove(pair);
+        closeQuietly(pair[0]);
+        closeQuietly(pair[1]);
+    }
+
+    private static void sleepUntil(long nanoTime) {
+        long wait;
+        while ((wait = nanoTime - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(wait);
+        }
+    }
+
+    private static void closeQuietly(Socket socket) {
+        try {
+            socket.close();
+        } catch (IOException ignored) {
+            // Already closed
+        }
+    }
+
+    private static void daemon(Runnable task, String name) {
+        Thread thread = new Thread(task, name);
+        thread.setDaemon(true);
+        thread.start();
+    }
+}
@@ -0,0 +1,266 @@
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+/**
+ * Open-loop load driver: requests are sent on a fixed timeline regardless of how
+ * quickly earlier ones complete, so a stalled server builds up a queue instead of
+ * silently slowing the client down.
+ *
+ * Every response is recorded twice. The corrected latency is measured from the
+ * moment the request was scheduled to start, which includes any time it spent
+ * waiting behind a stall (coordinated omission). The uncorrected latency is measured
+ * from the moment it was actually sent, which is what a closed-loop client sees.
+ * Failed and timed-out requests are recorded the same way, up to the moment they
+ * failed, so a stall longer than the request timeout still shows in the percentiles.
+ *
+ * Status codes are checked on every response, but bodies are discarded unread except
+ * for a sample (-Dvalidation.sample, default 0.01, i.e. every 100th response per
+ * endpoint) that is buffered and run through the endpoint's body assertion. 0 turns
+ * body validation off and 1 validates every response.
+ *
+ * The slowest -Doutliers.perEndpoint (default 10) requests per endpoint, by corrected
+ * latency, are kept in an {@link OutlierReservoir} with their headers, bodies and timing.
+ * A response body is only buffered if the request was already slower than the
+ * reservoir's threshold when its headers arrived.
+ *
+ * Each request times out after its route's {@link RequestDeadlines} budget, or the
+ * driver's request timeout if the route has none. Timeouts are counted apart from other
+ * failures and reported as a rate next to the latencies.
+ *
+ * With {@link #recordSamples(SampleStore)} every response, failure and timeout is also
+ * appended to an off-heap {@link SampleStore}, for runs too long to keep in memory.
+ */
+public final class OpenLoopDriver {
+    private static final double VALIDATION_SAMPLE = Double.parseDouble(System.getProperty("validation.sample", "0.01"));
+    private static final int OUTLIERS = Integer.getInteger("outliers.perEndpoint", 10);
+    private static final HttpResponse.BodyHandler<byte[]> DISCARD = HttpResponse.BodyHandlers.replacing(null);
+    private static final HttpResponse.BodyHandler<byte[]> BUFFER = HttpResponse.BodyHandlers.ofByteArray();
+
+    /** Latency and outcome counters for one endpoint. */
+    static final class EndpointStats {
+        final LatencyHistogram corrected = new LatencyHistogram();
+        final LatencyHistogram uncorrected = new LatencyHistogram();
+        final AtomicLong unexpectedStatus = new AtomicLong();
+        final AtomicLong failures = new AtomicLong();
+        final AtomicLong timeouts = new AtomicLong();
+        final AtomicLong responses = new AtomicLong();
+        final AtomicLong validated = new AtomicLong();
+        final AtomicLong validationFailures = new AtomicLong();
+        volatile String firstValidationFailure;
+        final OutlierReservoir outliers = OUTLIERS > 0 ? new OutlierReservoir(OUTLIERS) : null;
+
+        /** Records a request that failed or timed out after waiting this long; it is not a completion. */
+        void recordFailure(long correctedNanos, long uncorrectedNanos, boolean timedOut) {
+            failures.incrementAndGet();
+            if (timedOut) {
+                timeouts.incrementAndGet();
+            }
+            corrected.record(correctedNanos);
+            uncorrected.record(uncorrectedNanos);
+        }
+
+        /** Requests that got a response; the histograms also hold the failures. */
+        long completed() {
+            return corrected.count() - failures.get();
+        }
+
+        /** Every period-th response per endpoint is validated, starting with the first. */
+        boolean sample(long period) {
+            return period > 0 && responses.getAndIncrement() % period == 0;
+        }
+
+        void validate(SuiteEndpoint endpoint, byte[] body) {
+            validated.incrementAndGet();
+            String mismatch = endpoint.bodyMismatch(body);
+            if (mismatch != null && validationFailures.getAndIncrement() == 0) {
+                firstValidationFailure = mismatch;
+            }
+        }
+    }
+
+    /** Outcome of one run, keyed by endpoint name. */
+    static final class Result {
+        final Map<String, EndpointStats> endpoints;
+        final long scheduled;
+        final long elapsedNanos;
+        final int maxInFlight;
+
+        Result(Map<String, EndpointStats> endpoints, long scheduled, long elapsedNanos, int maxInFlight) {
+            this.endpoints = new TreeMap<>(endpoints);
+            this.scheduled = scheduled;
+            this.elapsedNanos = elapsedNanos;
+            this.maxInFlight = maxInFlight;
+        }
+
+        long validated() {
+            return endpoints.values().stream().mapToLong(stats -> stats.validated.get()).sum();
+        }
+
+        long timeouts() {
+            return endpoints.values().stream().mapToLong(stats -> stats.timeouts.get()).sum();
+        }
+
+        long validationFailures() {
+            return endpoints.values().stream().mapToLong(stats -> stats.validationFailures.get()).sum();
+        }
+
+        /** Writes the slowest requests of every endpoint to file; see {@link OutlierReservoir#write}. */
+        void writeOutliers(Path file) throws IOException {
+            Map<String, OutlierReservoir> reservoirs = new TreeMap<>();
+            endpoints.forEach((name, stats) -> {
+                if (stats.outliers != null) {
+                    reservoirs.put(name, stats.outliers);
+                }
+            });
+            OutlierReservoir.write(file, reservoirs);
+        }
+
+        LatencyHistogram totalCorrected() {
+            LatencyHistogram total = new LatencyHistogram();
+            endpoints.values().forEach(stats -> total.merge(stats.corrected));
+            return total;
+        }
+
+        double throughputPerSecond() {
+            long completed = endpoints.values().stream().mapToLong(EndpointStats::completed).sum();
+            return completed / (elapsedNanos / 1e9);
+        }
+
+        void print(String tag) {
+            System.out.printf("[%s] %d requests in %.1f s (%.1f req/s), max in flight %d, timed out %d (%.2f%%)%n",
+                    tag, scheduled, elapsedNanos / 1e9, throughputPerSecond(), maxInFlight,
+                    timeouts(), 100.0 * timeouts() / Math.max(1, scheduled));
+            endpoints.forEach((name, stats) -> {
+                System.out.printf("[%s] %-44s corrected   %s%n", tag, name, stats.corrected.summary());
+                System.out.printf("[%s] %-44s uncorrected %s%n", tag, "", stats.uncorrected.summary());
+                if (stats.unexpectedStatus.get() > 0 || stats.failures.get() > 0) {
+                    System.out.printf("[%s] %-44s unexpected status %d, failed %d, timed out %d (%.2f%%)%n",
+                            tag, "", stats.unexpectedStatus.get(), stats.failures.get(), stats.timeouts.get(),
+                            100.0 * stats.timeouts.get() / stats.corrected.count());
+                }
+                if (stats.validationFailures.get() > 0) {
+                    System.out.printf("[%s] %-44s %d of %d validated bodies failed, first: %s%n", tag, "",
+                            stats.validationFailures.get(), stats.validated.get(), stats.firstValidationFailure);
+                }
+            });
+        }
+    }
+
+    private final String baseUrl;
+    private final Duration requestTimeout;
+    private final HttpClient client;
+    private SampleStore samples;
+
+    OpenLoopDriver(String baseUrl, Duration requestTimeout) {
+        this.baseUrl = baseUrl;
+        this.requestTimeout = requestTimeout;
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(requestTimeout)
+                .build();
+    }
+
+    /** Appends every outcome of later runs to store, corrected latency first. */
+    void recordSamples(SampleStore store) {
+        this.samples = store;
+    }
+
+    /** Cycles through the endpoints in order, one per scheduled slot. */
+    static Supplier<SuiteEndpoint> roundRobin(List<SuiteEndpoint> endpoints) {
+        AtomicInteger next = new AtomicInteger();
+        return () -> endpoints.get(Math.floorMod(next.getAndIncrement(), endpoints.size()));
+    }
+
+    /**
+     * Sends requests at ratePerSecond for the given duration, taking the next endpoint
+     * from mix for each slot, then waits for the stragglers to finish.
+     */
+    Result run(Supplier<SuiteEndpoint> mix, double ratePerSecond, Duration duration) {
+        Map<String, EndpointStats> stats = new ConcurrentHashMap<>();
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+
+        long intervalNanos = (long) (1e9 / ratePerSecond);
+        long durationNanos = duration.toNanos();
+        long samplePeriod = VALIDATION_SAMPLE <= 0 ? 0 : Math.max(1, Math.round(1 / VALIDATION_SAMPLE));
+        long start = System.nanoTime();
+        long scheduled = 0;
+        SampleStore samples = this.samples;
+
+        for (long slot = 0; slot * intervalNanos < durationNanos; slot++) {
+            long intended = start + slot * intervalNanos;
+            long wait = intended - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+
+            SuiteEndpoint endpoint = mix.get();
+            EndpointStats endpointStats = stats.computeIfAbsent(endpoint.name(), name -> new EndpointStats());
+            int sampleId = samples == null ? -1 : samples.endpointId(endpoint.name());
+            boolean validate = endpoint.hasBodyCheck() && endpointStats.sample(samplePeriod);
+            int inFlightAtSend = inFlight.incrementAndGet();
+            maxInFlight.accumulateAndGet(inFlightAtSend, Math::max);
+            HttpRequest request = endpoint.toHttpRequest(baseUrl,
+                    RequestDeadlines.budget(endpoint.method, endpoint.route, requestTimeout));
+            long[] headersAt = new long[1];
+            OutlierReservoir outliers = endpointStats.outliers;
+            HttpResponse.BodyHandler<byte[]> handler = info -> {
+                headersAt[0] = System.nanoTime();
+                boolean slow = outliers != null && headersAt[0] - intended > outliers.threshold();
+                return (validate || slow ? BUFFER : DISCARD).apply(info);
+            };
+            long sent = System.nanoTime();
+            client.sendAsync(request, handler)
+                    .whenComplete((response, error) -> {
+                        long done = System.nanoTime();
+                        if (error != null) {
+                            boolean timedOut = RequestDeadlines.isTimeout(error);
+                            endpointStats.recordFailure(done - intended, done - sent, timedOut);
+                            if (samples != null) {
+                                samples.append(intended, sampleId,
+                                        timedOut ? SampleStore.TIMED_OUT : SampleStore.FAILED, done - intended);
+                            }
+                        } else {
+                            if (samples != null) {
+                                samples.append(intended, sampleId, (short) response.statusCode(), done - intended);
+                            }
+                            endpointStats.corrected.record(done - intended);
+                            endpointStats.uncorrected.record(done - sent);
+                            if (response.statusCode() != endpoint.expectedStatus) {
+                                endpointStats.unexpectedStatus.incrementAndGet();
+                            } else if (validate) {
+                                endpointStats.validate(endpoint, response.body());
+                            }
+                            if (outliers != null) {
+                                int inFlightAtDone = inFlight.get();
+                                outliers.offer(done - intended, () -> new OutlierReservoir.Outlier(
+                                        endpoint.name(), endpoint.method, endpoint.path, request.headers(),
+                                        endpoint.body, response.statusCode(), response.headers(), response.body(),
+                                        sent - intended, headersAt[0] - intended, done - intended,
+                                        inFlightAtSend, inFlightAtDone));
+                            }
+                        }
+                        inFlight.decrementAndGet();
+                    });
+            scheduled++;
+        }
+
+        long drainDeadline = System.nanoTime() + requestTimeout.toNanos() * 2;
+        while (inFlight.get() > 0 && System.nanoTime() < drainDeadline) {
+            LockSupport.parkNanos(1_000_000);
+        }
+        return new Result(stats, scheduled, System.nanoTime() - start, maxInFlight.get());
+    }
+}
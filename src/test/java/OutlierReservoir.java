@@ -0,0 +1,174 @@
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.net.http.HttpHeaders;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Supplier;
+
+/**
+ * The slowest K requests seen for one endpoint, kept with everything needed to look at
+ * them afterwards: request and response headers and bodies, where the time went and how
+ * many requests were in flight.
+ *
+ * Offers are lock-free. Once the reservoir is full, {@link #threshold()} is a lower bound
+ * on the fastest entry kept, so the common case (a request faster than that) costs one
+ * volatile read and builds nothing. A slower request replaces the fastest entry with a
+ * compare-and-set, retrying if another thread replaced it first.
+ */
+public final class OutlierReservoir {
+
+    /** One slow request. Times are offsets in nanoseconds from when it was scheduled. */
+    static final class Outlier {
+        final String endpoint;
+        final String method;
+        final String path;
+        final Map<String, List<String>> requestHeaders;
+        final byte[] requestBody;
+        final int status;
+        final Map<String, List<String>> responseHeaders;
+        // Null when the response was not yet slow when its headers arrived, so its body was discarded
+        final byte[] responseBody;
+        final long queuedNanos;
+        final long headersNanos;
+        final long totalNanos;
+        final int inFlightAtSend;
+        final int inFlightAtDone;
+
+        Outlier(String endpoint, String method, String path, HttpHeaders requestHeaders, byte[] requestBody,
+                int status, HttpHeaders responseHeaders, byte[] responseBody,
+                long queuedNanos, long headersNanos, long totalNanos, int inFlightAtSend, int inFlightAtDone) {
+            this.endpoint = endpoint;
+            this.method = method;
+            this.path = path;
+            this.requestHeaders = requestHeaders.map();
+            this.requestBody = requestBody;
+            this.status = status;
+            this.responseHeaders = responseHeaders == null ? Map.of() : responseHeaders.map();
+            this.responseBody = responseBody;
+            this.queuedNanos = queuedNanos;
+            this.headersNanos = headersNanos;
+            this.totalNanos = totalNanos;
+            this.inFlightAtSend = inFlightAtSend;
+            this.inFlightAtDone = inFlightAtDone;
+        }
+
+        private void writeTo(PrintWriter out) {
+            out.printf("### %s %.3f ms: queued %.3f ms, first byte %.3f ms, body %.3f ms; in flight %d at send, %d at done%n",
+                    endpoint, totalNanos / 1e6, queuedNanos / 1e6, (headersNanos - queuedNanos) / 1e6,
+                    (totalNanos - headersNanos) / 1e6, inFlightAtSend, inFlightAtDone);
+            out.println(method + " " + path);
+            requestHeaders.forEach((name, values) -> values.forEach(value -> out.println(name + ": " + value)));
+            out.println();
+            if (requestBody != null) {
+                out.println(new String(requestBody, StandardCharsets.UTF_8));
+            }
+            out.println();
+            out.println("HTTP " + status);
+            responseHeaders.forEach((name, values) -> values.forEach(value -> out.println(name + ": " + value)));
+            out.println();
+            out.println(responseBody == null ? "(body not captured)" : new String(responseBody, StandardCharsets.UTF_8));
+            out.println();
+        }
+    }
+
+    private final AtomicReferenceArray<Outlier> slots;
+    private final AtomicLong threshold = new AtomicLong();
+
+    OutlierReservoir(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be at least 1");
+        }
+        this.slots = new AtomicReferenceArray<>(capacity);
+    }
+
+    /**
+     * Latency a request must exceed to be kept; 0 until the reservoir is full. Entries
+     * only ever get slower, so a stale read is still a valid lower bound.
+     */
+    long threshold() {
+        return threshold.get();
+    }
+
+    /** Keeps the outlier if it is among the slowest K; outlier is only built if it is. */
+    boolean offer(long totalNanos, Supplier<Outlier> outlier) {
+        if (totalNanos <= threshold.get()) {
+            return false;
+        }
+        Outlier candidate = null;
+        while (true) {
+            int fastest = -1;
+            Outlier fastestEntry = null;
+            for (int i = 0; i < slots.length(); i++) {
+                Outlier entry = slots.get(i);
+                if (entry == null) {
+                    fastest = i;
+                    fastestEntry = null;
+                    break;
+                }
+                if (fastestEntry == null || entry.totalNanos < fastestEntry.totalNanos) {
+                    fastest = i;
+                    fastestEntry = entry;
+                }
+            }
+            if (fastestEntry != null && totalNanos <= fastestEntry.totalNanos) {
+                return false;
+            }
+            if (candidate == null) {
+                candidate = outlier.get();
+            }
+            if (slots.compareAndSet(fastest, fastestEntry, candidate)) {
+                raiseThreshold();
+                return true;
+            }
+        }
+    }
+
+    private void raiseThreshold() {
+        long fastest = Long.MAX_VALUE;
+        for (int i = 0; i < slots.length(); i++) {
+            Outlier entry = slots.get(i);
+            if (entry == null) {
+                return;
+            }
+            fastest = Math.min(fastest, entry.totalNanos);
+        }
+        long floor = fastest;
+        threshold.accumulateAndGet(floor, Math::max);
+    }
+
+    /** The kept outliers, slowest first. */
+    List<Outlier> slowest() {
+        List<Outlier> kept = new ArrayList<>();
+        for (int i = 0; i < slots.length(); i++) {
+            Outlier entry = slots.get(i);
+            if (entry != null) {
+                kept.add(entry);
+            }
+        }
+        kept.sort(Comparator.comparingLong((Outlier entry) -> entry.totalNanos).reversed());
+        return kept;
+    }
+
+    /** Writes every reservoir's outliers as readable request/response dumps, by endpoint and slowest first. */
+    static void write(Path file, Map<String, OutlierReservoir> reservoirs) throws IOException {
+        List<Outlier> all = new ArrayList<>();
+        reservoirs.values().forEach(reservoir -> all.addAll(reservoir.slowest()));
+        all.sort(Comparator.comparing((Outlier entry) -> entry.endpoint)
+                .thenComparing(Comparator.comparingLong((Outlier entry) -> entry.totalNanos).reversed()));
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(file, StandardCharsets.UTF_8))) {
+            for (Outlier outlier : all) {
+                outlier.writeTo(out);
+            }
+        }
+    }
+}
@@ -0,0 +1,544 @@
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Closed-loop load client on raw NIO socket channels, for finding the server's maximum
+ * request rate without the client becoming the bottleneck.
+ *
+ * Every endpoint is encoded once into a direct buffer holding the full HTTP/1.1
+ * request. A single selector thread keeps up to depth requests pipelined on each
+ * connection, copying templates straight into the connection's send buffer, and
+ * parses responses in place: only the status line and the Content-Length and
+ * Transfer-Encoding headers are looked at, and bodies are skipped unless the
+ * endpoint has a body check. Nothing is allocated per request.
+ *
+ * Latency is measured from the moment a request is queued on its connection, so it
+ * includes time spent behind earlier pipelined requests.
+ */
+public final class PipelinedClient {
+    private static final int BUFFER_BYTES = 64 * 1024;
+
+    /** One pre-encoded request and what its response should look like. */
+    static final class Template {
+        final SuiteEndpoint endpoint;
+        final ByteBuffer request;
+        final boolean head;
+        final byte[] bodyMarker;
+
+        /** bodyMarker, when not null, must appear in the response body; the body is then read instead of skipped. */
+        Template(SuiteEndpoint endpoint, String hostHeader, byte[] bodyMarker) {
+            this.endpoint = endpoint;
+            this.head = endpoint.method.equals("HEAD");
+            this.bodyMarker = bodyMarker;
+
+            byte[] body = endpoint.body == null ? new byte[0] : endpoint.body;
+            StringBuilder headers = new StringBuilder(128)
+                    .append(endpoint.method).append(' ').append(endpoint.path).append(" HTTP/1.1\r\n")
+                    .append("Host: ").append(hostHeader).append("\r\n")
+                    .append("Accept: ").append(endpoint.mediaType).append("\r\n");
+            if (endpoint.body != null) {
+                headers.append("Content-Type: ").append(endpoint.mediaType).append("\r\n");
+            }
+            headers.append("Content-Length: ").append(body.length).append("\r\n\r\n");
+            byte[] headBytes = headers.toString().getBytes(StandardCharsets.US_ASCII);
+
+            ByteBuffer encoded = ByteBuffer.allocateDirect(headBytes.length + body.length);
+            encoded.put(headBytes).put(body).flip();
+            this.request = encoded.asReadOnlyBuffer();
+        }
+    }
+
+    /** Per-endpoint counters; only touched by the selector thread. */
+    static final class EndpointStats {
+        final LatencyHistogram latency = new LatencyHistogram();
+        long unexpectedStatus;
+        long bodyMismatches;
+    }
+
+    static final class Result {
+        final Template[] templates;
+        final EndpointStats[] stats;
+        final long elapsedNanos;
+        final long failures;
+
+        Result(Template[] templates, EndpointStats[] stats, long elapsedNanos, long failures) {
+            this.templates = templates;
+            this.stats = stats;
+            this.elapsedNanos = elapsedNanos;
+            this.failures = failures;
+        }
+
+        long completed() {
+            long total = 0;
+            for (EndpointStats endpoint : stats) {
+                total += endpoint.latency.count();
+            }
+            return total;
+        }
+
+        double throughputPerSecond() {
+            return completed() / (elapsedNanos / 1e9);
+        }
+
+        void print(String tag) {
+            System.out.printf("[%s] %d responses in %.1f s (%.1f req/s), %d lost to closed connections%n",
+                    tag, completed(), elapsedNanos / 1e9, throughputPerSecond(), failures);
+            for (int i = 0; i < templates.length; i++) {
+                EndpointStats endpoint = stats[i];
+                System.out.printf("[%s] %-40s %s%n", tag, templates[i].endpoint.name(), endpoint.latency.summary());
+                if (endpoint.unexpectedStatus > 0 || endpoint.bodyMismatches > 0) {
+                    System.out.printf("[%s] %-40s unexpected status %d, body mismatches %d%n",
+                            tag, "", endpoint.unexpectedStatus, endpoint.bodyMismatches);
+                }
+            }
+        }
+    }
+
+    private final InetSocketAddress address;
+    private final Template[] templates;
+    private final int connections;
+    private final int depth;
+
+    PipelinedClient(String baseUrl, List<Template> templates, int connections, int depth) {
+        URI uri = URI.create(baseUrl);
+        this.address = new InetSocketAddress(uri.getHost(), uri.getPort());
+        this.templates = templates.toArray(new Template[0]);
+        this.connections = connections;
+        this.depth = depth;
+    }
+
+    /** Encodes endpoints for baseUrl with no body checks. */
+    static List<Template> templates(String baseUrl, List<SuiteEndpoint> endpoints) {
+        URI uri = URI.create(baseUrl);
+        String host = uri.getHost() + ":" + uri.getPort();
+        return endpoints.stream().map(endpoint -> new Template(endpoint, host, null)).toList();
+    }
+
+    /** Keeps every connection full for the given duration, then waits for the responses still in flight. */
+    Result run(Duration duration) throws IOException {
+        EndpointStats[] stats = new EndpointStats[templates.length];
+        for (int i = 0; i < stats.length; i++) {
+            stats[i] = new EndpointStats();
+        }
+
+        long failures = 0;
+        long start = System.nanoTime();
+        long deadline = start + duration.toNanos();
+        long drainDeadline = deadline + Duration.ofSeconds(5).toNanos();
+        try (Selector selector = Selector.open()) {
+            int open = 0;
+            for (int i = 0; i < connections; i++) {
+                Connection connection = new Connection(selector);
+                connection.fill(System.nanoTime());
+                open++;
+            }
+
+            while (open > 0) {
+                long now = System.nanoTime();
+                boolean sending = now < deadline;
+                if (!sending && now > drainDeadline) {
+                    break;
+                }
+                selector.select(10);
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    Connection connection = (Connection) key.attachment();
+                    if (!key.isValid()) {
+                        continue;
+                    }
+                    try {
+                        if (key.isReadable() && !connection.read(stats)) {
+                            failures += connection.outstanding;
+                            connection.close();
+                            open--;
+                            if (sending) {
+                                new Connection(selector).fill(System.nanoTime());
+                                open++;
+                            }
+                            continue;
+                        }
+                        if (sending) {
+                            connection.fill(System.nanoTime());
+                        } else if (connection.outstanding == 0) {
+                            connection.close();
+                            open--;
+                            continue;
+                        }
+                        connection.flush();
+                    } catch (IOException e) {
+                        failures += connection.outstanding;
+                        connection.close();
+                        open--;
+                    }
+                }
+                if (!sending) {
+                    for (SelectionKey key : selector.keys()) {
+                        Connection connection = (Connection) key.attachment();
+                        if (key.isValid() && connection.outstanding == 0) {
+                            connection.close();
+                            open--;
+                        }
+                    }
+                }
+            }
+            for (SelectionKey key : selector.keys()) {
+                if (key.isValid()) {
+                    Connection connection = (Connection) key.attachment();
+                    failures += connection.outstanding;
+                    connection.close();
+                }
+            }
+        }
+        return new Result(templates, stats, System.nanoTime() - start, failures);
+    }
+
+    /* One pipelined connection */
+
+    private final class Connection {
+        final SocketChannel channel;
+        final SelectionKey key;
+        final ByteBuffer out = ByteBuffer.allocateDirect(BUFFER_BYTES);
+        final ByteBuffer in = ByteBuffer.allocateDirect(BUFFER_BYTES);
+        final ResponseParser parser = new ResponseParser();
+        // Ring of requests awaiting a response, oldest at head
+        final int[] pendingTemplate = new int[depth];
+        final long[] pendingSince = new long[depth];
+        int head;
+        int outstanding;
+        int nextTemplate;
+
+        Connection(Selector selector) throws IOException {
+            channel = SocketChannel.open(address);
+            channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+            channel.configureBlocking(false);
+            key = channel.register(selector, SelectionKey.OP_READ, this);
+            // Spread connections over the endpoint list instead of all starting at the first
+            nextTemplate = selector.keys().size() * 7 % templates.length;
+        }
+
+        /** Queues requests until the pipeline is full or the send buffer cannot take the next one. */
+        void fill(long now) throws IOException {
+            while (outstanding < depth) {
+                Template template = templates[nextTemplate];
+                int length = template.request.limit();
+                if (out.remaining() < length) {
+                    break;
+                }
+                out.put(out.position(), template.request, 0, length);
+                out.position(out.position() + length);
+
+                int slot = (head + outstanding) % depth;
+                pendingTemplate[slot] = nextTemplate;
+                pendingSince[slot] = now;
+                if (outstanding == 0) {
+                    parser.begin(template.head, template.bodyMarker != null);
+                }
+                outstanding++;
+                nextTemplate = (nextTemplate + 1) % templates.length;
+            }
+            flush();
+        }
+
+        void flush() throws IOException {
+            out.flip();
+            channel.write(out);
+            boolean pending = out.hasRemaining();
+            out.compact();
+            key.interestOps(pending ? SelectionKey.OP_READ | SelectionKey.OP_WRITE : SelectionKey.OP_READ);
+        }
+
+        /** Parses whatever has arrived; false once the server has closed the connection. */
+        boolean read(EndpointStats[] stats) throws IOException {
+            int read = channel.read(in);
+            if (read < 0) {
+                return false;
+            }
+            in.flip();
+            while (in.hasRemaining() && outstanding > 0 && parser.feed(in)) {
+                long now = System.nanoTime();
+                Template template = templates[pendingTemplate[head]];
+                EndpointStats endpoint = stats[pendingTemplate[head]];
+                endpoint.latency.record(now - pendingSince[head]);
+                if (parser.status() != template.endpoint.expectedStatus) {
+                    endpoint.unexpectedStatus++;
+                }
+                if (template.bodyMarker != null && !parser.bodyContains(template.bodyMarker)) {
+                    endpoint.bodyMismatches++;
+                }
+
+                head = (head + 1) % depth;
+                outstanding--;
+                if (outstanding > 0) {
+                    Template nextInLine = templates[pendingTemplate[head]];
+                    parser.begin(nextInLine.head, nextInLine.bodyMarker != null);
+                }
+            }
+            in.compact();
+            return true;
+        }
+
+        void close() {
+            key.cancel();
+            try {
+                channel.close();
+            } catch (IOException e) {
+                // Already closed by the server
+            }
+        }
+    }
+
+    /* Response parsing */
+
+    /**
+     * Incremental HTTP/1.1 response parser that works on the receive buffer in place.
+     * It reads the status code and the two framing headers, then skips (or, when asked,
+     * collects) a Content-Length or chunked body. Responses can be split across reads
+     * at any byte.
+     */
+    static final class ResponseParser {
+        private static final byte[] CONTENT_LENGTH = "content-length".getBytes(StandardCharsets.US_ASCII);
+        private static final byte[] TRANSFER_ENCODING = "transfer-encoding".getBytes(StandardCharsets.US_ASCII);
+        private static final byte[] CHUNKED = "chunked".getBytes(StandardCharsets.US_ASCII);
+
+        private static final int STATUS_LINE = 0;
+        private static final int HEADERS = 1;
+        private static final int FIXED_BODY = 2;
+        private static final int CHUNK_SIZE = 3;
+        private static final int CHUNK_DATA = 4;
+        private static final int CHUNK_END = 5;
+        private static final int TRAILERS = 6;
+
+        private final byte[] line = new byte[8 * 1024];
+        private int lineLength;
+        private int state;
+        private boolean headRequest;
+        private boolean collectBody;
+        private int status;
+        private long contentLength;
+        private boolean chunked;
+        private long remaining;
+        private byte[] body = new byte[0];
+        private int bodyLength;
+
+        /** Resets for the next response; a HEAD response never has a body. */
+        void begin(boolean headRequest, boolean collectBody) {
+            this.headRequest = headRequest;
+            this.collectBody = collectBody;
+            state = STATUS_LINE;
+            lineLength = 0;
+            status = 0;
+            contentLength = -1;
+            chunked = false;
+            bodyLength = 0;
+        }
+
+        int status() {
+            return status;
+        }
+
+        boolean bodyContains(byte[] marker) {
+            outer:
+            for (int i = 0; i + marker.length <= bodyLength; i++) {
+                for (int j = 0; j < marker.length; j++) {
+                    if (body[i + j] != marker[j]) {
+                        continue outer;
+                    }
+                }
+                return true;
+            }
+            return false;
+        }
+
+        /** Consumes bytes from in; true once a whole response has been read, leaving in at the next one. */
+        boolean feed(ByteBuffer in) {
+            while (in.hasRemaining()) {
+                switch (state) {
+                    case STATUS_LINE:
+                        if (readLine(in)) {
+                            if (lineLength < 12) {
+                                throw new IllegalStateException("Malformed status line");
+                            }
+                            status = (line[9] - '0') * 100 + (line[10] - '0') * 10 + (line[11] - '0');
+                            lineLength = 0;
+                            state = HEADERS;
+                        }
+                        break;
+                    case HEADERS:
+                        if (readLine(in)) {
+                            if (lineLength == 0) {
+                                if (startBody()) {
+                                    return true;
+                                }
+                            } else {
+                                header();
+                            }
+                        }
+                        break;
+                    case FIXED_BODY:
+                    case CHUNK_DATA:
+                        consumeBody(in);
+                        if (remaining == 0) {
+                            if (state == FIXED_BODY) {
+                                return true;
+                            }
+                            state = CHUNK_END;
+                        }
+                        break;
+                    case CHUNK_SIZE:
+                        if (readLine(in)) {
+                            remaining = chunkSize();
+                            state = remaining == 0 ? TRAILERS : CHUNK_DATA;
+                        }
+                        break;
+                    case CHUNK_END:
+                        if (readLine(in)) {
+                            lineLength = 0;
+                            state = CHUNK_SIZE;
+                        }
+                        break;
+                    case TRAILERS:
+                        if (readLine(in)) {
+                            if (lineLength == 0) {
+                                return true;
+                            }
+                            lineLength = 0;
+                        }
+                        break;
+                    default:
+                        throw new IllegalStateException("Unknown parser state " + state);
+                }
+            }
+            return false;
+        }
+
+        /** Appends bytes up to LF to the line buffer; true when the line is complete (CR and LF dropped). */
+        private boolean readLine(ByteBuffer in) {
+            while (in.hasRemaining()) {
+                byte b = in.get();
+                if (b == '\n') {
+                    if (lineLength > 0 && line[lineLength - 1] == '\r') {
+                        lineLength--;
+                    }
+                    return true;
+                }
+                if (lineLength == line.length) {
+                    throw new IllegalStateException("Response header line longer than " + line.length + " bytes");
+                }
+                line[lineLength++] = b;
+            }
+            return false;
+        }
+
+        private void header() {
+            int colon = indexOf(line, lineLength, (byte) ':');
+            if (colon < 0) {
+                lineLength = 0;
+                return;
+            }
+            if (nameEquals(colon, CONTENT_LENGTH)) {
+                long value = 0;
+                for (int i = colon + 1; i < lineLength; i++) {
+                    if (line[i] >= '0' && line[i] <= '9') {
+                        value = value * 10 + (line[i] - '0');
+                    }
+                }
+                contentLength = value;
+            } else if (nameEquals(colon, TRANSFER_ENCODING)) {
+                chunked = containsIgnoreCase(colon + 1, CHUNKED);
+            }
+            lineLength = 0;
+        }
+
+        /** Moves to the body state; true if the response has no body and is already complete. */
+        private boolean startBody() {
+            lineLength = 0;
+            if (headRequest || status < 200 || status == 204 || status == 304) {
+                return true;
+            }
+            if (chunked) {
+                state = CHUNK_SIZE;
+                return false;
+            }
+            if (contentLength > 0) {
+                remaining = contentLength;
+                state = FIXED_BODY;
+                return false;
+            }
+            return true;
+        }
+
+        private void consumeBody(ByteBuffer in) {
+            int n = (int) Math.min(remaining, in.remaining());
+            if (collectBody) {
+                if (bodyLength + n > body.length) {
+                    body = Arrays.copyOf(body, Math.max(body.length * 2, bodyLength + n));
+                }
+                in.get(body, bodyLength, n);
+                bodyLength += n;
+            } else {
+                in.position(in.position() + n);
+            }
+            remaining -= n;
+        }
+
+        private long chunkSize() {
+            long size = 0;
+            for (int i = 0; i < lineLength; i++) {
+                int digit = Character.digit(line[i], 16);
+                if (digit < 0) {
+                    break;
+                }
+                size = size * 16 + digit;
+            }
+            lineLength = 0;
+            return size;
+        }
+
+        private boolean nameEquals(int length, byte[] lowerCaseName) {
+            if (length != lowerCaseName.length) {
+                return false;
+            }
+            for (int i = 0; i < length; i++) {
+                if ((line[i] | 0x20) != lowerCaseName[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private boolean containsIgnoreCase(int from, byte[] lowerCaseValue) {
+            outer:
+            for (int i = from; i + lowerCaseValue.length <= lineLength; i++) {
+                for (int j = 0; j < lowerCaseValue.length; j++) {
+                    if ((line[i + j] | 0x20) != lowerCaseValue[j]) {
+                        continue outer;
+                    }
+                }
+                return true;
+            }
+            return false;
+        }
+
+        private static int indexOf(byte[] bytes, int length, byte value) {
+            for (int i = 0; i < length; i++) {
+                if (bytes[i] == value) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+    }
+}
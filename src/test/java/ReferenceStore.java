@@ -0,0 +1,368 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * In-memory data model behind {@link ReferenceTodoServer}.
+ *
+ * Each collection keeps its instances in an array indexed by the integer id, so a
+ * lookup is a bounds check and an array read. Ids come from a per-collection counter
+ * and are never reused. Each instance holds one int array of target ids per
+ * relationship, replaced copy-on-write when a link changes. Reads take no locks;
+ * writes are serialised on the store so both ends of a two-way link change together.
+ *
+ * Validation messages and which links are two-way mirror the Todo Manager jar, so the
+ * functional suite can run against either.
+ */
+final class ReferenceStore {
+    private static final int INITIAL_CAPACITY = 256;
+
+    /** A request the store refuses, with the status and message the jar would send. */
+    static final class Failure extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        final int status;
+
+        Failure(int status, String message) {
+            super(message, null, false, false);
+            this.status = status;
+        }
+    }
+
+    static final class Collection {
+        final String name;
+        final String singular;
+        final String[] fields;
+        final boolean[] booleanField;
+        final boolean titleMandatory;
+        final List<Relationship> relationships = new ArrayList<>();
+        private final AtomicInteger lastId = new AtomicInteger();
+        private volatile AtomicReferenceArray<Instance> rows = new AtomicReferenceArray<>(INITIAL_CAPACITY);
+
+        private Collection(String name, String singular, boolean titleMandatory, String... fields) {
+            this.name = name;
+            this.singular = singular;
+            this.titleMandatory = titleMandatory;
+            this.fields = fields;
+            this.booleanField = new boolean[fields.length];
+            for (int i = 0; i < fields.length; i++) {
+                booleanField[i] = !fields[i].equals("title") && !fields[i].equals("description");
+            }
+        }
+
+        Instance get(int id) {
+            AtomicReferenceArray<Instance> current = rows;
+            return id > 0 && id < current.length() ? current.get(id) : null;
+        }
+
+        /** Live instances in ascending id order. */
+        List<Instance> list() {
+            AtomicReferenceArray<Instance> current = rows;
+            int last = Math.min(lastId.get(), current.length() - 1);
+            List<Instance> result = new ArrayList<>();
+            for (int id = 1; id <= last; id++) {
+                Instance instance = current.get(id);
+                if (instance != null) {
+                    result.add(instance);
+                }
+            }
+            return result;
+        }
+
+        Relationship relationship(String name) {
+            for (Relationship relationship : relationships) {
+                if (relationship.name.equals(name)) {
+                    return relationship;
+                }
+            }
+            return null;
+        }
+
+        int fieldIndex(String field) {
+            for (int i = 0; i < fields.length; i++) {
+                if (fields[i].equals(field)) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        // Callers hold the store lock
+        private void put(Instance instance) {
+            AtomicReferenceArray<Instance> current = rows;
+            if (instance.id >= current.length()) {
+                AtomicReferenceArray<Instance> grown =
+                        new AtomicReferenceArray<>(Math.max(current.length() * 2, instance.id + 1));
+                for (int i = 0; i < current.length(); i++) {
+                    grown.set(i, current.get(i));
+                }
+                current = grown;
+                rows = grown;
+            }
+            current.set(instance.id, instance);
+        }
+
+        private boolean remove(int id) {
+            AtomicReferenceArray<Instance> current = rows;
+            return id > 0 && id < current.length() && current.getAndSet(id, null) != null;
+        }
+    }
+
+    /** A named link from one collection to another, optionally mirrored by a reverse link. */
+    static final class Relationship {
+        final String name;
+        final Collection from;
+        final Collection to;
+        final int slot;
+        Relationship reverse;
+
+        private Relationship(String name, Collection from, Collection to) {
+            this.name = name;
+            this.from = from;
+            this.to = to;
+            this.slot = from.relationships.size();
+            from.relationships.add(this);
+        }
+    }
+
+    static final class Instance {
+        private static final int[] NONE = new int[0];
+
+        final int id;
+        volatile String[] values;
+        private final AtomicReferenceArray<int[]> links;
+
+        private Instance(int id, String[] values, int relationshipCount) {
+            this.id = id;
+            this.values = values;
+            this.links = new AtomicReferenceArray<>(relationshipCount);
+            for (int i = 0; i < relationshipCount; i++) {
+                links.set(i, NONE);
+            }
+        }
+
+        /** Target ids for a relationship, in the order they were linked. Do not modify. */
+        int[] links(Relationship relationship) {
+            return links.get(relationship.slot);
+        }
+
+        private boolean addLink(int slot, int targetId) {
+            int[] current = links.get(slot);
+            for (int id : current) {
+                if (id == targetId) {
+                    return false;
+                }
+            }
+            int[] next = Arrays.copyOf(current, current.length + 1);
+            next[current.length] = targetId;
+            links.set(slot, next);
+            return true;
+        }
+
+        private boolean removeLink(int slot, int targetId) {
+            int[] current = links.get(slot);
+            for (int i = 0; i < current.length; i++) {
+                if (current[i] == targetId) {
+                    int[] next = new int[current.length - 1];
+                    System.arraycopy(current, 0, next, 0, i);
+                    System.arraycopy(current, i + 1, next, i, current.length - i - 1);
+                    links.set(slot, next);
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private void clearLinks() {
+            for (int i = 0; i < links.length(); i++) {
+                links.set(i, NONE);
+            }
+        }
+    }
+
+    final Collection todos = new Collection("todos", "todo", true, "title", "doneStatus", "description");
+    final Collection projects = new Collection("projects", "project", false,
+            "title", "completed", "active", "description");
+    final Collection categories = new Collection("categories", "category", true, "title", "description");
+    private final Collection[] all = {todos, projects, categories};
+
+    ReferenceStore() {
+        // Declaration order is the order relationships appear in responses
+        new Relationship("categories", todos, categories);
+        Relationship tasksof = new Relationship("tasksof", todos, projects);
+        new Relationship("categories", projects, categories);
+        Relationship tasks = new Relationship("tasks", projects, todos);
+        new Relationship("todos", categories, todos);
+        new Relationship("projects", categories, projects);
+        tasks.reverse = tasksof;
+        tasksof.reverse = tasks;
+    }
+
+    /** A store holding the same starting data as a freshly started jar. */
+    static ReferenceStore seeded() {
+        ReferenceStore store = new ReferenceStore();
+        Instance scan = store.create(store.todos, Map.of("title", "scan paperwork"));
+        Instance file = store.create(store.todos, Map.of("title", "file paperwork"));
+        Instance office = store.create(store.projects, Map.of("title", "Office Work"));
+        Instance officeCategory = store.create(store.categories, Map.of("title", "Office"));
+        store.create(store.categories, Map.of("title", "Home"));
+        store.link(store.projects.relationship("tasks"), office, file);
+        store.link(store.projects.relationship("tasks"), office, scan);
+        store.link(store.todos.relationship("categories"), scan, officeCategory);
+        return store;
+    }
+
+    Collection collection(String name) {
+        for (Collection collection : all) {
+            if (collection.name.equals(name)) {
+                return collection;
+            }
+        }
+        return null;
+    }
+
+    synchronized Instance create(Collection collection, Map<String, String> body) {
+        if (body.containsKey("id")) {
+            throw new Failure(400, "Invalid Creation: Failed Validation: Not allowed to create with id");
+        }
+        String[] values = defaults(collection);
+        apply(collection, values, body);
+        checkTitle(collection, values, body);
+        Instance instance = new Instance(collection.lastId.incrementAndGet(), values, collection.relationships.size());
+        collection.put(instance);
+        return instance;
+    }
+
+    /** POST on an instance: changes only the fields in the body. */
+    synchronized void amend(Collection collection, Instance instance, Map<String, String> body) {
+        rejectId(body);
+        String[] values = instance.values.clone();
+        apply(collection, values, body);
+        if (body.containsKey("title") && collection.titleMandatory && values[0].isEmpty()) {
+            throw new Failure(400, "Failed Validation: title : can not be empty");
+        }
+        instance.values = values;
+    }
+
+    /** PUT on an instance: fields and links not in the body go back to their defaults. */
+    synchronized void replace(Collection collection, Instance instance, Map<String, String> body) {
+        rejectId(body);
+        String[] values = defaults(collection);
+        apply(collection, values, body);
+        checkTitle(collection, values, body);
+        unlinkAll(collection, instance);
+        instance.values = values;
+    }
+
+    synchronized boolean delete(Collection collection, int id) {
+        Instance instance = collection.get(id);
+        if (instance == null || !collection.remove(id)) {
+            return false;
+        }
+        unlinkAll(collection, instance);
+        // One-way links from other collections still point here
+        for (Collection other : all) {
+            for (Relationship relationship : other.relationships) {
+                if (relationship.to == collection && relationship.reverse == null) {
+                    for (Instance source : other.list()) {
+                        source.removeLink(relationship.slot, id);
+                    }
+                }
+            }
+        }
+        return true;
+    }
+
+    synchronized void link(Relationship relationship, Instance from, Instance to) {
+        if (from.addLink(relationship.slot, to.id) && relationship.reverse != null) {
+            to.addLink(relationship.reverse.slot, from.id);
+        }
+    }
+
+    synchronized boolean unlink(Relationship relationship, Instance from, int toId) {
+        if (!from.removeLink(relationship.slot, toId)) {
+            return false;
+        }
+        Instance to = relationship.to.get(toId);
+        if (relationship.reverse != null && to != null) {
+            to.removeLink(relationship.reverse.slot, from.id);
+        }
+        return true;
+    }
+
+    /** Live targets of a relationship, in link order. */
+    List<Instance> related(Relationship relationship, Instance from) {
+        int[] ids = from.links(relationship);
+        List<Instance> result = new ArrayList<>(ids.length);
+        for (int id : ids) {
+            Instance target = relationship.to.get(id);
+            if (target != null) {
+                result.add(target);
+            }
+        }
+        return result;
+    }
+
+    private void unlinkAll(Collection collection, Instance instance) {
+        for (Relationship relationship : collection.relationships) {
+            if (relationship.reverse != null) {
+                for (int targetId : instance.links(relationship)) {
+                    Instance target = relationship.to.get(targetId);
+                    if (target != null) {
+                        target.removeLink(relationship.reverse.slot, instance.id);
+                    }
+                }
+            }
+        }
+        instance.clearLinks();
+    }
+
+    private static String[] defaults(Collection collection) {
+        String[] values = new String[collection.fields.length];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = collection.booleanField[i] ? "false" : "";
+        }
+        return values;
+    }
+
+    private static void apply(Collection collection, String[] values, Map<String, String> body) {
+        for (Map.Entry<String, String> field : body.entrySet()) {
+            if (field.getKey().equals("id")) {
+                continue;
+            }
+            int index = collection.fieldIndex(field.getKey());
+            if (index < 0) {
+                throw new Failure(400, "Could not find field: " + field.getKey());
+            }
+            String value = field.getValue();
+            if (collection.booleanField[index]) {
+                if (!value.equalsIgnoreCase("true") && !value.equalsIgnoreCase("false")) {
+                    throw new Failure(400, "Failed Validation: " + field.getKey() + " should be BOOLEAN");
+                }
+                value = value.toLowerCase();
+            }
+            values[index] = value;
+        }
+    }
+
+    private static void checkTitle(Collection collection, String[] values, Map<String, String> body) {
+        if (!collection.titleMandatory) {
+            return;
+        }
+        if (!body.containsKey("title")) {
+            throw new Failure(400, "title : field is mandatory");
+        }
+        if (values[0].isEmpty()) {
+            throw new Failure(400, "Failed Validation: title : can not be empty");
+        }
+    }
+
+    private static void rejectId(Map<String, String> body) {
+        if (body.containsKey("id")) {
+            throw new Failure(400, "Failed Validation: id should be ID");
+        }
+    }
+}
@@ -0,0 +1,521 @@
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+
+/**
+ * Lightweight stand-in for the Todo Manager jar serving the /todos, /projects and
+ * /categories routes and their relationship routes from a {@link ReferenceStore}.
+ *
+ * Responses follow the jar's JSON and XML shapes, status codes and error messages
+ * closely enough for the functional suite to run against it unchanged, which makes it
+ * a fast target for functional runs and a speed-of-light baseline for benchmarks:
+ * whatever the jar costs beyond this server is framework overhead.
+ *
+ * Start it for the suite with -Dtodo.reference=true, or on its own with
+ * java -cp ... ReferenceTodoServer -port=4567.
+ */
+public final class ReferenceTodoServer {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    // DocumentBuilderFactory and DocumentBuilder are not thread-safe, so each handler thread gets its own
+    private static final ThreadLocal<DocumentBuilder> XML = ThreadLocal.withInitial(() -> {
+        try {
+            return DocumentBuilderFactory.newInstance().newDocumentBuilder();
+        } catch (ParserConfigurationException e) {
+            throw new IllegalStateException("No XML parser available", e);
+        }
+    });
+    private static final String JSON_TYPE = "application/json";
+    private static final String XML_TYPE = "application/xml";
+    private static final String HTML_TYPE = "text/html;charset=utf-8";
+
+    private static final String COLLECTION_ALLOW = "OPTIONS, GET, HEAD, POST";
+    private static final String INSTANCE_ALLOW = "OPTIONS, GET, HEAD, POST, PUT, DELETE";
+    private static final String LINK_ALLOW = "OPTIONS, DELETE";
+
+    private final ReferenceStore store;
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    private ReferenceTodoServer(ReferenceStore store, HttpServer server, ExecutorService executor) {
+        this.store = store;
+        this.server = server;
+        this.executor = executor;
+    }
+
+    /** Starts a server with the jar's starting data; port 0 picks a free port. */
+    static ReferenceTodoServer start(int port) throws IOException {
+        // Headers and body go out in separate writes; without TCP_NODELAY every
+        // keep-alive response waits out the client's delayed ACK (about 40 ms)
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+        HttpServer server = HttpServer.create(new InetSocketAddress("localhost", port),
+                Integer.getInteger("reference.backlog", 1024));
+        ExecutorService executor = Executors.newFixedThreadPool(
+                Integer.getInteger("reference.threads", Math.max(4, Runtime.getRuntime().availableProcessors())));
+        ReferenceTodoServer reference = new ReferenceTodoServer(ReferenceStore.seeded(), server, executor);
+        server.createContext("/", reference::handle);
+        server.setExecutor(executor);
+        server.start();
+        return reference;
+    }
+
+    public static void main(String[] args) throws IOException {
+        int port = 4567;
+        for (String arg : args) {
+            if (arg.startsWith("-port=")) {
+                port = Integer.parseInt(arg.substring("-port=".length()));
+            }
+        }
+        ReferenceTodoServer reference = start(port);
+        System.out.println("Reference Todo Manager listening on " + reference.baseUrl());
+    }
+
+    String baseUrl() {
+        return "http://localhost:" + server.getAddress().getPort();
+    }
+
+    void stop() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    /* Routing */
+
+    private void handle(HttpExchange exchange) throws IOException {
+        byte[] body;
+        try (InputStream in = exchange.getRequestBody()) {
+            body = in.readAllBytes();
+        }
+        boolean xml = prefersXml(exchange.getRequestHeaders().getFirst("Accept"));
+        try {
+            route(exchange, body, xml);
+        } catch (ReferenceStore.Failure failure) {
+            sendError(exchange, failure.status, failure.getMessage(), xml);
+        }
+    }
+
+    private void route(HttpExchange exchange, byte[] body, boolean xml) throws IOException {
+        String method = exchange.getRequestMethod();
+        String[] segments = segments(exchange.getRequestURI().getRawPath());
+        ReferenceStore.Collection collection = segments.length == 0 ? null : store.collection(segments[0]);
+        if (collection == null || segments.length > 4) {
+            sendEmpty(exchange, 404, HTML_TYPE);
+            return;
+        }
+
+        switch (segments.length) {
+            case 1:
+                collection(exchange, method, collection, body, xml);
+                break;
+            case 2:
+                instance(exchange, method, collection, segments[1], body, xml);
+                break;
+            default:
+                ReferenceStore.Relationship relationship = collection.relationship(segments[2]);
+                if (relationship == null) {
+                    sendEmpty(exchange, 404, HTML_TYPE);
+                } else if (segments.length == 3) {
+                    relationship(exchange, method, relationship, segments[1], body, xml);
+                } else {
+                    link(exchange, method, relationship, segments[1], segments[3], xml);
+                }
+        }
+    }
+
+    private void collection(HttpExchange exchange, String method, ReferenceStore.Collection collection,
+                            byte[] body, boolean xml) throws IOException {
+        switch (method) {
+            case "GET":
+            case "HEAD":
+                List<ReferenceStore.Instance> instances = filter(collection, collection.list(),
+                        exchange.getRequestURI().getRawQuery());
+                send(exchange, 200, renderList(collection, instances, xml), xml);
+                break;
+            case "POST":
+                ReferenceStore.Instance created = store.create(collection, parseBody(exchange, body));
+                sendCreated(exchange, collection, created, xml);
+                break;
+            case "OPTIONS":
+                sendOptions(exchange, COLLECTION_ALLOW);
+                break;
+            default:
+                sendEmpty(exchange, 405, HTML_TYPE);
+        }
+    }
+
+    private void instance(HttpExchange exchange, String method, ReferenceStore.Collection collection,
+                          String id, byte[] body, boolean xml) throws IOException {
+        ReferenceStore.Instance instance = collection.get(parseId(id));
+        switch (method) {
+            case "GET":
+            case "HEAD":
+                if (instance == null) {
+                    throw new ReferenceStore.Failure(404, "Could not find an instance with " + collection.name + "/" + id);
+                }
+                send(exchange, 200, renderList(collection, List.of(instance), xml), xml);
+                break;
+            case "POST":
+            case "PUT":
+                if (instance == null) {
+                    throw new ReferenceStore.Failure(404,
+                            "No such " + collection.singular + " entity instance with GUID or ID " + id + " found");
+                }
+                Map<String, String> fields = parseBody(exchange, body);
+                if (method.equals("POST")) {
+                    store.amend(collection, instance, fields);
+                } else {
+                    store.replace(collection, instance, fields);
+                }
+                send(exchange, 200, render(collection, instance, xml), xml);
+                break;
+            case "DELETE":
+                if (!store.delete(collection, parseId(id))) {
+                    throw new ReferenceStore.Failure(404, "Could not find any instances with " + collection.name + "/" + id);
+                }
+                sendEmpty(exchange, 200, xml ? XML_TYPE : JSON_TYPE);
+                break;
+            case "OPTIONS":
+                sendOptions(exchange, INSTANCE_ALLOW);
+                break;
+            default:
+                sendEmpty(exchange, 405, HTML_TYPE);
+        }
+    }
+
+    private void relationship(HttpExchange exchange, String method, ReferenceStore.Relationship relationship,
+                              String id, byte[] body, boolean xml) throws IOException {
+        ReferenceStore.Instance parent = relationship.from.get(parseId(id));
+        switch (method) {
+            case "GET":
+            case "HEAD":
+                // The jar answers an empty list, not a 404, when the parent does not exist
+                List<ReferenceStore.Instance> related =
+                        parent == null ? List.of() : store.related(relationship, parent);
+                send(exchange, 200, renderList(relationship.to, related, xml), xml);
+                break;
+            case "POST":
+                if (parent == null) {
+                    throw new ReferenceStore.Failure(404, "Could not find parent thing for relationship "
+                            + relationship.from.name + "/" + id + "/" + relationship.name);
+                }
+                Map<String, String> fields = parseBody(exchange, body);
+                String targetId = fields.get("id");
+                if (targetId == null) {
+                    ReferenceStore.Instance created = store.create(relationship.to, fields);
+                    store.link(relationship, parent, created);
+                    sendCreated(exchange, relationship.to, created, xml);
+                    return;
+                }
+                ReferenceStore.Instance target = relationship.to.get(parseId(targetId));
+                if (target == null) {
+                    throw new ReferenceStore.Failure(404, "Could not find thing matching value for id");
+                }
+                store.link(relationship, parent, target);
+                sendEmpty(exchange, 201, xml ? XML_TYPE : JSON_TYPE);
+                break;
+            case "OPTIONS":
+                sendOptions(exchange, COLLECTION_ALLOW);
+                break;
+            default:
+                sendEmpty(exchange, 405, HTML_TYPE);
+        }
+    }
+
+    private void link(HttpExchange exchange, String method, ReferenceStore.Relationship relationship,
+                      String id, String targetId, boolean xml) throws IOException {
+        switch (method) {
+            case "DELETE":
+                ReferenceStore.Instance parent = relationship.from.get(parseId(id));
+                if (parent == null || !store.unlink(relationship, parent, parseId(targetId))) {
+                    throw new ReferenceStore.Failure(404, "Could not find any instances with "
+                            + relationship.from.name + "/" + id + "/" + relationship.name + "/" + targetId);
+                }
+                sendEmpty(exchange, 200, xml ? XML_TYPE : JSON_TYPE);
+                break;
+            case "OPTIONS":
+                sendOptions(exchange, LINK_ALLOW);
+                break;
+            default:
+                sendEmpty(exchange, 405, HTML_TYPE);
+        }
+    }
+
+    /* Request parsing */
+
+    private static String[] segments(String path) {
+        String trimmed = path.startsWith("/") ? path.substring(1) : path;
+        if (trimmed.endsWith("/")) {
+            trimmed = trimmed.substring(0, trimmed.length() - 1);
+        }
+        return trimmed.isEmpty() ? new String[0] : trimmed.split("/");
+    }
+
+    private static int parseId(String id) {
+        try {
+            return Integer.parseInt(id);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private static boolean prefersXml(String accept) {
+        if (accept == null) {
+            return false;
+        }
+        int xml = accept.indexOf("xml");
+        int json = accept.indexOf("json");
+        return xml >= 0 && (json < 0 || xml < json);
+    }
+
+    /** The top-level fields of a JSON object or XML element body, values as the jar stores them. */
+    private static Map<String, String> parseBody(HttpExchange exchange, byte[] body) {
+        Map<String, String> fields = new LinkedHashMap<>();
+        if (body.length == 0) {
+            return fields;
+        }
+        String contentType = exchange.getRequestHeaders().getFirst("Content-Type");
+        try {
+            if (contentType != null && contentType.contains("xml")) {
+                Element root = XML.get().parse(new ByteArrayInputStream(body)).getDocumentElement();
+                for (Node child = root.getFirstChild(); child != null; child = child.getNextSibling()) {
+                    if (child.getNodeType() == Node.ELEMENT_NODE) {
+                        fields.put(child.getNodeName(), child.getTextContent());
+                    }
+                }
+                return fields;
+            }
+            JsonNode root = MAPPER.readTree(body);
+            if (root == null || !root.isObject()) {
+                throw new ReferenceStore.Failure(400, "Expected a JSON object");
+            }
+            for (Iterator<Map.Entry<String, JsonNode>> it = root.fields(); it.hasNext(); ) {
+                Map.Entry<String, JsonNode> field = it.next();
+                JsonNode value = field.getValue();
+                if (!value.isNull()) {
+                    // The jar stores every value as a string, numbers as doubles
+                    fields.put(field.getKey(), value.isNumber() ? String.valueOf(value.asDouble())
+                            : value.isValueNode() ? value.asText() : value.toString());
+                }
+            }
+            return fields;
+        } catch (ReferenceStore.Failure failure) {
+            throw failure;
+        } catch (Exception e) {
+            throw new ReferenceStore.Failure(400, e.getClass().getName() + ": " + e.getMessage());
+        }
+    }
+
+    private static List<ReferenceStore.Instance> filter(ReferenceStore.Collection collection,
+                                                        List<ReferenceStore.Instance> instances, String query) {
+        if (query == null || query.isEmpty()) {
+            return instances;
+        }
+        List<Integer> indexes = new ArrayList<>();
+        List<String> expected = new ArrayList<>();
+        for (String pair : query.split("&")) {
+            int eq = pair.indexOf('=');
+            String name = URLDecoder.decode(eq < 0 ? pair : pair.substring(0, eq), StandardCharsets.UTF_8);
+            String value = eq < 0 ? "" : URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8);
+            // -1 stands for the id; unknown parameters are ignored, as the jar does
+            int index = name.equals("id") ? -1 : collection.fieldIndex(name);
+            if (index >= 0 || name.equals("id")) {
+                indexes.add(index);
+                expected.add(value);
+            }
+        }
+        List<ReferenceStore.Instance> matching = new ArrayList<>();
+        for (ReferenceStore.Instance instance : instances) {
+            String[] values = instance.values;
+            boolean matches = true;
+            for (int i = 0; i < expected.size() && matches; i++) {
+                int index = indexes.get(i);
+                matches = (index < 0 ? String.valueOf(instance.id) : values[index]).equals(expected.get(i));
+            }
+            if (matches) {
+                matching.add(instance);
+            }
+        }
+        return matching;
+    }
+
+    /* Rendering */
+
+    private static byte[] renderList(ReferenceStore.Collection collection, List<ReferenceStore.Instance> instances,
+                                     boolean xml) {
+        StringBuilder out = new StringBuilder(64 + instances.size() * 128);
+        if (xml) {
+            out.append('<').append(collection.name).append('>');
+            for (ReferenceStore.Instance instance : instances) {
+                appendXml(out, collection, instance);
+            }
+            out.append("</").append(collection.name).append('>');
+        } else {
+            out.append("{\"").append(collection.name).append("\":[");
+            for (int i = 0; i < instances.size(); i++) {
+                if (i > 0) {
+                    out.append(',');
+                }
+                appendJson(out, collection, instances.get(i));
+            }
+            out.append("]}");
+        }
+        return out.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static byte[] render(ReferenceStore.Collection collection, ReferenceStore.Instance instance, boolean xml) {
+        StringBuilder out = new StringBuilder(128);
+        if (xml) {
+            appendXml(out, collection, instance);
+        } else {
+            appendJson(out, collection, instance);
+        }
+        return out.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static void appendJson(StringBuilder out, ReferenceStore.Collection collection,
+                                   ReferenceStore.Instance instance) {
+        String[] values = instance.values;
+        out.append("{\"id\":\"").append(instance.id).append('"');
+        for (int i = 0; i < values.length; i++) {
+            out.append(",\"").append(collection.fields[i]).append("\":\"");
+            escapeJson(out, values[i]);
+            out.append('"');
+        }
+        for (ReferenceStore.Relationship relationship : collection.relationships) {
+            int[] ids = instance.links(relationship);
+            if (ids.length == 0) {
+                continue;
+            }
+            out.append(",\"").append(relationship.name).append("\":[");
+            for (int i = 0; i < ids.length; i++) {
+                out.append(i == 0 ? "{\"id\":\"" : ",{\"id\":\"").append(ids[i]).append("\"}");
+            }
+            out.append(']');
+        }
+        out.append('}');
+    }
+
+    private static void appendXml(StringBuilder out, ReferenceStore.Collection collection,
+                                  ReferenceStore.Instance instance) {
+        String[] values = instance.values;
+        out.append('<').append(collection.singular).append("><id>").append(instance.id).append("</id>");
+        for (int i = 0; i < values.length; i++) {
+            String field = collection.fields[i];
+            if (values[i].isEmpty()) {
+                out.append('<').append(field).append("/>");
+            } else {
+                out.append('<').append(field).append('>');
+                escapeXml(out, values[i]);
+                out.append("</").append(field).append('>');
+            }
+        }
+        for (ReferenceStore.Relationship relationship : collection.relationships) {
+            for (int id : instance.links(relationship)) {
+                out.append('<').append(relationship.name).append("><id>").append(id).append("</id></")
+                        .append(relationship.name).append('>');
+            }
+        }
+        out.append("</").append(collection.singular).append('>');
+    }
+
+    private static void escapeJson(StringBuilder out, String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"': out.append("\\\""); break;
+                case '\\': out.append("\\\\"); break;
+                case '\n': out.append("\\n"); break;
+                case '\r': out.append("\\r"); break;
+                case '\t': out.append("\\t"); break;
+                default:
+                    if (c < 0x20) {
+                        out.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        out.append(c);
+                    }
+            }
+        }
+    }
+
+    private static void escapeXml(StringBuilder out, String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '<': out.append("&lt;"); break;
+                case '>': out.append("&gt;"); break;
+                case '&': out.append("&amp;"); break;
+                default: out.append(c);
+            }
+        }
+    }
+
+    /* Responses */
+
+    private static void sendCreated(HttpExchange exchange, ReferenceStore.Collection collection,
+                                    ReferenceStore.Instance created, boolean xml) throws IOException {
+        exchange.getResponseHeaders().set("Location", collection.name + "/" + created.id);
+        send(exchange, 201, render(collection, created, xml), xml);
+    }
+
+    private static void sendError(HttpExchange exchange, int status, String message, boolean xml) throws IOException {
+        StringBuilder out = new StringBuilder(64 + message.length());
+        if (xml) {
+            out.append("<errorMessages><errorMessage>");
+            escapeXml(out, message);
+            out.append("</errorMessage></errorMessages>");
+        } else {
+            out.append("{\"errorMessages\":[\"");
+            escapeJson(out, message);
+            out.append("\"]}");
+        }
+        send(exchange, status, out.toString().getBytes(StandardCharsets.UTF_8), xml);
+    }
+
+    private static void sendOptions(HttpExchange exchange, String allow) throws IOException {
+        exchange.getResponseHeaders().set("Allow", allow);
+        sendEmpty(exchange, 200, HTML_TYPE);
+    }
+
+    private static void send(HttpExchange exchange, int status, byte[] body, boolean xml) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", xml ? XML_TYPE : JSON_TYPE);
+        if ("HEAD".equals(exchange.getRequestMethod())) {
+            exchange.sendResponseHeaders(status, -1);
+            exchange.close();
+            return;
+        }
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private static void sendEmpty(HttpExchange exchange, int status, String contentType) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", contentType);
+        exchange.sendResponseHeaders(status, -1);
+        exchange.close();
+    }
+}
@@ -0,0 +1,190 @@
+import io.restassured.RestAssured;
+import io.restassured.config.HttpClientConfig;
+import io.restassured.filter.Filter;
+import io.restassured.filter.FilterContext;
+import io.restassured.response.Response;
+import io.restassured.specification.FilterableRequestSpecification;
+import io.restassured.specification.FilterableResponseSpecification;
+
+import java.io.InterruptedIOException;
+import java.net.URI;
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.extension.AfterEachCallback;
+import org.junit.jupiter.api.extension.BeforeEachCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+
+/**
+ * Suite-wide deadlines, so a stalled server fails the run quickly instead of hanging it.
+ *
+ * Every REST-Assured request gets a connect timeout (-Ddeadline.connectMs, default
+ * 2000) and a response budget: -Ddeadline.requestMs (default 10000), or a per-route
+ * budget from -Ddeadline.routes="GET /todos/:id=2000,POST /todos/:id/categories=3000".
+ * Every test method is also a scenario with an overall budget (-Ddeadline.scenarioMs,
+ * default 60000, 0 for none), and no request may wait longer than what is left of it.
+ *
+ * A request that runs out of budget fails at once with an AssertionError that says
+ * which budget it hit and how the scenario's time was spent up to that point.
+ * {@link Scenario} is registered for every test class through extension autodetection
+ * (see junit-platform.properties).
+ */
+public final class RequestDeadlines implements Filter {
+    static final long CONNECT_MS = Long.getLong("deadline.connectMs", 2_000);
+    static final long REQUEST_MS = Long.getLong("deadline.requestMs", 10_000);
+    static final long SCENARIO_MS = Long.getLong("deadline.scenarioMs", 60_000);
+    private static final Map<String, Long> ROUTE_BUDGETS = parseRoutes(System.getProperty("deadline.routes", ""));
+    private static final ThreadLocal<ScenarioClock> SCENARIO = new ThreadLocal<>();
+    private static boolean installed;
+
+    /** Time spent by one test method so far. */
+    static final class ScenarioClock {
+        final String name;
+        final long startNanos;
+        final long deadlineNanos;
+        int requests;
+        long requestNanos;
+        long slowestNanos;
+        String slowest;
+
+        ScenarioClock(String name, long budgetMillis) {
+            this.name = name;
+            this.startNanos = System.nanoTime();
+            this.deadlineNanos = budgetMillis > 0 ? startNanos + budgetMillis * 1_000_000L : Long.MAX_VALUE;
+        }
+
+        long remainingMillis() {
+            return deadlineNanos == Long.MAX_VALUE ? Long.MAX_VALUE : (deadlineNanos - System.nanoTime()) / 1_000_000L;
+        }
+
+        void record(String request, long nanos) {
+            requests++;
+            requestNanos += nanos;
+            if (nanos > slowestNanos) {
+                slowestNanos = nanos;
+                slowest = request;
+            }
+        }
+
+        String breakdown() {
+            long elapsed = System.nanoTime() - startNanos;
+            return String.format("scenario %s: %.0f ms used%s, %d earlier requests took %.0f ms%s",
+                    name, elapsed / 1e6,
+                    deadlineNanos == Long.MAX_VALUE ? "" : " of " + (deadlineNanos - startNanos) / 1_000_000L + " ms",
+                    requests, requestNanos / 1e6,
+                    slowest == null ? "" : String.format(" (slowest %s %.0f ms)", slowest, slowestNanos / 1e6));
+        }
+    }
+
+    /** Starts a scenario clock for each test method; registered by autodetection. */
+    public static final class Scenario implements BeforeEachCallback, AfterEachCallback {
+        @Override
+        public void beforeEach(ExtensionContext context) {
+            startScenario(context.getRequiredTestClass().getSimpleName() + "."
+                    + context.getRequiredTestMethod().getName(), SCENARIO_MS);
+        }
+
+        @Override
+        public void afterEach(ExtensionContext context) {
+            SCENARIO.remove();
+        }
+    }
+
+    private RequestDeadlines() {
+    }
+
+    /** Sets the default timeouts and installs the budget filter. Safe to call repeatedly. */
+    static synchronized void install() {
+        if (installed) {
+            return;
+        }
+        installed = true;
+        HttpClientConfig defaults = RestAssured.config().getHttpClientConfig();
+        RestAssured.config = RestAssured.config().httpClient(timeouts(defaults, REQUEST_MS));
+        RestAssured.filters(new RequestDeadlines());
+    }
+
+    /** Restarts the current thread's scenario clock with the given budget; 0 for none. */
+    static void startScenario(String name, long budgetMillis) {
+        SCENARIO.set(new ScenarioClock(name, budgetMillis));
+    }
+
+    /** The response budget for a route such as "GET /todos/:id", or fallback if it has none. */
+    static Duration budget(String method, String route, Duration fallback) {
+        Long millis = ROUTE_BUDGETS.get(method + " " + route);
+        return millis == null ? fallback : Duration.ofMillis(millis);
+    }
+
+    /** Whether a failure was a connect or read timeout somewhere in its cause chain. */
+    static boolean isTimeout(Throwable failure) {
+        for (Throwable cause = failure; cause != null; cause = cause.getCause()) {
+            if (cause instanceof InterruptedIOException || cause instanceof HttpTimeoutException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public Response filter(FilterableRequestSpecification requestSpec,
+                           FilterableResponseSpecification responseSpec, FilterContext ctx) {
+        String request = requestSpec.getMethod() + " " + URI.create(requestSpec.getURI()).getPath();
+        String route = TrafficLog.route(URI.create(requestSpec.getURI()).getPath());
+        long budget = budget(requestSpec.getMethod(), route, Duration.ofMillis(REQUEST_MS)).toMillis();
+        String limitedBy = "request budget";
+        ScenarioClock scenario = SCENARIO.get();
+        if (scenario != null && scenario.remainingMillis() < budget) {
+            budget = scenario.remainingMillis();
+            limitedBy = "rest of the scenario budget";
+            if (budget <= 0) {
+                throw new AssertionError(request + " not sent, scenario budget exhausted; " + scenario.breakdown());
+            }
+        }
+        HttpClientConfig current = requestSpec.getConfig().getHttpClientConfig();
+        requestSpec.config(requestSpec.getConfig().httpClient(timeouts(current, budget)));
+
+        long start = System.nanoTime();
+        Response response;
+        try {
+            response = ctx.next(requestSpec, responseSpec);
+        } catch (Exception e) {
+            if (!isTimeout(e)) {
+                throw e;
+            }
+            long elapsed = System.nanoTime() - start;
+            throw new AssertionError(String.format("%s timed out after %.0f ms against a %d ms %s (connect %d ms)%s",
+                    request, elapsed / 1e6, budget, limitedBy, CONNECT_MS,
+                    scenario == null ? "" : "; " + scenario.breakdown()), e);
+        }
+        long elapsed = System.nanoTime() - start;
+        if (scenario != null) {
+            scenario.record(request, elapsed);
+        }
+        // The read timeout bounds each wait for bytes, so a slow trickle can still overrun the budget
+        if (elapsed > budget * 1_000_000L) {
+            throw new AssertionError(String.format("%s took %.0f ms against a %d ms %s%s",
+                    request, elapsed / 1e6, budget, limitedBy, scenario == null ? "" : "; " + scenario.breakdown()));
+        }
+        return response;
+    }
+
+    private static HttpClientConfig timeouts(HttpClientConfig base, long responseMillis) {
+        int response = (int) Math.min(Integer.MAX_VALUE, Math.max(1, responseMillis));
+        return base.setParam("http.connection.timeout", (int) CONNECT_MS)
+                .setParam("http.socket.timeout", response)
+                .setParam("http.connection-manager.timeout", (long) response);
+    }
+
+    private static Map<String, Long> parseRoutes(String spec) {
+        Map<String, Long> budgets = new HashMap<>();
+        for (String entry : spec.split(",")) {
+            int equals = entry.lastIndexOf('=');
+            if (equals > 0) {
+                budgets.put(entry.substring(0, equals).trim(), Long.parseLong(entry.substring(equals + 1).trim()));
+            }
+        }
+        return budgets;
+    }
+}
@@ -0,0 +1,193 @@
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Append-only store of every latency sample of a long run, kept off the heap in
+ * memory-mapped files so a multi-hour run costs neither client heap nor CSV-sized disk.
+ *
+ * Each sample is one fixed-width little-endian record of {@link #RECORD_BYTES} bytes:
+ * <pre>
+ *   long  start    nanos from the store's origin to when the request was due
+ *   long  latency  nanos from then to the response (or failure)
+ *   int   endpoint id, see endpoints in store.properties
+ *   short status   HTTP status, {@link #FAILED} or {@link #TIMED_OUT}; 0 marks an unwritten slot
+ *   short reserved
+ * </pre>
+ * Records go into segment files of -Dsamples.segmentBytes (default 64 MB), in
+ * completion order rather than start order. Each segment is mapped when the first
+ * record reaches it and stays mapped until close, since a slow writer may still be
+ * filling an older one. Appends are lock-free and safe from any thread.
+ *
+ * {@link #close()} waits for appends already under way, then drops any that arrive
+ * later (a request that outlived the driver's drain), so nothing writes into a segment
+ * after it has been trimmed. It writes store.properties with the origin, the record
+ * and dropped counts and the endpoint names; a store that was never closed can still
+ * be read up to its first unwritten slot. {@link SampleStoreReader} reads it.
+ */
+public final class SampleStore implements AutoCloseable {
+    static final int RECORD_BYTES = 24;
+    static final short FAILED = -1;
+    static final short TIMED_OUT = -2;
+    static final String PROPERTIES = "store.properties";
+    static final long SEGMENT_BYTES = Long.getLong("samples.segmentBytes", 64L * 1024 * 1024);
+
+    private final Path directory;
+    private final long recordsPerSegment;
+    private final long originNanos = System.nanoTime();
+    private final Instant origin = Instant.now();
+    private final AtomicLong next = new AtomicLong();
+    private final Map<String, Integer> endpointIds = new ConcurrentHashMap<>();
+    private final List<String> endpointNames = new ArrayList<>();
+    private volatile MappedByteBuffer[] segments = new MappedByteBuffer[0];
+    private final AtomicInteger appending = new AtomicInteger();
+    private final AtomicLong dropped = new AtomicLong();
+    private volatile boolean closed;
+
+    private SampleStore(Path directory, long segmentBytes) {
+        this.directory = directory;
+        this.recordsPerSegment = Math.max(1, segmentBytes / RECORD_BYTES);
+    }
+
+    /** A new, empty store in directory; segments left over from an earlier store there are removed. */
+    static SampleStore create(Path directory, long segmentBytes) throws IOException {
+        Files.createDirectories(directory);
+        for (Path stale : SampleStoreReader.segmentFiles(directory)) {
+            Files.delete(stale);
+        }
+        Files.deleteIfExists(directory.resolve(PROPERTIES));
+        return new SampleStore(directory, segmentBytes);
+    }
+
+    /** The System.nanoTime() that stored start offsets are measured from. */
+    long originNanos() {
+        return originNanos;
+    }
+
+    /** The id to append samples of the named endpoint under, assigned on first use. */
+    int endpointId(String name) {
+        Integer id = endpointIds.get(name);
+        return id != null ? id : register(name);
+    }
+
+    private synchronized int register(String name) {
+        return endpointIds.computeIfAbsent(name, key -> {
+            endpointNames.add(key);
+            return endpointNames.size() - 1;
+        });
+    }
+
+    /** Appends one sample; startNanos is a System.nanoTime() reading. Dropped once the store is closed. */
+    void append(long startNanos, int endpointId, short status, long latencyNanos) {
+        // Announce the append before checking closed, so close() either waits for it or it sees closed
+        appending.incrementAndGet();
+        try {
+            if (closed) {
+                dropped.incrementAndGet();
+                return;
+            }
+            long index = next.getAndIncrement();
+            MappedByteBuffer segment = segment((int) (index / recordsPerSegment));
+            int offset = (int) (index % recordsPerSegment) * RECORD_BYTES;
+            segment.putLong(offset, startNanos - originNanos);
+            segment.putLong(offset + 8, latencyNanos);
+            segment.putInt(offset + 16, endpointId);
+            // Status last: a slot with status 0 is one that was never (fully) written
+            segment.putShort(offset + 20, status);
+        } finally {
+            appending.decrementAndGet();
+        }
+    }
+
+    long count() {
+        return next.get();
+    }
+
+    /** Samples that arrived after close and were not stored. */
+    long dropped() {
+        return dropped.get();
+    }
+
+    private MappedByteBuffer segment(int number) {
+        MappedByteBuffer[] current = segments;
+        if (number < current.length && current[number] != null) {
+            return current[number];
+        }
+        return map(number);
+    }
+
+    private synchronized MappedByteBuffer map(int number) {
+        MappedByteBuffer[] current = segments;
+        if (number < current.length && current[number] != null) {
+            return current[number];
+        }
+        MappedByteBuffer[] grown = Arrays.copyOf(current,
+                number < current.length ? current.length : Math.max(current.length * 2, number + 1));
+        try (FileChannel channel = FileChannel.open(SampleStoreReader.segmentFile(directory, number),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            grown[number] = channel.map(FileChannel.MapMode.READ_WRITE, 0, recordsPerSegment * RECORD_BYTES);
+            grown[number].order(ByteOrder.LITTLE_ENDIAN);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot map sample segment " + number + " in " + directory, e);
+        }
+        segments = grown;
+        return grown[number];
+    }
+
+    /**
+     * Stops taking samples, waits for appends in progress, then flushes the segments,
+     * trims the last one to the records it holds and writes store.properties.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        while (appending.get() > 0) {
+            Thread.onSpinWait();
+        }
+        for (MappedByteBuffer segment : segments) {
+            if (segment != null) {
+                segment.force();
+            }
+        }
+        long records = next.get();
+        if (records > 0) {
+            long lastSegmentBytes = (records - (records - 1) / recordsPerSegment * recordsPerSegment) * RECORD_BYTES;
+            try (FileChannel channel = FileChannel.open(
+                    SampleStoreReader.segmentFile(directory, (int) ((records - 1) / recordsPerSegment)),
+                    StandardOpenOption.WRITE)) {
+                channel.truncate(lastSegmentBytes);
+            } catch (IOException e) {
+                // Some platforms refuse to shrink a mapped file; readers stop at the record count anyway
+            }
+        }
+        Properties properties = new Properties();
+        properties.setProperty("origin", origin.toString());
+        properties.setProperty("records", Long.toString(records));
+        properties.setProperty("dropped", Long.toString(dropped.get()));
+        properties.setProperty("recordsPerSegment", Long.toString(recordsPerSegment));
+        for (int id = 0; id < endpointNames.size(); id++) {
+            properties.setProperty("endpoint." + id, endpointNames.get(id));
+        }
+        try (OutputStream out = Files.newOutputStream(directory.resolve(PROPERTIES))) {
+            properties.store(out, "Latency samples, " + RECORD_BYTES + "-byte records");
+        }
+    }
+}
@@ -0,0 +1,165 @@
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+/**
+ * Streams the records of a {@link SampleStore} after a run, one mapped segment at a
+ * time, so a store far larger than the heap can be summarised: per-endpoint latency
+ * histograms and status counts, and a time series of throughput, errors and latency
+ * per interval of request start time.
+ */
+public final class SampleStoreReader {
+    private static final String SEGMENT_PREFIX = "samples-";
+    private static final String SEGMENT_SUFFIX = ".bin";
+
+    /** Receives each record's fields as primitives, so nothing is allocated per sample. */
+    interface Visitor {
+        void sample(long startNanos, int endpointId, short status, long latencyNanos);
+    }
+
+    /** Requests started within one interval of the run. */
+    static final class Interval {
+        long count;
+        long errors;
+        long latencySumNanos;
+        long maxLatencyNanos;
+
+        double meanMillis() {
+            return count == 0 ? 0 : latencySumNanos / 1e6 / count;
+        }
+    }
+
+    /** Everything {@link #summarise} aggregates from one store. */
+    static final class Summary {
+        final String origin;
+        final long intervalNanos;
+        final Map<String, LatencyHistogram> latency = new TreeMap<>();
+        final Map<String, Map<Short, Long>> statuses = new TreeMap<>();
+        final TreeMap<Long, Interval> intervals = new TreeMap<>();
+        long records;
+
+        Summary(String origin, long intervalNanos) {
+            this.origin = origin;
+            this.intervalNanos = intervalNanos;
+        }
+
+        void print(String tag) {
+            System.out.printf("[%s] %d samples from a run started %s%n", tag, records, origin);
+            latency.forEach((name, histogram) -> System.out.printf("[%s] %-44s %s  statuses %s%n",
+                    tag, name, histogram.summary(), statuses.get(name)));
+            System.out.printf("[%s] %8s %10s %8s %10s %10s%n", tag, "second", "req/s", "errors", "mean ms", "max ms");
+            double seconds = intervalNanos / 1e9;
+            intervals.forEach((index, interval) -> System.out.printf("[%s] %8.0f %10.1f %8d %10.2f %10.2f%n",
+                    tag, index * seconds, interval.count / seconds, interval.errors,
+                    interval.meanMillis(), interval.maxLatencyNanos / 1e6));
+        }
+    }
+
+    private SampleStoreReader() {
+    }
+
+    /** Aggregates the store in directory into intervals of intervalNanos by request start. */
+    static Summary summarise(Path directory, long intervalNanos) throws IOException {
+        Properties properties = properties(directory);
+        List<String> names = new ArrayList<>();
+        Summary summary = new Summary(properties.getProperty("origin", "at an unknown time (store not closed)"),
+                intervalNanos);
+        Map<Integer, LatencyHistogram> byId = new TreeMap<>();
+        // Counts indexed by status + 2, so FAILED and TIMED_OUT fit below the HTTP statuses
+        Map<Integer, long[]> statusesById = new TreeMap<>();
+        summary.records = scan(directory, (start, endpoint, status, latency) -> {
+            if (status > 0) {
+                byId.computeIfAbsent(endpoint, id -> new LatencyHistogram()).record(latency);
+            }
+            statusesById.computeIfAbsent(endpoint, id -> new long[602])[Math.min(status + 2, 601)]++;
+            Interval interval = summary.intervals.computeIfAbsent(start / intervalNanos, index -> new Interval());
+            interval.count++;
+            if (status < 200 || status >= 400) {
+                interval.errors++;
+            }
+            interval.latencySumNanos += latency;
+            interval.maxLatencyNanos = Math.max(interval.maxLatencyNanos, latency);
+        });
+        for (int id = 0; properties.containsKey("endpoint." + id); id++) {
+            names.add(properties.getProperty("endpoint." + id));
+        }
+        statusesById.forEach((id, counts) -> {
+            String name = id < names.size() ? names.get(id) : "endpoint " + id;
+            Map<Short, Long> statuses = new TreeMap<>();
+            for (int index = 0; index < counts.length; index++) {
+                if (counts[index] > 0) {
+                    statuses.put((short) (index - 2), counts[index]);
+                }
+            }
+            summary.statuses.put(name, statuses);
+            summary.latency.put(name, byId.getOrDefault(id, new LatencyHistogram()));
+        });
+        return summary;
+    }
+
+    /**
+     * Visits every record in append order and returns how many there were: the count in
+     * store.properties, or up to the first unwritten slot if the store was never closed.
+     */
+    static long scan(Path directory, Visitor visitor) throws IOException {
+        String recorded = properties(directory).getProperty("records");
+        long remaining = recorded == null ? Long.MAX_VALUE : Long.parseLong(recorded);
+        long visited = 0;
+        for (Path file : segmentFiles(directory)) {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                MappedByteBuffer segment = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                segment.order(ByteOrder.LITTLE_ENDIAN);
+                for (int offset = 0; offset + SampleStore.RECORD_BYTES <= segment.capacity() && visited < remaining;
+                     offset += SampleStore.RECORD_BYTES) {
+                    short status = segment.getShort(offset + 20);
+                    if (status == 0) {
+                        return visited;
+                    }
+                    visitor.sample(segment.getLong(offset), segment.getInt(offset + 16), status,
+                            segment.getLong(offset + 8));
+                    visited++;
+                }
+            }
+        }
+        return visited;
+    }
+
+    static Path segmentFile(Path directory, int number) {
+        return directory.resolve(String.format("%s%05d%s", SEGMENT_PREFIX, number, SEGMENT_SUFFIX));
+    }
+
+    /** The store's segment files in order; none if the directory does not exist. */
+    static List<Path> segmentFiles(Path directory) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> {
+                String name = file.getFileName().toString();
+                return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX);
+            }).sorted().toList();
+        }
+    }
+
+    private static Properties properties(Path directory) throws IOException {
+        Properties properties = new Properties();
+        Path file = directory.resolve(SampleStore.PROPERTIES);
+        if (Files.exists(file)) {
+            try (InputStream in = Files.newInputStream(file)) {
+                properties.load(in);
+            }
+        }
+        return properties;
+    }
+}
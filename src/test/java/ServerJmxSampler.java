@@ -0,0 +1,127 @@
+import java.io.IOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.management.MBeanServerConnection;
+import javax.management.MalformedObjectNameException;
+import javax.management.ObjectName;
+import javax.management.remote.JMXConnector;
+import javax.management.remote.JMXConnectorFactory;
+import javax.management.remote.JMXServiceURL;
+
+/**
+ * Reads heap, GC and thread figures from the server JVM over remote JMX.
+ *
+ * The server must be started with remote JMX enabled, see {@link #jvmArgs(int)}.
+ */
+public final class ServerJmxSampler implements AutoCloseable {
+
+    /** One reading of the server JVM. GC figures are cumulative since server start. */
+    static final class Sample {
+        final long timestampMillis;
+        final long heapUsedBytes;
+        final long heapCommittedBytes;
+        final long gcCount;
+        final long gcTimeMillis;
+        final int threadCount;
+
+        Sample(long timestampMillis, long heapUsedBytes, long heapCommittedBytes,
+               long gcCount, long gcTimeMillis, int threadCount) {
+            this.timestampMillis = timestampMillis;
+            this.heapUsedBytes = heapUsedBytes;
+            this.heapCommittedBytes = heapCommittedBytes;
+            this.gcCount = gcCount;
+            this.gcTimeMillis = gcTimeMillis;
+            this.threadCount = threadCount;
+        }
+    }
+
+    private final JMXConnector connector;
+    private final MemoryMXBean memory;
+    private final com.sun.management.ThreadMXBean threads;
+    private final com.sun.management.OperatingSystemMXBean os;
+    private final List<GarbageCollectorMXBean> collectors;
+
+    private ServerJmxSampler(JMXConnector connector) throws IOException {
+        this.connector = connector;
+        MBeanServerConnection connection = connector.getMBeanServerConnection();
+        this.memory = ManagementFactory.newPlatformMXBeanProxy(
+                connection, ManagementFactory.MEMORY_MXBEAN_NAME, MemoryMXBean.class);
+        this.threads = ManagementFactory.newPlatformMXBeanProxy(
+                connection, ManagementFactory.THREAD_MXBEAN_NAME, com.sun.management.ThreadMXBean.class);
+        this.os = ManagementFactory.newPlatformMXBeanProxy(
+                connection, ManagementFactory.OPERATING_SYSTEM_MXBEAN_NAME, com.sun.management.OperatingSystemMXBean.class);
+        this.collectors = new ArrayList<>();
+        ObjectName collectorPattern;
+        try {
+            collectorPattern = new ObjectName(ManagementFactory.GARBAGE_COLLECTOR_MXBEAN_DOMAIN_TYPE + ",*");
+        } catch (MalformedObjectNameException e) {
+            throw new IllegalStateException(e);
+        }
+        for (ObjectName name : connection.queryNames(collectorPattern, null)) {
+            collectors.add(ManagementFactory.newPlatformMXBeanProxy(
+                    connection, name.getCanonicalName(), GarbageCollectorMXBean.class));
+        }
+    }
+
+    /** JVM flags that open an unauthenticated JMX port on localhost. */
+    static List<String> jvmArgs(int jmxPort) {
+        return List.of(
+                "-Dcom.sun.management.jmxremote.port=" + jmxPort,
+                "-Dcom.sun.management.jmxremote.rmi.port=" + jmxPort,
+                "-Dcom.sun.management.jmxremote.authenticate=false",
+                "-Dcom.sun.management.jmxremote.ssl=false",
+                "-Djava.rmi.server.hostname=localhost");
+    }
+
+    static ServerJmxSampler connect(int jmxPort) throws IOException {
+        return connect("service:jmx:rmi:///jndi/rmi://localhost:" + jmxPort + "/jmxrmi");
+    }
+
+    static ServerJmxSampler connect(String jmxUrl) throws IOException {
+        return new ServerJmxSampler(JMXConnectorFactory.connect(new JMXServiceURL(jmxUrl)));
+    }
+
+    Sample sample() {
+        long gcCount = 0;
+        long gcTime = 0;
+        for (GarbageCollectorMXBean collector : collectors) {
+            gcCount += Math.max(0, collector.getCollectionCount());
+            gcTime += Math.max(0, collector.getCollectionTime());
+        }
+        return new Sample(System.currentTimeMillis(),
+                memory.getHeapMemoryUsage().getUsed(),
+                memory.getHeapMemoryUsage().getCommitted(),
+                gcCount, gcTime, threads.getThreadCount());
+    }
+
+    /**
+     * Bytes allocated so far by the server's live threads. Threads that exit take their
+     * count with them, so compare readings taken while the same worker pool is running.
+     */
+    long allocatedBytes() {
+        long total = 0;
+        for (long allocated : threads.getThreadAllocatedBytes(threads.getAllThreadIds())) {
+            total += Math.max(0, allocated);
+        }
+        return total;
+    }
+
+    /** CPU time used by the whole server process so far, in nanoseconds. */
+    long processCpuNanos() {
+        return os.getProcessCpuTime();
+    }
+
+    /** Requests a full GC in the server so the next sample shows retained heap only. */
+    void fullGc() {
+        memory.gc();
+    }
+
+    @Override
+    public void close() throws IOException {
+        connector.close();
+    }
+}
@@ -0,0 +1,200 @@
+import static io.restassured.RestAssured.*;
+
+import io.restassured.RestAssured;
+import io.restassured.http.ContentType;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * Suite-level readiness gate for the Todo Manager API.
+ *
+ * The first test class to reach its @BeforeAll polls the server with exponential
+ * backoff until it answers, then primes it with read-only traffic so the server JIT
+ * has compiled the common request paths before any timing-sensitive test starts.
+ * The outcome is remembered for the rest of the JVM, so every other test class
+ * shares the same result instead of probing (or giving up) on its own.
+ *
+ * Tunable with -Dreadiness.timeoutMs, -Dreadiness.initialBackoffMs,
+ * -Dreadiness.maxBackoffMs and -Dreadiness.warmupRounds.
+ *
+ * With -Dstub.file=LOG the suite is pointed at a {@link StubServer} playing back a
+ * traffic log recorded with -Dcapture.file instead of the real server, and with
+ * -Dtodo.reference=true at an in-process {@link ReferenceTodoServer}.
+ *
+ * The first call also installs the suite's {@link RequestDeadlines}, so neither the
+ * probe nor any test can wait on a stalled server for longer than its budget.
+ * After warm-up it installs the optional {@link GraphCache} (-Dcache.enabled=true).
+ */
+public final class ServerReadiness {
+    private static final String HEALTH_PATH = "/todos";
+    private static final long TIMEOUT_MS = Long.getLong("readiness.timeoutMs", 15_000);
+    private static final long INITIAL_BACKOFF_MS = Long.getLong("readiness.initialBackoffMs", 50);
+    private static final long MAX_BACKOFF_MS = Long.getLong("readiness.maxBackoffMs", 2_000);
+    private static final int WARMUP_ROUNDS = Integer.getInteger("readiness.warmupRounds", 5);
+
+    // Read-only requests only, so warm-up never changes the data the tests rely on
+    private static final String[] WARMUP_PATHS = {
+            "/todos", "/todos/1", "/todos/1/categories", "/todos/1/tasksof",
+            "/projects", "/projects/1", "/projects/1/tasks", "/projects/1/categories",
+            "/categories", "/categories/1", "/categories/1/todos", "/categories/1/projects"
+    };
+
+    private static Boolean ready;
+    private static String target;
+    private static StubServer stub;
+    private static ReferenceTodoServer reference;
+    private static long timeToFirstHealthyMillis = -1;
+    private static int probeAttempts;
+    private static long warmupMillis = -1;
+
+    private ServerReadiness() {
+    }
+
+    /**
+     * Waits for the server at baseUrl to become healthy and warms it up, then points
+     * RestAssured at it (or at the stub or reference server when one is configured).
+     * Only the first call does any work; later calls return the remembered result.
+     */
+    static synchronized boolean awaitReady(String baseUrl) {
+        if (ready == null) {
+            RequestDeadlines.install();
+            target = baseUrl;
+            String stubFile = System.getProperty("stub.file");
+            if (stubFile != null) {
+                startStub(new File(stubFile));
+            } else if (Boolean.getBoolean("todo.reference")) {
+                startReference();
+            } else {
+                int[] probes = new int[1];
+                timeToFirstHealthyMillis = waitForHealthy(target, TIMEOUT_MS, probes);
+                probeAttempts = probes[0];
+                ready = timeToFirstHealthyMillis >= 0;
+                if (ready) {
+                    warmUp(target);
+                    // Outside the recorder, so a capture holds only what reached the server
+                    GraphCache.installIfConfigured();
+                    TrafficRecorder.installIfConfigured();
+                }
+            }
+            report(target);
+        }
+        if (ready) {
+            RestAssured.baseURI = target;
+        }
+        return ready;
+    }
+
+    /** The server the suite is talking to: the probed base URL, the stub or the reference server. */
+    static synchronized String targetUrl() {
+        return target;
+    }
+
+    /** Milliseconds from the first probe to the first healthy response, or -1 if never healthy. */
+    static long timeToFirstHealthyMillis() {
+        return timeToFirstHealthyMillis;
+    }
+
+    /** Milliseconds spent priming the server, or -1 if warm-up did not run. */
+    static long warmupMillis() {
+        return warmupMillis;
+    }
+
+    /**
+     * Polls baseUrl with exponential backoff, without touching the shared suite state.
+     * Returns milliseconds until the first healthy response, or -1 on timeout.
+     */
+    static long waitForHealthy(String baseUrl, long timeoutMs) {
+        return waitForHealthy(baseUrl, timeoutMs, new int[1]);
+    }
+
+    /** As {@link #waitForHealthy(String, long)}, counting the probes sent in probes[0]. */
+    private static long waitForHealthy(String baseUrl, long timeoutMs, int[] probes) {
+        long start = System.nanoTime();
+        long deadline = start + timeoutMs * 1_000_000L;
+        long backoff = INITIAL_BACKOFF_MS;
+
+        while (true) {
+            probes[0]++;
+            try {
+                int status = given().baseUri(baseUrl).get(HEALTH_PATH).statusCode();
+                if (status == 200) {
+                    return (System.nanoTime() - start) / 1_000_000L;
+                }
+            } catch (Exception e) {
+                // Connection refused while the jar is still starting, try again
+            }
+
+            long remaining = (deadline - System.nanoTime()) / 1_000_000L;
+            if (remaining <= 0) {
+                return -1;
+            }
+            sleep(Math.min(backoff, remaining));
+            backoff = Math.min(backoff * 2, MAX_BACKOFF_MS);
+        }
+    }
+
+    private static void startStub(File log) {
+        try {
+            stub = StubServer.start(log);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot play back " + log, e);
+        }
+        target = stub.baseUrl();
+        ready = true;
+        timeToFirstHealthyMillis = 0;
+        System.out.println("[readiness] playing back " + stub.recordedKeys() + " recorded requests from " + log);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            System.out.println("[readiness] stub served " + stub.hits() + " recorded responses, "
+                    + stub.misses() + " misses");
+            stub.stop();
+        }));
+    }
+
+    private static void startReference() {
+        long start = System.nanoTime();
+        try {
+            reference = ReferenceTodoServer.start(0);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot start the reference server", e);
+        }
+        target = reference.baseUrl();
+        ready = true;
+        timeToFirstHealthyMillis = (System.nanoTime() - start) / 1_000_000L;
+        System.out.println("[readiness] using the in-process reference server");
+        Runtime.getRuntime().addShutdownHook(new Thread(reference::stop));
+    }
+
+    private static void warmUp(String baseUrl) {
+        long start = System.nanoTime();
+        for (int round = 0; round < WARMUP_ROUNDS; round++) {
+            for (String path : WARMUP_PATHS) {
+                given().baseUri(baseUrl).accept(ContentType.JSON).get(path);
+                given().baseUri(baseUrl).accept(ContentType.XML).get(path);
+                given().baseUri(baseUrl).head(path);
+            }
+            given().baseUri(baseUrl).options("/todos");
+        }
+        warmupMillis = (System.nanoTime() - start) / 1_000_000L;
+    }
+
+    private static void report(String baseUrl) {
+        if (ready) {
+            System.out.println("[readiness] " + baseUrl + " healthy after " + timeToFirstHealthyMillis
+                    + " ms (" + probeAttempts + " probes)"
+                    + (warmupMillis >= 0 ? ", warm-up " + WARMUP_ROUNDS + " rounds in " + warmupMillis + " ms" : ""));
+        } else {
+            System.out.println("[readiness] " + baseUrl + " not healthy after " + TIMEOUT_MS
+                    + " ms (" + probeAttempts + " probes)");
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,96 @@
+import java.util.Arrays;
+
+/**
+ * Detects when a stream of latency samples has settled into steady state.
+ *
+ * Samples are grouped into fixed-size windows and each window is reduced to its
+ * median. Steady state is reached when the coefficient of variation (stddev / mean)
+ * of the last few window medians drops under the threshold; everything before the
+ * first of those windows counts as warm-up.
+ */
+public final class SteadyStateDetector {
+    private final int windowSize;
+    private final double cvThreshold;
+
+    private final long[] window;
+    private int windowFill;
+    private long samplesSeen;
+
+    private final long[] recentMedians;
+    private int windowsSeen;
+    private long steadyFrom = -1;
+
+    public SteadyStateDetector(int windowSize, double cvThreshold, int stableWindowsRequired) {
+        if (windowSize < 2 || stableWindowsRequired < 2 || cvThreshold <= 0) {
+            throw new IllegalArgumentException("windowSize >= 2, stableWindowsRequired >= 2 and cvThreshold > 0");
+        }
+        this.windowSize = windowSize;
+        this.cvThreshold = cvThreshold;
+        this.window = new long[windowSize];
+        this.recentMedians = new long[stableWindowsRequired];
+    }
+
+    /** Defaults tuned for per-request HTTP latencies: windows of 50, CV under 0.1 across five windows. */
+    public static SteadyStateDetector forHttpLatency() {
+        return new SteadyStateDetector(
+                Integer.getInteger("steady.window", 50),
+                Double.parseDouble(System.getProperty("steady.cv", "0.1")),
+                Integer.getInteger("steady.windows", 5));
+    }
+
+    /**
+     * Adds one sample and returns true once steady state has been reached.
+     * Samples after that point are still accepted but no longer change the result.
+     */
+    public boolean add(long sample) {
+        samplesSeen++;
+        if (steadyFrom >= 0) {
+            return true;
+        }
+
+        window[windowFill++] = sample;
+        if (windowFill < windowSize) {
+            return false;
+        }
+        windowFill = 0;
+
+        // Medians rather than means, so a single GC pause does not reset the run
+        Arrays.sort(window);
+        recentMedians[windowsSeen % recentMedians.length] = window[windowSize / 2];
+        windowsSeen++;
+        if (windowsSeen < recentMedians.length) {
+            return false;
+        }
+
+        double mean = 0;
+        for (long median : recentMedians) {
+            mean += median;
+        }
+        mean /= recentMedians.length;
+
+        double variance = 0;
+        for (long median : recentMedians) {
+            variance += (median - mean) * (median - mean);
+        }
+        double cv = mean == 0 ? 0 : Math.sqrt(variance / recentMedians.length) / mean;
+
+        if (cv <= cvThreshold) {
+            // The run of stable windows started this many samples ago
+            steadyFrom = samplesSeen - (long) recentMedians.length * windowSize;
+        }
+        return steadyFrom >= 0;
+    }
+
+    public boolean isSteady() {
+        return steadyFrom >= 0;
+    }
+
+    /** Number of leading samples to discard as warm-up, or -1 if steady state was never reached. */
+    public long warmupSamples() {
+        return steadyFrom;
+    }
+
+    public long samplesSeen() {
+        return samplesSeen;
+    }
+}
@@ -0,0 +1,150 @@
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Local HTTP server that plays back responses from a {@link TrafficLog}, so the
+ * functional suite can run without the Todo Manager jar.
+ *
+ * Responses are indexed in memory by verb, path, Accept header and a hash of the
+ * request body. When the same request was recorded several times (a GET before and
+ * after a DELETE, say) the recorded responses are served in order and the last one
+ * repeats. Requests with no recording get a 404 and are counted as misses.
+ *
+ * Playback only matches when the tests send the same requests in the same order as
+ * the recorded run, so record and play back with the same method order seed
+ * (-Djunit.jupiter.execution.order.random.seed=...).
+ */
+public final class StubServer {
+    private static final Set<String> SKIPPED_HEADERS = Set.of("date", "content-length", "transfer-encoding", "server");
+
+    /** The recorded responses for one request key, served in order. */
+    private static final class Recording {
+        final List<TrafficLog.Record> responses = new ArrayList<>();
+        final AtomicInteger cursor = new AtomicInteger();
+
+        TrafficLog.Record next() {
+            int index = cursor.getAndIncrement();
+            return responses.get(Math.min(index, responses.size() - 1));
+        }
+    }
+
+    private final Map<String, Recording> index;
+    private final HttpServer server;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    private StubServer(Map<String, Recording> index, HttpServer server) {
+        this.index = index;
+        this.server = server;
+    }
+
+    /** Loads the log into memory and starts serving it on a free local port. */
+    static StubServer start(File log) throws IOException {
+        Map<String, Recording> index = new ConcurrentHashMap<>();
+        try (TrafficLog.Reader reader = new TrafficLog.Reader(log)) {
+            TrafficLog.Record record;
+            while ((record = reader.next()) != null) {
+                String key = key(record.method, record.path, record.requestHeader("Accept"), record.requestBody);
+                index.computeIfAbsent(key, k -> new Recording()).responses.add(record);
+            }
+        }
+
+        HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        StubServer stub = new StubServer(index, server);
+        server.createContext("/", stub::handle);
+        server.setExecutor(Executors.newFixedThreadPool(Integer.getInteger("stub.threads", 8)));
+        server.start();
+        return stub;
+    }
+
+    String baseUrl() {
+        return "http://localhost:" + server.getAddress().getPort();
+    }
+
+    int recordedKeys() {
+        return index.size();
+    }
+
+    long hits() {
+        return hits.get();
+    }
+
+    long misses() {
+        return misses.get();
+    }
+
+    void stop() {
+        server.stop(0);
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        byte[] body;
+        try (InputStream in = exchange.getRequestBody()) {
+            body = in.readAllBytes();
+        }
+        String method = exchange.getRequestMethod();
+        String path = exchange.getRequestURI().getRawPath();
+        if (exchange.getRequestURI().getRawQuery() != null) {
+            path += "?" + exchange.getRequestURI().getRawQuery();
+        }
+
+        Recording recording = index.get(key(method, path, exchange.getRequestHeaders().getFirst("Accept"), body));
+        if (recording == null) {
+            misses.incrementAndGet();
+            send(exchange, 404, List.of("Content-Type", "application/json"),
+                    ("{\"errorMessages\":[\"No recorded response for " + method + " " + path + "\"]}")
+                            .getBytes(StandardCharsets.UTF_8));
+            return;
+        }
+
+        hits.incrementAndGet();
+        TrafficLog.Record response = recording.next();
+        send(exchange, response.status, response.responseHeaders, response.responseBody);
+    }
+
+    private static void send(HttpExchange exchange, int status, List<String> headers, byte[] body) throws IOException {
+        for (int i = 0; i + 1 < headers.size(); i += 2) {
+            if (!SKIPPED_HEADERS.contains(headers.get(i).toLowerCase())) {
+                exchange.getResponseHeaders().add(headers.get(i), headers.get(i + 1));
+            }
+        }
+        boolean noBody = body.length == 0 || "HEAD".equals(exchange.getRequestMethod());
+        exchange.sendResponseHeaders(status, noBody ? -1 : body.length);
+        if (!noBody) {
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        }
+        exchange.close();
+    }
+
+    /** Index key: verb, path, Accept (absent and any-type treated alike) and body hash. */
+    static String key(String method, String path, String accept, byte[] body) {
+        String normalisedAccept = accept == null || accept.equals("*/*") ? "" : accept;
+        return method + ' ' + path + '\n' + normalisedAccept + '\n' + Long.toHexString(fnv1a(body));
+    }
+
+    private static long fnv1a(byte[] bytes) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : bytes) {
+            hash ^= b & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+}
@@ -0,0 +1,125 @@
+import io.restassured.path.json.JsonPath;
+import io.restassured.path.xml.XmlPath;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+import org.hamcrest.Matcher;
+import org.hamcrest.StringDescription;
+
+/**
+ * One request the functional suite makes, in a form load drivers can replay: verb,
+ * route template, concrete path, media type, body and the status the suite expects.
+ * The body is held encoded, so replaying an endpoint never re-encodes it.
+ *
+ * An endpoint can also carry one of the suite's body assertions, a GPath expression and
+ * a Hamcrest matcher as in body("todos.todo.size()", greaterThan(0)), which load drivers
+ * apply to the responses they choose to validate.
+ */
+public final class SuiteEndpoint {
+    static final String JSON = "application/json";
+    static final String XML = "application/xml";
+
+    final String method;
+    final String route;
+    final String path;
+    final String mediaType;
+    final byte[] body;
+    final int expectedStatus;
+    final String checkPath;
+    final Matcher<?> checkMatcher;
+
+    SuiteEndpoint(String method, String route, String path, String mediaType, String body, int expectedStatus) {
+        this(method, route, path, mediaType, body == null ? null : body.getBytes(StandardCharsets.UTF_8),
+                expectedStatus, null, null);
+    }
+
+    /** An endpoint whose body is already encoded, e.g. rendered from a {@link BodyTemplate}. */
+    static SuiteEndpoint encoded(String method, String route, String path, String mediaType, byte[] body,
+                                 int expectedStatus) {
+        return new SuiteEndpoint(method, route, path, mediaType, body, expectedStatus, null, null);
+    }
+
+    private SuiteEndpoint(String method, String route, String path, String mediaType, byte[] body, int expectedStatus,
+                          String checkPath, Matcher<?> checkMatcher) {
+        this.method = method;
+        this.route = route;
+        this.path = path;
+        this.mediaType = mediaType;
+        this.body = body;
+        this.expectedStatus = expectedStatus;
+        this.checkPath = checkPath;
+        this.checkMatcher = checkMatcher;
+    }
+
+    /** This endpoint with a body assertion, written as the suite writes it: body(path, matcher). */
+    SuiteEndpoint expecting(String path, Matcher<?> matcher) {
+        return new SuiteEndpoint(method, route, this.path, mediaType, body, expectedStatus, path, matcher);
+    }
+
+    boolean hasBodyCheck() {
+        return checkMatcher != null;
+    }
+
+    /** Null if the response body passes the assertion, otherwise what went wrong. */
+    String bodyMismatch(byte[] responseBody) {
+        if (checkMatcher == null) {
+            return null;
+        }
+        Object actual;
+        try {
+            String text = new String(responseBody, StandardCharsets.UTF_8);
+            actual = XML.equals(mediaType) ? XmlPath.from(text).get(checkPath) : JsonPath.from(text).get(checkPath);
+        } catch (RuntimeException e) {
+            return checkPath + ": unparseable body (" + e.getMessage() + ")";
+        }
+        if (checkMatcher.matches(actual)) {
+            return null;
+        }
+        StringDescription description = new StringDescription();
+        description.appendText(checkPath).appendText(" expected ").appendDescriptionOf(checkMatcher)
+                .appendText(" but ");
+        checkMatcher.describeMismatch(actual, description);
+        return description.toString();
+    }
+
+    /** Stable report key, e.g. "GET /todos/:id/categories" or "POST /todos [xml]". */
+    String name() {
+        return method + " " + route + (XML.equals(mediaType) ? " [xml]" : "");
+    }
+
+    /** Route family used to group reports: todos, projects, categories or relationships. */
+    String family() {
+        String[] segments = route.split("/");
+        if (segments.length > 3) {
+            return "relationships";
+        }
+        return segments.length > 1 ? segments[1] : route;
+    }
+
+    /** The body as text, for reports and assertions; null when there is no body. */
+    String bodyText() {
+        return body == null ? null : new String(body, StandardCharsets.UTF_8);
+    }
+
+    HttpRequest toHttpRequest(String baseUrl, Duration timeout) {
+        HttpRequest.BodyPublisher publisher = body == null
+                ? HttpRequest.BodyPublishers.noBody()
+                : HttpRequest.BodyPublishers.ofByteArray(body);
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(timeout)
+                .method(method, publisher)
+                .header("Accept", mediaType);
+        if (body != null) {
+            builder.header("Content-Type", mediaType);
+        }
+        return builder.build();
+    }
+
+    @Override
+    public String toString() {
+        return name() + " -> " + path + " (" + expectedStatus + ")";
+    }
+}
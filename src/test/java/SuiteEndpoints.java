@@ -0,0 +1,129 @@
+import static org.hamcrest.Matchers.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Catalogue of requests for load drivers to replay, bound to a {@link BenchFixture} so
+ * they never touch seed data. It is built from the verbs and routes the functional test
+ * classes exercise, but also fills in variants they do not send, such as HEAD on every
+ * collection, instance and relationship and XML reads of every relationship, so it is
+ * not a record of suite coverage; see src/test/resources/suite-operations.txt for that.
+ *
+ * Requests that create a new entity on every call (POST /todos and friends) are kept
+ * separate in {@link #creating(BenchFixture)} because replaying them under load grows
+ * the server's data set; everything in {@link #repeatable(BenchFixture)} can be sent
+ * any number of times and leaves the data as it found it.
+ *
+ * Reads, creates and the missing-id errors carry the same body assertions the
+ * functional tests make, for load drivers that validate a sample of responses.
+ */
+public final class SuiteEndpoints {
+    private static final String JSON = SuiteEndpoint.JSON;
+    private static final String XML = SuiteEndpoint.XML;
+    private static final String MISSING_ID = "99999";
+
+    private SuiteEndpoints() {
+    }
+
+    /** Every request in the catalogue, repeatable ones first. */
+    static List<SuiteEndpoint> all(BenchFixture fixture) {
+        List<SuiteEndpoint> endpoints = repeatable(fixture);
+        endpoints.addAll(creating(fixture));
+        return endpoints;
+    }
+
+    static List<SuiteEndpoint> repeatable(BenchFixture fixture) {
+        List<SuiteEndpoint> endpoints = new ArrayList<>();
+        entityRoutes(endpoints, "todos", "todo", fixture.todoId);
+        entityRoutes(endpoints, "projects", "project", fixture.projectId);
+        entityRoutes(endpoints, "categories", "category", fixture.categoryId);
+
+        relationshipRoutes(endpoints, "todos", fixture.todoId, "categories", fixture.categoryId);
+        relationshipRoutes(endpoints, "todos", fixture.todoId, "tasksof", fixture.projectId);
+        relationshipRoutes(endpoints, "projects", fixture.projectId, "tasks", fixture.todoId);
+        relationshipRoutes(endpoints, "projects", fixture.projectId, "categories", fixture.categoryId);
+        relationshipRoutes(endpoints, "categories", fixture.categoryId, "todos", fixture.todoId);
+        relationshipRoutes(endpoints, "categories", fixture.categoryId, "projects", fixture.projectId);
+
+        // Error paths the suite checks explicitly
+        endpoints.add(new SuiteEndpoint("POST", "/projects/:id", "/projects/" + fixture.projectId,
+                JSON, "{\"undefined\":\"input\"}", 400));
+        endpoints.add(new SuiteEndpoint("POST", "/todos", "/todos", JSON, "{\"description\":\"no title\"}", 400));
+        endpoints.add(new SuiteEndpoint("DELETE", "/categories/:id/projects/:id",
+                "/categories/" + MISSING_ID + "/projects/" + MISSING_ID, JSON, null, 404)
+                .expecting("errorMessages[0]", containsString("Could not find any instances")));
+        return endpoints;
+    }
+
+    static List<SuiteEndpoint> creating(BenchFixture fixture) {
+        List<SuiteEndpoint> endpoints = new ArrayList<>();
+        endpoints.add(new SuiteEndpoint("POST", "/todos", "/todos", JSON, "{\"title\":\"Load Todo\"}", 201)
+                .expecting("title", equalTo("Load Todo")));
+        endpoints.add(new SuiteEndpoint("POST", "/todos", "/todos", XML, "<todo><title>Load Todo</title></todo>", 201)
+                .expecting("todo.title", equalTo("Load Todo")));
+        endpoints.add(new SuiteEndpoint("POST", "/projects", "/projects", JSON, "{\"title\":\"Load Project\"}", 201)
+                .expecting("title", equalTo("Load Project")));
+        endpoints.add(new SuiteEndpoint("POST", "/projects", "/projects", XML,
+                "<project><title>Load Project</title></project>", 201)
+                .expecting("project.title", equalTo("Load Project")));
+        endpoints.add(new SuiteEndpoint("POST", "/categories", "/categories", JSON,
+                "{\"title\":\"Load Category\"}", 201)
+                .expecting("title", equalTo("Load Category")));
+        return endpoints;
+    }
+
+    private static void entityRoutes(List<SuiteEndpoint> endpoints, String collection, String element, String id) {
+        String all = "/" + collection;
+        String one = all + "/:id";
+        String path = all + "/" + id;
+        String jsonBody = "{\"title\":\"Load " + element + "\"}";
+        String xmlBody = "<" + element + "><title>Load " + element + "</title></" + element + ">";
+
+        endpoints.add(new SuiteEndpoint("GET", all, all, JSON, null, 200)
+                .expecting(collection + ".size()", greaterThan(0)));
+        endpoints.add(new SuiteEndpoint("GET", one, path, JSON, null, 200)
+                .expecting(collection + "[0].id", equalTo(id)));
+        endpoints.add(new SuiteEndpoint("GET", all, all, XML, null, 200)
+                .expecting(collection + "." + element + ".size()", greaterThan(0)));
+        endpoints.add(new SuiteEndpoint("GET", one, path, XML, null, 200)
+                .expecting(collection + "." + element + ".id", equalTo(id)));
+        endpoints.add(new SuiteEndpoint("HEAD", all, all, JSON, null, 200));
+        endpoints.add(new SuiteEndpoint("OPTIONS", all, all, JSON, null, 200));
+        endpoints.add(new SuiteEndpoint("PUT", all, all, JSON, jsonBody, 405));
+        endpoints.add(new SuiteEndpoint("DELETE", all, all, JSON, null, 405));
+        endpoints.add(new SuiteEndpoint("PATCH", all, all, JSON, jsonBody, 405));
+
+        endpoints.add(new SuiteEndpoint("HEAD", one, path, JSON, null, 200));
+        endpoints.add(new SuiteEndpoint("OPTIONS", one, path, JSON, null, 200));
+        endpoints.add(new SuiteEndpoint("PUT", one, path, JSON, jsonBody, 200));
+        endpoints.add(new SuiteEndpoint("POST", one, path, JSON, jsonBody, 200));
+        endpoints.add(new SuiteEndpoint("POST", one, path, XML, xmlBody, 200));
+        endpoints.add(new SuiteEndpoint("PATCH", one, path, JSON, jsonBody, 405));
+
+        String missing = all + "/" + MISSING_ID;
+        endpoints.add(new SuiteEndpoint("GET", one, missing, JSON, null, 404)
+                .expecting("errorMessages[0]", containsString("Could not find an instance")));
+        endpoints.add(new SuiteEndpoint("HEAD", one, missing, JSON, null, 404));
+        endpoints.add(new SuiteEndpoint("POST", one, missing, JSON, jsonBody, 404));
+        endpoints.add(new SuiteEndpoint("PUT", one, missing, JSON, jsonBody, 404));
+        endpoints.add(new SuiteEndpoint("DELETE", one, missing, JSON, null, 404));
+    }
+
+    private static void relationshipRoutes(List<SuiteEndpoint> endpoints, String collection, String id,
+                                           String relationship, String targetId) {
+        String route = "/" + collection + "/:id/" + relationship;
+        String path = "/" + collection + "/" + id + "/" + relationship;
+
+        // The lists may be empty: the PUTs in the catalogue clear an instance's links
+        String target = LiveIds.collectionOf(relationship);
+        endpoints.add(new SuiteEndpoint("GET", route, path, JSON, null, 200)
+                .expecting(target, notNullValue()));
+        endpoints.add(new SuiteEndpoint("GET", route, path, XML, null, 200)
+                .expecting(target, notNullValue()));
+        endpoints.add(new SuiteEndpoint("HEAD", route, path, JSON, null, 200));
+        // Linking an already linked pair is accepted again, so this stays repeatable
+        endpoints.add(SuiteEndpoint.encoded("POST", route, path, JSON,
+                BodyTemplate.LINK_JSON.render(targetId), 201));
+    }
+}
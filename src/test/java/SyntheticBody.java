@@ -0,0 +1,95 @@
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Request bodies of a chosen size and shape for one entity, in JSON or XML, for
+ * measuring how body parsing and validation scale.
+ *
+ * <ul>
+ *   <li>title: one long title, the field every create needs</li>
+ *   <li>description: a short title and a long description</li>
+ *   <li>unknownFields: a short title and many small fields the entity does not have</li>
+ *   <li>nested: a short title and one field nested as deep as the size allows,
+ *       capped at -Dpayload.maxDepth (default 500) with the rest as padding</li>
+ * </ul>
+ *
+ * The title and description shapes are rendered through {@link BodyTemplate}s that
+ * are compiled once, per root element for XML, so JSON and XML encode costs compare
+ * like for like; the others are plain ASCII that needs no escaping. Sizes are
+ * approximate: within a few bytes of the target, never below the smallest valid body
+ * of the shape.
+ */
+public final class SyntheticBody {
+    static final String[] SHAPES = {"title", "description", "unknownFields", "nested"};
+    private static final int MAX_DEPTH = Integer.getInteger("payload.maxDepth", 500);
+    private static final BodyTemplate JSON_FIELDS =
+            BodyTemplate.json("{\"title\":\":title\",\"description\":\":description\"}", ":title", ":description");
+    private static final Map<String, BodyTemplate> XML_FIELDS = new ConcurrentHashMap<>();
+
+    private SyntheticBody() {
+    }
+
+    /** A body of about size bytes; element is the XML root, e.g. todo, project or category. */
+    static byte[] of(String shape, boolean xml, String element, int size) {
+        switch (shape) {
+            case "title":
+                return fields(xml, element, filler(size - fieldsOverhead(xml, element)), "");
+            case "description":
+                return fields(xml, element, "Bench", filler(size - fieldsOverhead(xml, element) - 5));
+            case "unknownFields":
+                return unknownFields(xml, element, size);
+            case "nested":
+                return nested(xml, element, size);
+            default:
+                throw new IllegalArgumentException("Unknown body shape " + shape);
+        }
+    }
+
+    private static byte[] fields(boolean xml, String element, String title, String description) {
+        if (!xml) {
+            return JSON_FIELDS.render(title, description);
+        }
+        BodyTemplate template = XML_FIELDS.computeIfAbsent(element, root -> BodyTemplate.xml("<" + root
+                + "><title>:title</title><description>:description</description></" + root + ">",
+                ":title", ":description"));
+        return template.render(title, description);
+    }
+
+    private static int fieldsOverhead(boolean xml, String element) {
+        return fields(xml, element, "", "").length;
+    }
+
+    private static byte[] unknownFields(boolean xml, String element, int size) {
+        StringBuilder body = new StringBuilder(size + 32);
+        body.append(xml ? "<" + element + "><title>Bench</title>" : "{\"title\":\"Bench\"");
+        String close = xml ? "</" + element + ">" : "}";
+        for (int field = 0; body.length() + close.length() < size; field++) {
+            body.append(xml ? "<f" + field + ">v</f" + field + ">" : ",\"f" + field + "\":\"v\"");
+        }
+        return body.append(close).toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static byte[] nested(boolean xml, String element, int size) {
+        String open = xml ? "<n>" : "{\"n\":";
+        String close = xml ? "</n>" : "}";
+        String head = xml ? "<" + element + "><title>Bench</title><n>" : "{\"title\":\"Bench\",\"n\":";
+        String tail = xml ? "</n></" + element + ">" : "}";
+        String leaf = xml ? "" : "\"\"";
+        int depth = Math.max(0, Math.min(MAX_DEPTH,
+                (size - head.length() - tail.length() - leaf.length()) / (open.length() + close.length())));
+        int used = head.length() + tail.length() + depth * (open.length() + close.length());
+
+        StringBuilder body = new StringBuilder(Math.max(size, used) + 8).append(head);
+        body.append(open.repeat(depth));
+        // Whatever the depth cap leaves over goes into the innermost value
+        body.append(xml ? filler(size - used) : "\"" + filler(size - used - 2) + "\"");
+        body.append(close.repeat(depth)).append(tail);
+        return body.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /** ASCII text that needs no escaping in JSON or XML. */
+    private static String filler(int length) {
+        return "abcdefghij".repeat(Math.max(0, length) / 10 + 1).substring(0, Math.max(0, length));
+    }
+}
@@ -0,0 +1,38 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class TestApiDescription {
+    private static final String DOCUMENT = "{\"openapi\":\"3.0.1\",\"paths\":{"
+            + "\"/todos/:id/tasksof\":{"
+            + "\"head\":{\"description\":\"headers\",\"responses\":{\"200\":{},\"404\":{}}},"
+            + "\"put\":{\"responses\":{\"405\":{},\"default\":{}}}},"
+            + "\"/shutdown\":{\"get\":{\"responses\":{\"200\":{}}}}}}";
+
+    @Test
+    @DisplayName("Every route and verb is read with its documented statuses, shutdown excluded")
+    void testParseOperations() throws Exception {
+        List<ApiDescription.Operation> operations = ApiDescription.parse(DOCUMENT.getBytes(StandardCharsets.UTF_8));
+
+        assertEquals(2, operations.size());
+        assertEquals("HEAD /todos/:id/tasksof", operations.get(0).name());
+        assertEquals(Set.of(200, 404), operations.get(0).statuses);
+        assertEquals("headers", operations.get(0).description);
+        assertEquals("PUT /todos/:id/tasksof", operations.get(1).name());
+        assertEquals(Set.of(405), operations.get(1).statuses);
+        assertArrayEquals(new String[] {"todos", ":id", "tasksof"}, operations.get(1).segments());
+    }
+
+    @Test
+    @DisplayName("A document without paths is rejected")
+    void testNotOpenApi() {
+        assertThrows(IOException.class,
+                () -> ApiDescription.parse("{\"todos\":[]}".getBytes(StandardCharsets.UTF_8)));
+    }
+}
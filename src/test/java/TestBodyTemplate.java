@@ -0,0 +1,50 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class TestBodyTemplate {
+
+    @Test
+    @DisplayName("Placeholders are spliced in order and may repeat")
+    void testRender() {
+        BodyTemplate template = BodyTemplate.json("{\"id\":\":todoId\",\"title\":\":to :seq :todoId\"}",
+                ":todoId", ":to", ":seq");
+
+        assertEquals("{\"id\":\"12\",\"title\":\"x 3 12\"}",
+                new String(template.render("12", "x", "3"), StandardCharsets.UTF_8));
+        assertTrue(template.uses(1));
+        assertThrows(IllegalArgumentException.class, () -> template.render("12"));
+    }
+
+    @Test
+    @DisplayName("Values are escaped for the template format")
+    void testEscaping() {
+        BodyTemplate json = BodyTemplate.json("{\"title\":\":title\"}", ":title");
+        BodyTemplate xml = BodyTemplate.xml("<todo><title>:title</title></todo>", ":title");
+
+        assertEquals("{\"title\":\"say \\\"hi\\\"\\n\u00e9\"}",
+                new String(json.render("say \"hi\"\n\u00e9"), StandardCharsets.UTF_8));
+        assertEquals("<todo><title>a &lt;b&gt; &amp; c</title></todo>",
+                new String(xml.render("a <b> & c"), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    @DisplayName("writeTo fills a reused buffer with the same bytes as render")
+    void testWriteToReusedBuffer() {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(64);
+        for (String id : new String[] {"1", "4242", "\ud83d\ude00"}) {
+            buffer.clear();
+            BodyTemplate.LINK_JSON.writeTo(buffer, id);
+            buffer.flip();
+            byte[] written = new byte[buffer.remaining()];
+            buffer.get(written);
+
+            assertArrayEquals(BodyTemplate.LINK_JSON.render(id), written);
+            assertEquals(BodyTemplate.LINK_JSON.length(id), written.length);
+        }
+    }
+}
@@ -16,9 +16,7 @@ public class TestCategories {
     @BeforeAll
     static void ServiceRunningCheck() {
         RestAssured.baseURI = BASE_URL;
-        try {
-            given().get("/categories").then().statusCode(200);
-        } catch (Exception e) {
+        if (!ServerReadiness.awaitReady(BASE_URL)) {
             Assumptions.abort("Service is not running at " + BASE_URL + ". Skipping tests.");
         }
     }
@@ -362,7 +360,7 @@ public class TestCategories {
         try {
             given()
                     .contentType(ContentType.JSON)
-                    .body("{\"id\":\"" + projectId + "\"}")
+                    .body(BodyTemplate.LINK_JSON.render(projectId))
                     .when()
                     .post("/categories/" + categoryId + "/projects")
                     .then()
@@ -384,7 +382,7 @@ public class TestCategories {
     void testPostCategoryProjectsNonexistingCategory() {
         given()
                 .contentType(ContentType.JSON)
-                .body("{\"id\":\"" + testProjectId + "\"}")
+                .body(BodyTemplate.LINK_JSON.render(testProjectId))
                 .when()
                 .post("/categories/99999/projects")
                 .then()
@@ -427,7 +425,7 @@ public class TestCategories {
             // Create relationship
             given()
                     .contentType(ContentType.JSON)
-                    .body("{\"id\":\"" + projectId + "\"}")
+                    .body(BodyTemplate.LINK_JSON.render(projectId))
                     .post("/categories/" + categoryId + "/projects")
                     .then()
                     .statusCode(201);
@@ -552,7 +550,7 @@ public class TestCategories {
             // Create relationship
             given()
                     .contentType(ContentType.JSON)
-                    .body("{\"id\":\"" + projectId + "\"}")
+                    .body(BodyTemplate.LINK_JSON.render(projectId))
                     .post("/categories/" + categoryId + "/projects")
                     .then()
                     .statusCode(201);
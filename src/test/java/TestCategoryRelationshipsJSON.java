@@ -23,9 +23,7 @@ public class TestCategoryRelationshipsJSON {
     @BeforeAll
     static void ServiceRunningCheck() {
         RestAssured.baseURI = BASE_URL;
-        try {
-            given().get("/projects").then().statusCode(200);
-        } catch (Exception e) {
+        if (!ServerReadiness.awaitReady(BASE_URL)) {
             Assumptions.abort("Service is not running at " + BASE_URL + ". Skipping tests.");
         }
     }
@@ -103,7 +101,7 @@ public class TestCategoryRelationshipsJSON {
     private void createTodoCategoryRelationship(String todoId, String categoryId) {
         given()
                 .contentType(ContentType.JSON)
-                .body("{\"id\":\"" + categoryId + "\"}")
+                .body(BodyTemplate.LINK_JSON.render(categoryId))
                 .when()
                 .post("/todos/" + todoId + "/categories")
                 .then()
@@ -113,7 +111,7 @@ public class TestCategoryRelationshipsJSON {
     private void createProjectCategoryRelationship(String projectId, String categoryId) {
         given()
                 .contentType(ContentType.JSON)
-                .body("{\"id\":\"" + categoryId + "\"}")
+                .body(BodyTemplate.LINK_JSON.render(categoryId))
                 .when()
                 .post("/projects/" + projectId + "/categories")
                 .then()
@@ -123,7 +121,7 @@ public class TestCategoryRelationshipsJSON {
     private void createProjectTodoRelationship(String projectId, String todoId) {
         given()
                 .contentType(ContentType.JSON)
-                .body("{\"id\":\"" + todoId + "\"}")
+                .body(BodyTemplate.LINK_JSON.render(todoId))
                 .when()
                 .post("/projects/" + projectId + "/tasks")
                 .then()
@@ -139,7 +137,7 @@ public class TestCategoryRelationshipsJSON {
         given()
                 .contentType(ContentType.JSON)
                 .accept(ContentType.JSON)
-                .body("{\"id\":\"" + testCategoryId + "\"}")
+                .body(BodyTemplate.LINK_JSON.render(testCategoryId))
                 .when()
                 .post("/todos/" + testTodoId + "/categories")
                 .then()
@@ -227,7 +225,7 @@ public class TestCategoryRelationshipsJSON {
         given()
                 .contentType(ContentType.JSON)
                 .accept(ContentType.JSON)
-                .body("{\"id\":\"" + testCategoryId + "\"}")
+                .body(BodyTemplate.LINK_JSON.render(testCategoryId))
                 .when()
                 .post("/projects/" + testProjectId + "/categories")
                 .then()
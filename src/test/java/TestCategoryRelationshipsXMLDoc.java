@@ -22,9 +22,7 @@ public class TestCategoryRelationshipsXMLDoc {
     @BeforeAll
     static void ServiceRunningCheck() {
         RestAssured.baseURI = BASE_URL;
-        try {
-            given().get("/projects").then().statusCode(200);
-        } catch (Exception e) {
+        if (!ServerReadiness.awaitReady(BASE_URL)) {
             Assumptions.abort("Service is not running at " + BASE_URL + ". Skipping tests.");
         }
     }
@@ -106,7 +104,7 @@ public class TestCategoryRelationshipsXMLDoc {
         given()
                 .contentType(ContentType.JSON)
                 .accept(ContentType.XML)
-                .body("{\"id\":\"" + categoryId + "\"}")
+                .body(BodyTemplate.LINK_JSON.render(categoryId))
                 .when()
                 .post("/todos/" + todoId + "/categories")
                 .then()
@@ -117,7 +115,7 @@ public class TestCategoryRelationshipsXMLDoc {
         given()
                 .contentType(ContentType.JSON)
                 .accept(ContentType.XML)
-                .body("{\"id\":\"" + categoryId + "\"}")
+                .body(BodyTemplate.LINK_JSON.render(categoryId))
                 .when()
                 .post("/projects/" + projectId + "/categories")
                 .then()
@@ -128,7 +126,7 @@ public class TestCategoryRelationshipsXMLDoc {
         given()
                 .contentType(ContentType.JSON)
                 .accept(ContentType.XML)
-                .body("{\"id\":\"" + todoId + "\"}")
+                .body(BodyTemplate.LINK_JSON.render(todoId))
                 .when()
                 .post("/projects/" + projectId + "/tasks")
                 .then()
@@ -144,7 +142,7 @@ public class TestCategoryRelationshipsXMLDoc {
         given()
                 .contentType(ContentType.JSON)
                 .accept(ContentType.XML)
-                .body("{\"id\":\"" + testCategoryId + "\"}")
+                .body(BodyTemplate.LINK_JSON.render(testCategoryId))
                 .when()
                 .post("/todos/" + testTodoId + "/categories")
                 .then()
@@ -199,7 +197,7 @@ public class TestCategoryRelationshipsXMLDoc {
         given()
                 .contentType(ContentType.JSON)
                 .accept(ContentType.XML)
-                .body("{\"id\":\"" + testCategoryId + "\"}")
+                .body(BodyTemplate.LINK_JSON.render(testCategoryId))
                 .when()
                 .post("/projects/" + testProjectId + "/categories")
                 .then()
@@ -0,0 +1,191 @@
+import static io.restassured.RestAssured.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import io.restassured.response.Response;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class TestGraphCache {
+    private static final String BODY = "{\"todos\":[{\"id\":\"1\"}]}";
+    private static final String ETAG = "\"v1\"";
+
+    private HttpServer server;
+    private ExecutorService executor;
+    private String baseUrl;
+    private GraphCache cache;
+    // "METHOD path If-None-Match" of every request that reached the server
+    private final List<String> received = new CopyOnWriteArrayList<>();
+    private final AtomicBoolean stallNextSlow = new AtomicBoolean(true);
+    private final CountDownLatch slowArrived = new CountDownLatch(1);
+    private final CountDownLatch releaseSlow = new CountDownLatch(1);
+
+    @BeforeEach
+    void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/todos", exchange -> {
+            String path = exchange.getRequestURI().getPath();
+            String ifNoneMatch = exchange.getRequestHeaders().getFirst("If-None-Match");
+            received.add(exchange.getRequestMethod() + " " + path + " " + ifNoneMatch);
+            // The first GET of /todos/slow waits until the test lets it go
+            if (path.equals("/todos/slow") && stallNextSlow.getAndSet(false)) {
+                slowArrived.countDown();
+                await(releaseSlow);
+            }
+            if (path.equals("/todos/tagged")) {
+                exchange.getResponseHeaders().add("ETag", ETAG);
+                if (ETAG.equals(ifNoneMatch)) {
+                    exchange.sendResponseHeaders(304, -1);
+                    exchange.close();
+                    return;
+                }
+            }
+            send(exchange, exchange.getRequestMethod().equals("POST") ? 201 : 200);
+        });
+        executor = Executors.newCachedThreadPool();
+        server.setExecutor(executor);
+        server.start();
+        baseUrl = "http://localhost:" + server.getAddress().getPort();
+        cache = new GraphCache(16, 1_000_000);
+    }
+
+    @AfterEach
+    void stopServer() {
+        releaseSlow.countDown();
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+
+    @Test
+    @DisplayName("Evicts the least recently used entry past the entry bound")
+    void testEvictsLeastRecentlyUsed() {
+        GraphCache.Lru<String> lru = new GraphCache.Lru<>(2, 1_000);
+        lru.put("a", "A", 10);
+        lru.put("b", "B", 10);
+        assertEquals("A", lru.get("a"));
+        lru.put("c", "C", 10);
+
+        assertNull(lru.get("b"));
+        assertEquals("A", lru.get("a"));
+        assertEquals("C", lru.get("c"));
+        assertEquals(1, lru.evictions());
+    }
+
+    @Test
+    @DisplayName("Evicts until the byte bound holds and refuses entries larger than it")
+    void testBoundsBytes() {
+        GraphCache.Lru<String> lru = new GraphCache.Lru<>(10, 100);
+        lru.put("a", "A", 40);
+        lru.put("b", "B", 40);
+        lru.put("c", "C", 40);
+        assertNull(lru.get("a"));
+        assertEquals(80, lru.bytes());
+
+        lru.put("huge", "H", 101);
+        assertNull(lru.get("huge"));
+        assertEquals(2, lru.size());
+    }
+
+    @Test
+    @DisplayName("Replacing and clearing keep the byte count exact")
+    void testTracksBytes() {
+        GraphCache.Lru<String> lru = new GraphCache.Lru<>(10, 100);
+        lru.put("a", "A", 40);
+        lru.put("a", "A2", 30);
+        assertEquals(30, lru.bytes());
+        assertEquals("A2", lru.get("a"));
+
+        lru.clear();
+        assertEquals(0, lru.bytes());
+        assertEquals(0, lru.size());
+    }
+
+    @Test
+    @DisplayName("The same GET twice reaches the server once")
+    void testRepeatedGetServedFromCache() {
+        Response first = get("/todos");
+        Response second = get("/todos");
+
+        assertEquals(200, second.statusCode());
+        assertEquals(first.asString(), second.asString());
+        assertEquals(List.of("GET /todos null"), received);
+        assertEquals(1, cache.misses());
+    }
+
+    @Test
+    @DisplayName("A write clears the cache, so the next GET goes to the server")
+    void testWriteInvalidates() {
+        get("/todos");
+        assertEquals(201, given().filter(cache).baseUri(baseUrl).contentType("application/json")
+                .body("{\"title\":\"x\"}").post("/todos").statusCode());
+        get("/todos");
+
+        assertEquals(List.of("GET /todos null", "POST /todos null", "GET /todos null"), received);
+    }
+
+    @Test
+    @DisplayName("A GET in flight during a write is not cached")
+    void testGetInFlightDuringWriteNotCached() throws Exception {
+        CompletableFuture<Response> slow = CompletableFuture.supplyAsync(() -> get("/todos/slow"));
+        assertTrue(slowArrived.await(5, TimeUnit.SECONDS));
+        given().filter(cache).baseUri(baseUrl).contentType("application/json").body("{}").post("/todos");
+        releaseSlow.countDown();
+        assertEquals(200, slow.get(5, TimeUnit.SECONDS).statusCode());
+
+        get("/todos/slow");
+        assertEquals(2, received.stream().filter(request -> request.startsWith("GET /todos/slow")).count());
+    }
+
+    @Test
+    @DisplayName("An entry with an ETag is revalidated and a 304 is answered from the cache")
+    void testEtagRevalidation() {
+        Response first = get("/todos/tagged");
+        Response second = get("/todos/tagged");
+
+        assertEquals(List.of("GET /todos/tagged null", "GET /todos/tagged " + ETAG), received);
+        assertEquals(200, second.statusCode());
+        assertEquals(first.asString(), second.asString());
+        assertTrue(cache.summary().contains("1 revalidated"), cache.summary());
+    }
+
+    private Response get(String path) {
+        return given().filter(cache).baseUri(baseUrl).accept("application/json").get(path);
+    }
+
+    private static void send(HttpExchange exchange, int status) throws IOException {
+        byte[] body = BODY.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,33 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class TestJfrRequestProfile {
+
+    @Test
+    @DisplayName("Events are matched to the request in flight, gaps to none")
+    void testTimelineLookup() {
+        JfrRequestProfile.Timeline timeline = new JfrRequestProfile.Timeline();
+        timeline.add(new JfrRequestProfile.Request(0, "GET /todos", 100, 200));
+        timeline.add(new JfrRequestProfile.Request(1, "GET /projects", 250, 300));
+        timeline.add(new JfrRequestProfile.Request(2, "GET /todos", 300, 400));
+
+        assertNull(timeline.at(99));
+        assertEquals(0, timeline.at(100).correlationId);
+        assertEquals(0, timeline.at(200).correlationId);
+        assertNull(timeline.at(220));
+        assertEquals(1, timeline.at(299).correlationId);
+        assertEquals(2, timeline.at(300).correlationId);
+        assertNull(timeline.at(401));
+    }
+
+    @Test
+    @DisplayName("Requests must be logged in start order")
+    void testOutOfOrderRejected() {
+        JfrRequestProfile.Timeline timeline = new JfrRequestProfile.Timeline();
+        timeline.add(new JfrRequestProfile.Request(0, "GET /todos", 100, 200));
+        assertThrows(IllegalArgumentException.class,
+                () -> timeline.add(new JfrRequestProfile.Request(1, "GET /todos", 50, 60)));
+    }
+}
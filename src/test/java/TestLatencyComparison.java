@@ -0,0 +1,54 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class TestLatencyComparison {
+
+    @Test
+    @DisplayName("Mann-Whitney p-values match the textbook normal approximation")
+    void testMannWhitney() {
+        double[] low = {1, 2, 3, 4, 5};
+        double[] high = {6, 7, 8, 9, 10};
+        // U = 0, mean 12.5, sd sqrt(25 * 11 / 12); z = 12 / 4.787 = 2.507
+        assertEquals(0.0122, LatencyComparison.mannWhitney(low, high), 1e-3);
+        assertEquals(0.0122, LatencyComparison.mannWhitney(high, low), 1e-3);
+        assertEquals(1.0, LatencyComparison.mannWhitney(low, low.clone()), 1e-6);
+        assertEquals(1.0, LatencyComparison.mannWhitney(new double[]{3, 3, 3}, new double[]{3, 3}), 1e-9);
+    }
+
+    @Test
+    @DisplayName("Bootstrap interval brackets the true median ratio and excludes 1")
+    void testBootstrapMedianRatio() {
+        double[] a = new double[200];
+        double[] b = new double[200];
+        for (int i = 0; i < a.length; i++) {
+            a[i] = 1 + (i * 37 % 100) / 100.0;
+            b[i] = 2 * (1 + (i * 53 % 100) / 100.0);
+        }
+        double[] interval = LatencyComparison.bootstrapMedianRatio(a, b, 2_000, 0.95, 42);
+        assertTrue(interval[0] <= 2.0 && 2.0 <= interval[1], interval[0] + ".." + interval[1]);
+        assertTrue(interval[0] > 1.5, "lower bound " + interval[0]);
+
+        LatencyComparison.Result result = LatencyComparison.compare("GET /todos", a, b, 2_000, 0.95, 42);
+        assertEquals("slower", result.verdict(0.05));
+        assertEquals("same", LatencyComparison.compare("GET /todos", a, a.clone(), 2_000, 0.95, 42)
+                .verdict(0.05));
+    }
+
+    @Test
+    @DisplayName("Holm adjustment scales the sorted p-values and keeps them monotone")
+    void testHolm() {
+        LatencyComparison.Result[] results = {
+                result("a", 0.01), result("b", 0.04), result("c", 0.03)};
+        LatencyComparison.holm(results);
+        assertEquals(0.03, results[0].adjustedP, 1e-12);
+        assertEquals(0.06, results[1].adjustedP, 1e-12);
+        assertEquals(0.06, results[2].adjustedP, 1e-12);
+        assertEquals(0.975, LatencyComparison.normalCdf(1.96), 1e-4);
+    }
+
+    private static LatencyComparison.Result result(String name, double p) {
+        return new LatencyComparison.Result(name, 1, 1, new double[]{1, 1}, p);
+    }
+}
@@ -0,0 +1,73 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class TestLatencyHistogram {
+
+    @Test
+    @DisplayName("Percentiles of 1..100000 ns are within bucket precision")
+    void testPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long value = 1; value <= 100_000; value++) {
+            histogram.record(value);
+        }
+
+        assertEquals(100_000, histogram.count());
+        assertEquals(100_000, histogram.max());
+        assertEquals(50_000, histogram.percentile(0.50), 50_000 * 0.02);
+        assertEquals(99_000, histogram.percentile(0.99), 99_000 * 0.02);
+        assertEquals(100_000, histogram.percentile(1.0));
+    }
+
+    @Test
+    @DisplayName("Merging two histograms is the same as recording into one")
+    void testMerge() {
+        LatencyHistogram fast = new LatencyHistogram();
+        LatencyHistogram slow = new LatencyHistogram();
+        for (int i = 0; i < 900; i++) {
+            fast.record(1_000_000);
+        }
+        for (int i = 0; i < 100; i++) {
+            slow.record(50_000_000);
+        }
+
+        fast.merge(slow);
+        assertEquals(1_000, fast.count());
+        assertEquals(1_000_000, fast.percentile(0.90), 1_000_000 * 0.02);
+        assertEquals(50_000_000, fast.percentile(0.95), 50_000_000 * 0.02);
+    }
+
+    @Test
+    @DisplayName("Every bucket's upper bound maps back to the same bucket")
+    void testBucketBoundaries() {
+        for (int bucket = 0; bucket < LatencyHistogram.bucketOf(Long.MAX_VALUE); bucket++) {
+            assertEquals(bucket, LatencyHistogram.bucketOf(LatencyHistogram.upperBoundOf(bucket)));
+            assertEquals(bucket + 1, LatencyHistogram.bucketOf(LatencyHistogram.upperBoundOf(bucket) + 1));
+        }
+    }
+
+    @Test
+    @DisplayName("A histogram read back after writing reports the same statistics")
+    void testSerialisation() throws Exception {
+        LatencyHistogram original = new LatencyHistogram();
+        for (long value = 1; value <= 10_000_000; value *= 3) {
+            original.record(value);
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        original.writeTo(new DataOutputStream(bytes));
+        LatencyHistogram copy = LatencyHistogram.readFrom(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+
+        assertEquals(original.count(), copy.count());
+        assertEquals(original.max(), copy.max());
+        assertEquals(original.mean(), copy.mean());
+        assertEquals(original.summary(), copy.summary());
+        copy.merge(original);
+        assertEquals(2 * original.count(), copy.count());
+    }
+}
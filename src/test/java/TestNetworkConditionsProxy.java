@@ -0,0 +1,94 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.URI;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class TestNetworkConditionsProxy {
+
+    /** Echoes one connection's bytes back until the client closes. */
+    private static ServerSocket echoServer() throws IOException {
+        ServerSocket server = new ServerSocket(0, 1, InetAddress.getLoopbackAddress());
+        Thread thread = new Thread(() -> {
+            try (Socket socket = server.accept()) {
+                socket.getInputStream().transferTo(socket.getOutputStream());
+            } catch (IOException ignored) {
+                // Test over
+            }
+        });
+        thread.setDaemon(true);
+        thread.start();
+        return server;
+    }
+
+    @Test
+    @DisplayName("Bytes arrive intact after the configured latency each way")
+    void testLatencyAddedBothWays() throws IOException {
+        byte[] payload = new byte[40_000];
+        for (int i = 0; i < payload.length; i++) {
+            payload[i] = (byte) i;
+        }
+        try (ServerSocket echo = echoServer();
+             NetworkConditionsProxy proxy = NetworkConditionsProxy.start("localhost", echo.getLocalPort(),
+                     new NetworkConditionsProxy.Conditions(50, 0, 0, 0));
+             Socket client = new Socket("localhost", URI.create(proxy.baseUrl()).getPort())) {
+            long start = System.nanoTime();
+            OutputStream out = client.getOutputStream();
+            out.write(payload);
+            out.flush();
+            byte[] received = new byte[payload.length];
+            new DataInputStream(client.getInputStream()).readFully(received);
+            long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+            assertArrayEquals(payload, received);
+            assertTrue(elapsedMillis >= 100, "round trip took " + elapsedMillis + " ms");
+            assertEquals(1, proxy.connections());
+            assertEquals(2L * payload.length, proxy.bytes());
+        }
+    }
+
+    @Test
+    @DisplayName("A reset closes the client connection abruptly")
+    void testReset() throws IOException {
+        try (ServerSocket echo = echoServer();
+             NetworkConditionsProxy proxy = NetworkConditionsProxy.start("localhost", echo.getLocalPort(),
+                     new NetworkConditionsProxy.Conditions(0, 0, 0, 1.0));
+             Socket client = new Socket("localhost", URI.create(proxy.baseUrl()).getPort())) {
+            client.getOutputStream().write(1);
+            InputStream in = client.getInputStream();
+
+            assertThrows(IOException.class, () -> {
+                if (in.read() < 0) {
+                    throw new IOException("closed");
+                }
+            });
+            assertEquals(1, proxy.resets());
+        }
+    }
+
+    @Test
+    @DisplayName("Closing the proxy closes the connections still open through it")
+    void testCloseEndsOpenConnections() throws IOException {
+        try (ServerSocket echo = echoServer();
+             Socket client = new Socket()) {
+            NetworkConditionsProxy proxy = NetworkConditionsProxy.start("localhost", echo.getLocalPort(),
+                    new NetworkConditionsProxy.Conditions(0, 0, 0, 0));
+            client.connect(new InetSocketAddress("localhost", URI.create(proxy.baseUrl()).getPort()));
+            client.setSoTimeout(5_000);
+            client.getOutputStream().write(1);
+            assertEquals(1, client.getInputStream().read());
+
+            proxy.close();
+            assertEquals(-1, client.getInputStream().read());
+        }
+    }
+}
@@ -0,0 +1,44 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.sun.net.httpserver.HttpServer;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class TestOpenLoopDriver {
+
+    @Test
+    @DisplayName("Requests that time out behind a stall still count in the corrected percentiles")
+    void testTimeoutsRecordedInCorrectedLatency() throws Exception {
+        HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/stall", exchange -> {
+            try {
+                Thread.sleep(2_000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            exchange.close();
+        });
+        server.start();
+        try {
+            String baseUrl = "http://localhost:" + server.getAddress().getPort();
+            SuiteEndpoint stall = new SuiteEndpoint("GET", "/stall", "/stall", SuiteEndpoint.JSON, null, 200);
+            OpenLoopDriver driver = new OpenLoopDriver(baseUrl, Duration.ofMillis(200));
+            OpenLoopDriver.Result result = driver.run(OpenLoopDriver.roundRobin(List.of(stall)), 20,
+                    Duration.ofMillis(250));
+
+            OpenLoopDriver.EndpointStats stats = result.endpoints.get("GET /stall");
+            assertEquals(result.scheduled, stats.timeouts.get());
+            assertEquals(result.scheduled, stats.corrected.count());
+            assertEquals(0, stats.completed());
+            assertTrue(stats.corrected.percentile(0.5) >= 200_000_000L, stats.corrected.summary());
+        } finally {
+            server.stop(0);
+        }
+    }
+}
@@ -0,0 +1,61 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.net.http.HttpHeaders;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.LongStream;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class TestOutlierReservoir {
+    private static final HttpHeaders NO_HEADERS = HttpHeaders.of(Map.of(), (name, value) -> true);
+
+    private static OutlierReservoir.Outlier outlier(long totalNanos) {
+        return new OutlierReservoir.Outlier("GET /todos", "GET", "/todos", NO_HEADERS, null,
+                200, NO_HEADERS, null, 0, totalNanos / 2, totalNanos, 1, 1);
+    }
+
+    @Test
+    @DisplayName("Concurrent offers keep exactly the slowest K")
+    void testKeepsSlowestUnderContention() throws InterruptedException {
+        OutlierReservoir reservoir = new OutlierReservoir(8);
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            int offset = t;
+            threads.add(new Thread(() -> {
+                // Latencies 1..4000 spread over the threads in a scrambled order
+                for (long i = 0; i < 1000; i++) {
+                    long latency = (i * 7919 % 1000) * 4 + offset + 1;
+                    reservoir.offer(latency, () -> outlier(latency));
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        long[] kept = reservoir.slowest().stream().mapToLong(entry -> entry.totalNanos).toArray();
+        assertArrayEquals(LongStream.rangeClosed(3993, 4000).map(l -> 3993 + 4000 - l).toArray(), kept);
+        assertEquals(3993, reservoir.threshold());
+    }
+
+    @Test
+    @DisplayName("Requests faster than the threshold build nothing")
+    void testFastRequestsNotBuilt() {
+        OutlierReservoir reservoir = new OutlierReservoir(2);
+        AtomicInteger built = new AtomicInteger();
+        for (long latency : new long[] {50, 60, 10, 55, 20, 70}) {
+            reservoir.offer(latency, () -> {
+                built.incrementAndGet();
+                return outlier(latency);
+            });
+        }
+
+        assertEquals(4, built.get()); // 10 and 20 are below the threshold
+        assertEquals(List.of(70L, 60L), reservoir.slowest().stream().map(entry -> entry.totalNanos).toList());
+    }
+}
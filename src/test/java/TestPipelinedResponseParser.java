@@ -0,0 +1,57 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class TestPipelinedResponseParser {
+    private static final String CHUNKED = "HTTP/1.1 200 OK\r\n"
+            + "Content-Type: application/json\r\n"
+            + "transfer-encoding: Chunked\r\n\r\n"
+            + "6\r\n{\"id\":\r\n5\r\n\"12\"}\r\n0\r\n\r\n";
+    private static final String FIXED = "HTTP/1.1 404 Not Found\r\n"
+            + "Content-Length: 17\r\n\r\n"
+            + "{\"errorMessages\"}";
+    private static final String HEAD = "HTTP/1.1 200 OK\r\n"
+            + "Content-Length: 250\r\n\r\n";
+
+    @Test
+    @DisplayName("Pipelined chunked, fixed-length and HEAD responses parse at any split point")
+    void testPipelinedResponsesAtEverySplit() {
+        byte[] stream = (CHUNKED + FIXED + HEAD + CHUNKED).getBytes(StandardCharsets.US_ASCII);
+        boolean[] head = {false, false, true, false};
+        int[] expected = {200, 404, 200, 200};
+
+        for (int split = 1; split < stream.length; split++) {
+            PipelinedClient.ResponseParser parser = new PipelinedClient.ResponseParser();
+            int response = 0;
+            parser.begin(head[0], true);
+            for (ByteBuffer part : new ByteBuffer[] {ByteBuffer.wrap(stream, 0, split),
+                    ByteBuffer.wrap(stream, split, stream.length - split)}) {
+                while (part.hasRemaining() && parser.feed(part)) {
+                    assertEquals(expected[response], parser.status(), "split " + split);
+                    if (response == 0) {
+                        assertTrue(parser.bodyContains("{\"id\":\"12\"}".getBytes(StandardCharsets.US_ASCII)));
+                    }
+                    response++;
+                    if (response < head.length) {
+                        parser.begin(head[response], true);
+                    }
+                }
+            }
+            assertEquals(4, response, "split " + split);
+        }
+    }
+
+    @Test
+    @DisplayName("Skipped bodies are not collected")
+    void testSkippedBody() {
+        PipelinedClient.ResponseParser parser = new PipelinedClient.ResponseParser();
+        parser.begin(false, false);
+        assertTrue(parser.feed(ByteBuffer.wrap(FIXED.getBytes(StandardCharsets.US_ASCII))));
+        assertEquals(404, parser.status());
+        assertFalse(parser.bodyContains("errorMessages".getBytes(StandardCharsets.US_ASCII)));
+    }
+}
@@ -19,9 +19,7 @@ public class TestProjectJSONDoc {
     @BeforeAll
     static void ServiceRunningCheck() {
         RestAssured.baseURI = BASE_URL;
-        try {
-            given().get("/projects").then().statusCode(200);
-        } catch (Exception e) {
+        if (!ServerReadiness.awaitReady(BASE_URL)) {
             Assumptions.abort("Service is not running at " + BASE_URL + ". Skipping tests.");
         }
     }
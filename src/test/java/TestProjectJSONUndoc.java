@@ -17,9 +17,7 @@ public class TestProjectJSONUndoc {
     @BeforeAll
     static void ServiceRunningCheck() {
         RestAssured.baseURI = BASE_URL;
-        try {
-            given().get("/projects").then().statusCode(200);
-        } catch (Exception e) {
+        if (!ServerReadiness.awaitReady(BASE_URL)) {
             Assumptions.abort("Service is not running at " + BASE_URL + ". Skipping tests.");
         }
     }
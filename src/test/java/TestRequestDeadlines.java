@@ -0,0 +1,54 @@
+import static io.restassured.RestAssured.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class TestRequestDeadlines {
+    private static ReferenceTodoServer server;
+    private static NetworkConditionsProxy slowNetwork;
+
+    @BeforeAll
+    static void startSlowServer() throws Exception {
+        RequestDeadlines.install();
+        server = ReferenceTodoServer.start(0);
+        int port = Integer.parseInt(server.baseUrl().substring(server.baseUrl().lastIndexOf(':') + 1));
+        slowNetwork = NetworkConditionsProxy.start("localhost", port,
+                new NetworkConditionsProxy.Conditions(300, 0, 0, 0));
+    }
+
+    @AfterAll
+    static void stopSlowServer() {
+        if (slowNetwork != null) {
+            slowNetwork.close();
+        }
+        if (server != null) {
+            server.stop();
+        }
+    }
+
+    @Test
+    @DisplayName("A request that outlives the scenario budget fails fast with a breakdown")
+    void testScenarioBudgetFailsFast() {
+        RequestDeadlines.startScenario("slow scenario", 200);
+        long start = System.nanoTime();
+
+        AssertionError failure = assertThrows(AssertionError.class,
+                () -> given().baseUri(slowNetwork.baseUrl()).get("/todos/1"));
+
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        assertTrue(elapsedMillis < 550, "failed after " + elapsedMillis + " ms");
+        assertTrue(failure.getMessage().contains("GET /todos/1"), failure.getMessage());
+        assertTrue(failure.getMessage().contains("rest of the scenario budget"), failure.getMessage());
+        assertTrue(failure.getMessage().contains("scenario slow scenario"), failure.getMessage());
+    }
+
+    @Test
+    @DisplayName("Requests within budget pass and count towards the scenario")
+    void testWithinBudget() {
+        RequestDeadlines.startScenario("fast scenario", 0);
+        assertEquals(200, given().baseUri(server.baseUrl()).get("/todos/1").statusCode());
+    }
+}
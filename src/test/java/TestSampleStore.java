@@ -0,0 +1,92 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class TestSampleStore {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("Samples from several threads read back across segments and summarise per endpoint")
+    void testConcurrentAppendsAcrossSegments() throws Exception {
+        int threads = 4;
+        int perThread = 1_000;
+        // 100 records per segment, so the run spans 40 segment files
+        try (SampleStore store = SampleStore.create(tempDir, 100L * SampleStore.RECORD_BYTES)) {
+            long origin = store.originNanos();
+            int get = store.endpointId("GET /todos");
+            int post = store.endpointId("POST /todos");
+            assertEquals(get, store.endpointId("GET /todos"));
+            List<Thread> writers = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                Thread writer = new Thread(() -> {
+                    for (int i = 1; i <= perThread; i++) {
+                        store.append(origin + i * 1_000_000L, i % 2 == 0 ? get : post,
+                                i % 100 == 0 ? SampleStore.TIMED_OUT : (short) 200, i * 1_000L);
+                    }
+                });
+                writers.add(writer);
+                writer.start();
+            }
+            for (Thread writer : writers) {
+                writer.join();
+            }
+        }
+        assertEquals(40, SampleStoreReader.segmentFiles(tempDir).size());
+
+        SampleStoreReader.Summary summary = SampleStoreReader.summarise(tempDir, 100_000_000L);
+        assertEquals(threads * perThread, summary.records);
+        assertEquals(Map.of((short) 200, 1_960L, SampleStore.TIMED_OUT, 40L), summary.statuses.get("GET /todos"));
+        assertEquals(Map.of((short) 200, 2_000L), summary.statuses.get("POST /todos"));
+        assertEquals(1_960, summary.latency.get("GET /todos").count());
+
+        // Starts 1..1000 ms after the origin in 100 ms intervals: the last one holds only the 1000th
+        assertEquals(11, summary.intervals.size());
+        assertEquals(99 * threads, summary.intervals.get(0L).count);
+        assertEquals(threads, summary.intervals.get(10L).count);
+        assertEquals(threads, summary.intervals.get(10L).errors);
+        assertEquals(1_000_000, summary.intervals.get(10L).maxLatencyNanos);
+    }
+
+    @Test
+    @DisplayName("A store that was never closed reads up to its first unwritten slot")
+    void testUnclosedStore() throws Exception {
+        SampleStore store = SampleStore.create(tempDir, 1_000L * SampleStore.RECORD_BYTES);
+        int id = store.endpointId("GET /projects");
+        for (int i = 0; i < 10; i++) {
+            store.append(System.nanoTime(), id, (short) 404, 5_000);
+        }
+
+        AtomicLong latency = new AtomicLong();
+        assertEquals(10, SampleStoreReader.scan(tempDir, (start, endpoint, status, nanos) -> latency.addAndGet(nanos)));
+        assertEquals(50_000, latency.get());
+        SampleStoreReader.Summary summary = SampleStoreReader.summarise(tempDir, 1_000_000_000L);
+        assertEquals(Map.of((short) 404, 10L), summary.statuses.get("endpoint " + id));
+    }
+
+    @Test
+    @DisplayName("Samples that complete after close are dropped instead of written past the trimmed segment")
+    void testAppendAfterCloseDropped() throws Exception {
+        SampleStore store = SampleStore.create(tempDir, 1_000L * SampleStore.RECORD_BYTES);
+        int id = store.endpointId("GET /todos");
+        for (int i = 0; i < 5; i++) {
+            store.append(System.nanoTime(), id, (short) 200, 1_000);
+        }
+        store.close();
+        store.append(System.nanoTime(), id, (short) 200, 1_000);
+        store.close();
+
+        assertEquals(5, store.count());
+        assertEquals(1, store.dropped());
+        assertEquals(5, SampleStoreReader.summarise(tempDir, 1_000_000_000L).records);
+    }
+}
@@ -7,8 +7,9 @@ public class TestServerRunning {
     @DisplayName("Check if the Todo Manager API is running")
     void testApiIsUp() {
         // Most Todo Manager APIs run on port 4567 or 8080 by default
+        ServerReadiness.awaitReady("http://localhost:4567");
         given()
-            .baseUri("http://localhost:4567")
+            .baseUri(ServerReadiness.targetUrl())
         .when()
             .get("/todos")
         .then()
@@ -0,0 +1,36 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class TestSteadyStateDetector {
+
+    @Test
+    @DisplayName("Noisy, falling samples followed by flat samples - warm-up ends where samples flatten")
+    void testDetectsSteadyStateAfterWarmup() {
+        SteadyStateDetector detector = new SteadyStateDetector(10, 0.1, 2);
+
+        for (int i = 0; i < 40; i++) {
+            detector.add(10_000 - i * 200L + (i % 2 == 0 ? 1_500 : 0));
+        }
+        assertFalse(detector.isSteady());
+
+        for (int i = 0; i < 40; i++) {
+            detector.add(1_000 + (i % 3));
+        }
+        assertTrue(detector.isSteady());
+        assertEquals(40, detector.warmupSamples());
+    }
+
+    @Test
+    @DisplayName("Window medians that keep jumping - no steady state")
+    void testNeverSteady() {
+        SteadyStateDetector detector = new SteadyStateDetector(10, 0.1, 2);
+
+        for (int i = 0; i < 200; i++) {
+            detector.add((i / 10) % 2 == 0 ? 100 : 1_000);
+        }
+        assertFalse(detector.isSteady());
+        assertEquals(-1, detector.warmupSamples());
+    }
+}
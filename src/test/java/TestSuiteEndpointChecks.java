@@ -0,0 +1,40 @@
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class TestSuiteEndpointChecks {
+
+    @Test
+    @DisplayName("JSON and XML bodies are checked with the suite's GPath assertions")
+    void testBodyChecks() {
+        SuiteEndpoint json = new SuiteEndpoint("GET", "/todos", "/todos", SuiteEndpoint.JSON, null, 200)
+                .expecting("todos.size()", greaterThan(1));
+        SuiteEndpoint xml = new SuiteEndpoint("GET", "/todos", "/todos", SuiteEndpoint.XML, null, 200)
+                .expecting("todos.todo.size()", greaterThan(1));
+
+        assertNull(json.bodyMismatch(bytes("{\"todos\":[{\"id\":\"1\"},{\"id\":\"2\"}]}")));
+        assertNull(xml.bodyMismatch(bytes("<todos><todo><id>1</id></todo><todo><id>2</id></todo></todos>")));
+
+        String mismatch = json.bodyMismatch(bytes("{\"todos\":[{\"id\":\"1\"}]}"));
+        assertNotNull(mismatch);
+        assertTrue(mismatch.startsWith("todos.size() expected a value greater than <1>"), mismatch);
+        assertNotNull(xml.bodyMismatch(bytes("not xml")));
+    }
+
+    @Test
+    @DisplayName("Endpoints without an assertion accept any body")
+    void testNoCheck() {
+        SuiteEndpoint head = new SuiteEndpoint("HEAD", "/todos", "/todos", SuiteEndpoint.JSON, null, 200);
+
+        assertFalse(head.hasBodyCheck());
+        assertNull(head.bodyMismatch(new byte[0]));
+    }
+
+    private static byte[] bytes(String text) {
+        return text.getBytes(StandardCharsets.UTF_8);
+    }
+}
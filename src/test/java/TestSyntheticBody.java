@@ -0,0 +1,47 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.ByteArrayInputStream;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class TestSyntheticBody {
+    private static final int[] SIZES = {16, 200, 5_000, 100_000};
+
+    @Test
+    @DisplayName("Every shape is well-formed JSON and XML close to the requested size")
+    void testShapesAndSizes() throws Exception {
+        ObjectMapper mapper = new ObjectMapper();
+        for (String shape : SyntheticBody.SHAPES) {
+            for (int size : SIZES) {
+                byte[] json = SyntheticBody.of(shape, false, "todo", size);
+                byte[] xml = SyntheticBody.of(shape, true, "todo", size);
+
+                assertTrue(mapper.readTree(json).has("title"), shape + " " + size);
+                assertEquals("todo", DocumentBuilderFactory.newInstance().newDocumentBuilder()
+                        .parse(new ByteArrayInputStream(xml)).getDocumentElement().getTagName());
+                if (size >= 200) {
+                    assertEquals(size, json.length, 16, "json " + shape);
+                    assertEquals(size, xml.length, 16, "xml " + shape);
+                }
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Nesting depth is capped and the rest of the size is padding")
+    void testNestingCap() throws Exception {
+        byte[] body = SyntheticBody.of("nested", false, "todo", 1_000_000);
+
+        assertEquals(1_000_000, body.length, 16);
+        int depth = 0;
+        for (var node = new ObjectMapper().readTree(body).get("n"); node.isObject(); node = node.get("n")) {
+            depth++;
+        }
+        assertEquals(500, depth);
+    }
+}
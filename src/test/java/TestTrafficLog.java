@@ -0,0 +1,69 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class TestTrafficLog {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("Records read back exactly as written")
+    void testRoundTrip() throws Exception {
+        File file = tempDir.resolve("capture.tmlog").toFile();
+        try (TrafficLog.Writer writer = new TrafficLog.Writer(file)) {
+            writer.append(record(1_000, "POST", "/todos/12/categories", "{\"id\":\"3\"}", 201));
+            writer.append(record(5_000, "HEAD", "/categories", "", 200));
+        }
+
+        try (TrafficLog.Reader reader = new TrafficLog.Reader(file)) {
+            TrafficLog.Record first = reader.next();
+            assertEquals(1_000, first.startNanos);
+            assertEquals("POST", first.method);
+            assertEquals("/todos/12/categories", first.path);
+            assertEquals("/todos/:id/categories", first.route());
+            assertEquals("application/json", first.requestHeader("accept"));
+            assertEquals("{\"id\":\"3\"}", new String(first.requestBody, StandardCharsets.UTF_8));
+            assertEquals(201, first.status);
+            assertEquals("GET, POST", first.responseHeader("Allow"));
+
+            TrafficLog.Record second = reader.next();
+            assertEquals("HEAD", second.method);
+            assertEquals(0, second.requestBody.length);
+
+            assertNull(reader.next());
+        }
+    }
+
+    @Test
+    @DisplayName("A truncated last record ends the stream instead of failing")
+    void testTruncatedTail() throws Exception {
+        File file = tempDir.resolve("capture.tmlog").toFile();
+        try (TrafficLog.Writer writer = new TrafficLog.Writer(file)) {
+            writer.append(record(1_000, "GET", "/todos", "", 200));
+            writer.append(record(2_000, "GET", "/projects", "", 200));
+        }
+        try (RandomAccessFile raw = new RandomAccessFile(file, "rw")) {
+            raw.setLength(raw.length() - 5);
+        }
+
+        try (TrafficLog.Reader reader = new TrafficLog.Reader(file)) {
+            assertEquals("/todos", reader.next().path);
+            assertNull(reader.next());
+        }
+    }
+
+    private static TrafficLog.Record record(long start, String method, String path, String body, int status) {
+        return new TrafficLog.Record(start, 250_000, 1, method, path,
+                List.of("Accept", "application/json"), body.getBytes(StandardCharsets.UTF_8),
+                status, List.of("Allow", "GET, POST"), "{}".getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,48 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class TestUslFit {
+    private static final int[] LEVELS = {1, 2, 4, 8, 16, 32, 64, 128};
+
+    @Test
+    @DisplayName("Coefficients of an exact USL curve are recovered")
+    void testRecoversCoefficients() {
+        double[] throughput = new double[LEVELS.length];
+        for (int i = 0; i < LEVELS.length; i++) {
+            double n = LEVELS[i];
+            throughput[i] = 100 * n / (1 + 0.05 * (n - 1) + 0.0002 * n * (n - 1));
+        }
+
+        UslFit fit = UslFit.fit(LEVELS, throughput);
+
+        assertEquals(100, fit.lambda, 1e-9);
+        assertEquals(0.05, fit.sigma, 1e-6);
+        assertEquals(0.0002, fit.kappa, 1e-8);
+        assertEquals(Math.sqrt(0.95 / 0.0002), fit.peakConcurrency(), 1e-3);
+        assertEquals(1.0, fit.rSquared, 1e-9);
+    }
+
+    @Test
+    @DisplayName("Linear scaling fits with no contention and no peak")
+    void testLinearScaling() {
+        double[] throughput = new double[LEVELS.length];
+        for (int i = 0; i < LEVELS.length; i++) {
+            throughput[i] = 50.0 * LEVELS[i];
+        }
+
+        UslFit fit = UslFit.fit(LEVELS, throughput);
+
+        assertEquals(0, fit.sigma, 1e-9);
+        assertEquals(0, fit.kappa, 1e-9);
+        assertTrue(Double.isInfinite(fit.peakConcurrency()));
+    }
+
+    @Test
+    @DisplayName("A sweep without a single-client level is rejected")
+    void testNeedsSingleClient() {
+        assertThrows(IllegalArgumentException.class,
+                () -> UslFit.fit(new int[] {2, 4, 8}, new double[] {10, 20, 30}));
+    }
+}
@@ -0,0 +1,109 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class TestWorkloadMix {
+    private static final Map<String, String> IDS = Map.of("todos", "7", "projects", "8", "categories", "9");
+
+    @TempDir
+    Path tempDir;
+
+    private final List<WorkloadMix> opened = new ArrayList<>();
+
+    @AfterEach
+    void closeMixes() throws Exception {
+        for (WorkloadMix mix : opened) {
+            mix.close();
+        }
+    }
+
+    @Test
+    @DisplayName("Route and body templates expand with ids of the right collection")
+    void testExpandTemplates() throws Exception {
+        WorkloadMix mix = load(
+                "{\"method\":\"post\",\"route\":\"/projects/:id/tasks\",\"body\":\"{\\\"id\\\":\\\":todoId\\\"}\",\"expect\":201}",
+                "{\"method\":\"DELETE\",\"route\":\"/todos/:id/tasksof/:id\",\"contentType\":\"xml\"}");
+
+        SuiteEndpoint relate = WorkloadMix.expand(mix.entry(0), IDS::get, 0);
+        assertEquals("POST", relate.method);
+        assertEquals("/projects/8/tasks", relate.path);
+        assertEquals("{\"id\":\"7\"}", relate.bodyText());
+        assertEquals(201, relate.expectedStatus);
+
+        SuiteEndpoint unlink = WorkloadMix.expand(mix.entry(1), IDS::get, 0);
+        assertEquals("/todos/7/tasksof/8", unlink.path);
+        assertEquals(SuiteEndpoint.XML, unlink.mediaType);
+        assertEquals(200, unlink.expectedStatus);
+        assertEquals("DELETE /todos/:id/tasksof/:id [xml]", unlink.name());
+    }
+
+    @Test
+    @DisplayName("Lines without method and route are skipped, not fatal")
+    void testSkipsUnusableLines() throws Exception {
+        WorkloadMix mix = load(
+                "{\"request_id\":\"x\",\"title\":\"not a workload line\"}",
+                "",
+                "not json",
+                "{\"method\":\"GET\",\"route\":\"/todos\"}");
+
+        assertEquals(1, mix.size());
+        assertEquals(3, mix.skippedLines);
+    }
+
+    @Test
+    @DisplayName("Sampler picks entries in proportion to their weights")
+    void testWeightedSampling() throws Exception {
+        WorkloadMix mix = load(
+                "{\"method\":\"GET\",\"route\":\"/todos\",\"weight\":3}",
+                "{\"method\":\"GET\",\"route\":\"/projects\",\"weight\":1}");
+
+        Supplier<SuiteEndpoint> sampler = mix.sampler(IDS::get, 1);
+        Map<String, Integer> counts = new HashMap<>();
+        for (int i = 0; i < 40_000; i++) {
+            counts.merge(sampler.get().path, 1, Integer::sum);
+        }
+        assertEquals(30_000, counts.get("/todos"), 600);
+        assertEquals(10_000, counts.get("/projects"), 600);
+    }
+
+    @Test
+    @DisplayName("Entries evicted from the cache are read back from their offsets in the file")
+    void testReadsEvictedEntriesFromFile() throws Exception {
+        Path file = tempDir.resolve("workload.jsonl");
+        // CRLF endings, a multi-byte title and no newline at the end
+        Files.writeString(file, "{\"method\":\"GET\",\"route\":\"/todos\"}\r\n"
+                + "skip me\r\n"
+                + "{\"method\":\"POST\",\"route\":\"/todos\",\"body\":\"{\\\"title\\\":\\\"caf\u00e9 :seq\\\"}\"}\r\n"
+                + "{\"method\":\"GET\",\"route\":\"/projects/:id\",\"weight\":2}", StandardCharsets.UTF_8);
+        WorkloadMix mix = WorkloadMix.load(file, 1);
+        opened.add(mix);
+
+        assertEquals(3, mix.size());
+        assertEquals(1, mix.skippedLines);
+        for (int pass = 0; pass < 2; pass++) {
+            assertEquals("/todos", WorkloadMix.expand(mix.entry(0), IDS::get, 0).path);
+            assertEquals("{\"title\":\"caf\u00e9 3\"}", WorkloadMix.expand(mix.entry(1), IDS::get, 3).bodyText());
+            assertEquals("/projects/8", WorkloadMix.expand(mix.entry(2), IDS::get, 0).path);
+        }
+    }
+
+    private WorkloadMix load(String... lines) throws Exception {
+        Path file = tempDir.resolve("workload.jsonl");
+        Files.write(file, List.of(lines));
+        WorkloadMix mix = WorkloadMix.load(file);
+        opened.add(mix);
+        return mix;
+    }
+}
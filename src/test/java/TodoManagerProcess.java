@@ -0,0 +1,91 @@
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A Todo Manager jar started by the harness in its own JVM, for benchmarks that need
+ * control over the server process (JMX, JVM flags, several versions side by side).
+ *
+ * The jar defaults to runTodoManagerRestAPI-1.5.5.jar in the working directory and
+ * can be overridden with -Dtodo.jar. Server output goes to target/todo-manager-PORT.log.
+ */
+public final class TodoManagerProcess implements AutoCloseable {
+    static final String DEFAULT_JAR = System.getProperty("todo.jar", "runTodoManagerRestAPI-1.5.5.jar");
+    private static final long START_TIMEOUT_MS = Long.getLong("todo.startTimeoutMs", 30_000);
+
+    private final Process process;
+    private final int port;
+    private final long startupMillis;
+
+    private TodoManagerProcess(Process process, int port, long startupMillis) {
+        this.process = process;
+        this.port = port;
+        this.startupMillis = startupMillis;
+    }
+
+    /** Starts the default jar on the given port and waits until it answers. */
+    static TodoManagerProcess start(int port, List<String> jvmArgs) throws IOException {
+        return start(DEFAULT_JAR, port, jvmArgs);
+    }
+
+    /** Starts jar on the given port with extra JVM arguments and waits until it answers. */
+    static TodoManagerProcess start(String jar, int port, List<String> jvmArgs) throws IOException {
+        if (!new File(jar).isFile()) {
+            throw new IOException("Todo Manager jar not found: " + new File(jar).getAbsolutePath());
+        }
+
+        List<String> command = new ArrayList<>();
+        command.add(new File(System.getProperty("java.home"), "bin/java").getPath());
+        command.addAll(jvmArgs);
+        command.add("-jar");
+        command.add(jar);
+        command.add("-port=" + port);
+
+        File log = new File("target/todo-manager-" + port + ".log");
+        log.getParentFile().mkdirs();
+        Process process = new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(log)
+                .start();
+
+        long startupMillis = ServerReadiness.waitForHealthy("http://localhost:" + port, START_TIMEOUT_MS);
+        if (startupMillis < 0) {
+            process.destroyForcibly();
+            throw new IOException("Todo Manager did not answer on port " + port + " within "
+                    + START_TIMEOUT_MS + " ms, see " + log.getPath());
+        }
+        return new TodoManagerProcess(process, port, startupMillis);
+    }
+
+    String baseUrl() {
+        return "http://localhost:" + port;
+    }
+
+    int port() {
+        return port;
+    }
+
+    long pid() {
+        return process.pid();
+    }
+
+    /** Milliseconds from launch to the first healthy response. */
+    long startupMillis() {
+        return startupMillis;
+    }
+
+    @Override
+    public void close() {
+        process.destroy();
+        try {
+            if (!process.waitFor(5, TimeUnit.SECONDS)) {
+                process.destroyForcibly().waitFor(5, TimeUnit.SECONDS);
+            }
+        } catch (InterruptedException e) {
+            process.destroyForcibly();
+            Thread.currentThread().interrupt();
+        }
+    }
+}
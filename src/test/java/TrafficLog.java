@@ -0,0 +1,187 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compact append-only binary log of HTTP exchanges.
+ *
+ * The file starts with a magic number and then holds one record per exchange:
+ * start offset and duration in nanoseconds, requests in flight when it was sent,
+ * method, path, request headers of interest, request body, status, response headers
+ * and response body. Strings are modified UTF-8 and bodies are length-prefixed, so a
+ * record costs little more than its payload. Readers stream records one at a time
+ * and stop cleanly at a truncated tail, so a log from an interrupted run is usable.
+ */
+public final class TrafficLog {
+    private static final int MAGIC = 0x544D4331; // "TMC1"
+
+    /** One recorded request and its response. Headers are flattened name/value pairs. */
+    static final class Record {
+        final long startNanos;
+        final long durationNanos;
+        final int inFlight;
+        final String method;
+        final String path;
+        final List<String> requestHeaders;
+        final byte[] requestBody;
+        final int status;
+        final List<String> responseHeaders;
+        final byte[] responseBody;
+
+        Record(long startNanos, long durationNanos, int inFlight, String method, String path,
+               List<String> requestHeaders, byte[] requestBody,
+               int status, List<String> responseHeaders, byte[] responseBody) {
+            this.startNanos = startNanos;
+            this.durationNanos = durationNanos;
+            this.inFlight = inFlight;
+            this.method = method;
+            this.path = path;
+            this.requestHeaders = requestHeaders;
+            this.requestBody = requestBody;
+            this.status = status;
+            this.responseHeaders = responseHeaders;
+            this.responseBody = responseBody;
+        }
+
+        String requestHeader(String name) {
+            return header(requestHeaders, name);
+        }
+
+        String responseHeader(String name) {
+            return header(responseHeaders, name);
+        }
+
+        /** Path with numeric segments replaced by :id, e.g. /todos/:id/categories. */
+        String route() {
+            return TrafficLog.route(path);
+        }
+
+        private static String header(List<String> headers, String name) {
+            for (int i = 0; i + 1 < headers.size(); i += 2) {
+                if (headers.get(i).equalsIgnoreCase(name)) {
+                    return headers.get(i + 1);
+                }
+            }
+            return null;
+        }
+    }
+
+    private TrafficLog() {
+    }
+
+    static String route(String path) {
+        int query = path.indexOf('?');
+        String bare = query < 0 ? path : path.substring(0, query);
+        return bare.replaceAll("/\\d+(?=/|$)", "/:id");
+    }
+
+    /** Appends records to a new log file; safe to share between threads. */
+    static final class Writer implements Closeable {
+        private final DataOutputStream out;
+
+        /** Starts a new log, replacing any previous one at the same path. */
+        Writer(File file) throws IOException {
+            if (file.getParentFile() != null) {
+                file.getParentFile().mkdirs();
+            }
+            out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file), 1 << 16));
+            out.writeInt(MAGIC);
+        }
+
+        synchronized void append(Record record) throws IOException {
+            out.writeLong(record.startNanos);
+            out.writeLong(record.durationNanos);
+            out.writeShort(Math.min(record.inFlight, Short.MAX_VALUE));
+            out.writeUTF(record.method);
+            out.writeUTF(record.path);
+            writeHeaders(record.requestHeaders);
+            writeBytes(record.requestBody);
+            out.writeShort(record.status);
+            writeHeaders(record.responseHeaders);
+            writeBytes(record.responseBody);
+        }
+
+        synchronized void flush() throws IOException {
+            out.flush();
+        }
+
+        private void writeHeaders(List<String> headers) throws IOException {
+            out.writeShort(headers.size() / 2);
+            for (String value : headers) {
+                out.writeUTF(value);
+            }
+        }
+
+        private void writeBytes(byte[] bytes) throws IOException {
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+
+        @Override
+        public synchronized void close() throws IOException {
+            out.close();
+        }
+    }
+
+    /** Streams records back from a log file, one at a time. */
+    static final class Reader implements Closeable {
+        private final DataInputStream in;
+
+        Reader(File file) throws IOException {
+            in = new DataInputStream(new BufferedInputStream(new FileInputStream(file), 1 << 16));
+            if (in.readInt() != MAGIC) {
+                in.close();
+                throw new IOException(file + " is not a traffic log");
+            }
+        }
+
+        /** The next record, or null at the end of the log (including a truncated last record). */
+        Record next() throws IOException {
+            try {
+                long start = in.readLong();
+                long duration = in.readLong();
+                int inFlight = in.readShort();
+                String method = in.readUTF();
+                String path = in.readUTF();
+                List<String> requestHeaders = readHeaders();
+                byte[] requestBody = readBytes();
+                int status = in.readShort();
+                List<String> responseHeaders = readHeaders();
+                byte[] responseBody = readBytes();
+                return new Record(start, duration, inFlight, method, path, requestHeaders, requestBody,
+                        status, responseHeaders, responseBody);
+            } catch (EOFException e) {
+                return null;
+            }
+        }
+
+        private List<String> readHeaders() throws IOException {
+            int pairs = in.readShort();
+            List<String> headers = new ArrayList<>(pairs * 2);
+            for (int i = 0; i < pairs * 2; i++) {
+                headers.add(in.readUTF());
+            }
+            return headers;
+        }
+
+        private byte[] readBytes() throws IOException {
+            byte[] bytes = new byte[in.readInt()];
+            in.readFully(bytes);
+            return bytes;
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+}
@@ -0,0 +1,123 @@
+import io.restassured.RestAssured;
+import io.restassured.filter.Filter;
+import io.restassured.filter.FilterContext;
+import io.restassured.response.Response;
+import io.restassured.specification.FilterableRequestSpecification;
+import io.restassured.specification.FilterableResponseSpecification;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * REST-Assured filter that writes every request the suite sends, and the response it
+ * got back, to a {@link TrafficLog}.
+ *
+ * Enabled for the whole suite with -Dcapture.file=target/capture.tmlog; the log is
+ * flushed when the test JVM exits. Capture starts after the readiness probe and
+ * warm-up, so only the tests' own traffic is recorded.
+ */
+public final class TrafficRecorder implements Filter {
+    private static TrafficRecorder installed;
+
+    private final TrafficLog.Writer writer;
+    private final long origin = System.nanoTime();
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    TrafficRecorder(File file) throws IOException {
+        this.writer = new TrafficLog.Writer(file);
+    }
+
+    /** Installs a suite-wide recorder if -Dcapture.file is set. Safe to call repeatedly. */
+    static synchronized void installIfConfigured() {
+        String file = System.getProperty("capture.file");
+        if (file == null || installed != null) {
+            return;
+        }
+        try {
+            installed = new TrafficRecorder(new File(file));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open capture file " + file, e);
+        }
+        RestAssured.filters(installed);
+        Runtime.getRuntime().addShutdownHook(new Thread(installed::close));
+        System.out.println("[capture] recording suite traffic to " + file);
+    }
+
+    @Override
+    public Response filter(FilterableRequestSpecification requestSpec,
+                           FilterableResponseSpecification responseSpec, FilterContext ctx) {
+        int concurrent = inFlight.incrementAndGet();
+        long start = System.nanoTime();
+        try {
+            Response response = ctx.next(requestSpec, responseSpec);
+            long duration = System.nanoTime() - start;
+            writer.append(new TrafficLog.Record(
+                    start - origin, duration, concurrent,
+                    requestSpec.getMethod(),
+                    pathOf(requestSpec.getURI()),
+                    requestHeaders(requestSpec),
+                    bodyOf(requestSpec.getBody()),
+                    response.getStatusCode(),
+                    responseHeaders(response),
+                    response.asByteArray()));
+            return response;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            inFlight.decrementAndGet();
+        }
+    }
+
+    void close() {
+        try {
+            writer.close();
+        } catch (IOException e) {
+            System.err.println("[capture] could not close capture file: " + e);
+        }
+    }
+
+    private static String pathOf(String uri) {
+        URI parsed = URI.create(uri);
+        return parsed.getRawQuery() == null ? parsed.getRawPath() : parsed.getRawPath() + "?" + parsed.getRawQuery();
+    }
+
+    private static List<String> requestHeaders(FilterableRequestSpecification requestSpec) {
+        List<String> headers = new ArrayList<>();
+        String accept = requestSpec.getHeaders().getValue("Accept");
+        if (accept != null) {
+            headers.add("Accept");
+            headers.add(accept);
+        }
+        String contentType = requestSpec.getContentType();
+        if (contentType != null) {
+            headers.add("Content-Type");
+            headers.add(contentType);
+        }
+        return headers;
+    }
+
+    private static List<String> responseHeaders(Response response) {
+        List<String> headers = new ArrayList<>();
+        response.getHeaders().forEach(header -> {
+            headers.add(header.getName());
+            headers.add(header.getValue());
+        });
+        return headers;
+    }
+
+    private static byte[] bodyOf(Object body) {
+        if (body == null) {
+            return new byte[0];
+        }
+        if (body instanceof byte[]) {
+            return (byte[]) body;
+        }
+        return body.toString().getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,120 @@
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Replays a {@link TrafficLog} against a server, streaming the log rather than
+ * loading it, and measures the replay with the same statistics as the open-loop driver.
+ *
+ * In timing mode each request is sent at its recorded offset divided by the speed
+ * factor (1 for real time, 10 for ten times faster, 0 for as fast as possible), and
+ * latency is corrected from that scheduled time. In concurrency mode the timestamps
+ * are ignored and each request is sent as soon as fewer requests are in flight than
+ * were in flight when it was recorded.
+ */
+public final class TrafficReplayer {
+    private static final int MAX_IN_FLIGHT = Integer.getInteger("replay.maxInFlight", 256);
+
+    private final String baseUrl;
+    private final Duration requestTimeout;
+    private final HttpClient client;
+
+    TrafficReplayer(String baseUrl, Duration requestTimeout) {
+        this.baseUrl = baseUrl;
+        this.requestTimeout = requestTimeout;
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(requestTimeout)
+                .build();
+    }
+
+    OpenLoopDriver.Result replayTiming(File log, double speed) throws IOException, InterruptedException {
+        return replay(log, speed, false);
+    }
+
+    OpenLoopDriver.Result replayConcurrency(File log) throws IOException, InterruptedException {
+        return replay(log, 0, true);
+    }
+
+    private OpenLoopDriver.Result replay(File log, double speed, boolean preserveConcurrency)
+            throws IOException, InterruptedException {
+        Map<String, OpenLoopDriver.EndpointStats> stats = new ConcurrentHashMap<>();
+        Semaphore permits = new Semaphore(MAX_IN_FLIGHT);
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        long start = System.nanoTime();
+        long sentCount = 0;
+
+        try (TrafficLog.Reader reader = new TrafficLog.Reader(log)) {
+            TrafficLog.Record record;
+            while ((record = reader.next()) != null) {
+                long intended;
+                if (preserveConcurrency) {
+                    while (inFlight.get() >= Math.max(1, record.inFlight)) {
+                        LockSupport.parkNanos(50_000);
+                    }
+                    intended = System.nanoTime();
+                } else if (speed > 0) {
+                    intended = start + (long) (record.startNanos / speed);
+                    long wait = intended - System.nanoTime();
+                    if (wait > 0) {
+                        LockSupport.parkNanos(wait);
+                    }
+                } else {
+                    intended = System.nanoTime();
+                }
+
+                permits.acquire();
+                send(record, intended, stats, inFlight, maxInFlight, permits);
+                sentCount++;
+            }
+        }
+
+        permits.tryAcquire(MAX_IN_FLIGHT, requestTimeout.toMillis() * 2, TimeUnit.MILLISECONDS);
+        return new OpenLoopDriver.Result(stats, sentCount, System.nanoTime() - start, maxInFlight.get());
+    }
+
+    private void send(TrafficLog.Record record, long intended, Map<String, OpenLoopDriver.EndpointStats> stats,
+                      AtomicInteger inFlight, AtomicInteger maxInFlight, Semaphore permits) {
+        OpenLoopDriver.EndpointStats endpointStats =
+                stats.computeIfAbsent(record.method + " " + record.route(), name -> new OpenLoopDriver.EndpointStats());
+
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(baseUrl + record.path))
+                .timeout(requestTimeout)
+                .method(record.method, record.requestBody.length == 0
+                        ? HttpRequest.BodyPublishers.noBody()
+                        : HttpRequest.BodyPublishers.ofByteArray(record.requestBody));
+        for (int i = 0; i + 1 < record.requestHeaders.size(); i += 2) {
+            builder.header(record.requestHeaders.get(i), record.requestHeaders.get(i + 1));
+        }
+
+        maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+        long sent = System.nanoTime();
+        int expectedStatus = record.status;
+        client.sendAsync(builder.build(), HttpResponse.BodyHandlers.discarding())
+                .whenComplete((response, error) -> {
+                    long done = System.nanoTime();
+                    if (error != null) {
+                        endpointStats.recordFailure(done - intended, done - sent, RequestDeadlines.isTimeout(error));
+                    } else {
+                        endpointStats.corrected.record(done - intended);
+                        endpointStats.uncorrected.record(done - sent);
+                        if (response.statusCode() != expectedStatus) {
+                            endpointStats.unexpectedStatus.incrementAndGet();
+                        }
+                    }
+                    inFlight.decrementAndGet();
+                    permits.release();
+                });
+    }
+}
@@ -0,0 +1,130 @@
+/**
+ * Universal Scalability Law fitted to throughput measured at several concurrency levels:
+ *
+ * <pre>
+ * X(N) = lambda * N / (1 + sigma * (N - 1) + kappa * N * (N - 1))
+ * </pre>
+ *
+ * lambda is the throughput of a single client, sigma the contention (the serialised
+ * fraction of the work) and kappa the coherency cost (crosstalk that grows with every
+ * pair of clients). With kappa above zero throughput peaks at
+ * N* = sqrt((1 - sigma) / kappa) and falls beyond it.
+ *
+ * The fit takes lambda from the N = 1 measurement and solves the linearised form
+ * N / C(N) - 1 = sigma * (N - 1) + kappa * N * (N - 1), where C(N) = X(N) / lambda, by
+ * least squares. A coefficient that comes out negative is clamped to zero and the
+ * other refitted alone.
+ */
+public final class UslFit {
+    final double lambda;
+    final double sigma;
+    final double kappa;
+    final double rSquared;
+
+    private UslFit(double lambda, double sigma, double kappa, double rSquared) {
+        this.lambda = lambda;
+        this.sigma = sigma;
+        this.kappa = kappa;
+        this.rSquared = rSquared;
+    }
+
+    /** Fits concurrency levels to throughputs; levels must include 1 and at least two others. */
+    static UslFit fit(int[] concurrency, double[] throughput) {
+        if (concurrency.length != throughput.length) {
+            throw new IllegalArgumentException("Need one throughput per concurrency level");
+        }
+        double lambda = -1;
+        for (int i = 0; i < concurrency.length; i++) {
+            if (concurrency[i] == 1) {
+                lambda = throughput[i];
+            }
+        }
+        if (lambda <= 0 || concurrency.length < 3) {
+            throw new IllegalArgumentException("Need a positive throughput at concurrency 1 and at least three levels");
+        }
+
+        // Normal equations for y = sigma * a + kappa * b with no intercept
+        double aa = 0;
+        double ab = 0;
+        double bb = 0;
+        double ay = 0;
+        double by = 0;
+        for (int i = 0; i < concurrency.length; i++) {
+            double n = concurrency[i];
+            if (throughput[i] <= 0) {
+                continue;
+            }
+            double a = n - 1;
+            double b = n * (n - 1);
+            double y = n / (throughput[i] / lambda) - 1;
+            aa += a * a;
+            ab += a * b;
+            bb += b * b;
+            ay += a * y;
+            by += b * y;
+        }
+
+        double sigma;
+        double kappa;
+        double determinant = aa * bb - ab * ab;
+        if (determinant == 0) {
+            sigma = aa == 0 ? 0 : ay / aa;
+            kappa = 0;
+        } else {
+            sigma = (ay * bb - by * ab) / determinant;
+            kappa = (aa * by - ab * ay) / determinant;
+        }
+        if (sigma < 0) {
+            sigma = 0;
+            kappa = bb == 0 ? 0 : by / bb;
+        }
+        if (kappa < 0) {
+            kappa = 0;
+            sigma = aa == 0 ? 0 : Math.max(0, ay / aa);
+        }
+
+        UslFit unscored = new UslFit(lambda, sigma, kappa, Double.NaN);
+        return new UslFit(lambda, sigma, kappa, unscored.rSquared(concurrency, throughput));
+    }
+
+    /** Predicted throughput at concurrency n. */
+    double throughputAt(double n) {
+        return lambda * n / (1 + sigma * (n - 1) + kappa * n * (n - 1));
+    }
+
+    /** Concurrency with the highest predicted throughput, or infinity if throughput never falls. */
+    double peakConcurrency() {
+        return kappa > 0 ? Math.sqrt((1 - Math.min(sigma, 1)) / kappa) : Double.POSITIVE_INFINITY;
+    }
+
+    /** Highest predicted throughput: at the peak, or the lambda / sigma ceiling without coherency cost. */
+    double peakThroughput() {
+        double peak = peakConcurrency();
+        if (Double.isInfinite(peak)) {
+            return sigma > 0 ? lambda / sigma : Double.POSITIVE_INFINITY;
+        }
+        return throughputAt(Math.max(1, peak));
+    }
+
+    private double rSquared(int[] concurrency, double[] throughput) {
+        double mean = 0;
+        for (double x : throughput) {
+            mean += x;
+        }
+        mean /= throughput.length;
+        double residual = 0;
+        double total = 0;
+        for (int i = 0; i < concurrency.length; i++) {
+            double error = throughput[i] - throughputAt(concurrency[i]);
+            residual += error * error;
+            total += (throughput[i] - mean) * (throughput[i] - mean);
+        }
+        return total == 0 ? 1 : 1 - residual / total;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("lambda=%.1f req/s sigma=%.4f kappa=%.6f peak N=%.0f peak X=%.1f req/s R^2=%.3f",
+                lambda, sigma, kappa, peakConcurrency(), peakThroughput(), rSquared);
+    }
+}
@@ -0,0 +1,294 @@
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * A weighted traffic mix read from a JSON Lines workload file, one request shape per line:
+ *
+ * <pre>
+ * {"method":"GET","route":"/todos/:id/categories","contentType":"json","weight":10}
+ * {"method":"POST","route":"/projects/:id/tasks","contentType":"json","body":"{\"id\":\":todoId\"}","weight":2,"expect":201}
+ * </pre>
+ *
+ * Each ":id" in a route is replaced by a live id from the collection named by the
+ * segment before it; routes are split at their ids when the file is loaded, so a
+ * route whose ids cannot be mapped fails the load rather than the run. Bodies may use
+ * :todoId, :projectId, :categoryId and :seq (a per-request counter); they are compiled
+ * to a {@link BodyTemplate} when the file is loaded. contentType is json or xml, weight
+ * defaults to 1 and expect (the status counted as success) defaults to 200.
+ *
+ * The file is streamed a line at a time; lines without a method and route are
+ * skipped, so comment lines or unrelated records do not stop a run. Only the byte
+ * offset, length and cumulative weight of each usable line stay in memory, because
+ * weighted sampling needs every weight up front. Parsed entries are kept in an LRU
+ * cache of -Dworkload.cachedEntries (default 1024); on a miss the line is read back
+ * from the file, which stays open until {@link #close}.
+ */
+public final class WorkloadMix implements AutoCloseable {
+    private static final int CACHED_ENTRIES = Integer.getInteger("workload.cachedEntries", 1_024);
+
+    // Placeholder order is the order of the values passed to the body templates
+    private static final String[] BODY_PLACEHOLDERS = {":todoId", ":projectId", ":categoryId", ":seq"};
+    private static final String[] PLACEHOLDER_COLLECTIONS = {"todos", "projects", "categories"};
+
+    /** One line of the workload file. */
+    static final class Entry {
+        final String method;
+        final String route;
+        final String mediaType;
+        final BodyTemplate body;
+        final double weight;
+        final int expectedStatus;
+        // The route cut at its ":id" segments; idCollections[i] fills the gap after routeParts[i]
+        final String[] routeParts;
+        final String[] idCollections;
+
+        Entry(String method, String route, String mediaType, String bodyTemplate, double weight, int expectedStatus) {
+            this.method = method;
+            this.route = route;
+            this.mediaType = mediaType;
+            List<String> parts = new ArrayList<>();
+            List<String> collections = new ArrayList<>();
+            String[] segments = route.split("/");
+            StringBuilder part = new StringBuilder();
+            for (int i = 1; i < segments.length; i++) {
+                part.append('/');
+                if (":id".equals(segments[i])) {
+                    String collection = LiveIds.collectionOf(segments[i - 1]);
+                    if (collection == null) {
+                        throw new IllegalArgumentException("Cannot tell which ids to use in " + route);
+                    }
+                    parts.add(part.toString());
+                    collections.add(collection);
+                    part.setLength(0);
+                } else {
+                    part.append(segments[i]);
+                }
+            }
+            parts.add(part.toString());
+            this.routeParts = parts.toArray(new String[0]);
+            this.idCollections = collections.toArray(new String[0]);
+            if (bodyTemplate == null) {
+                this.body = null;
+            } else if (SuiteEndpoint.XML.equals(mediaType)) {
+                this.body = BodyTemplate.xml(bodyTemplate, BODY_PLACEHOLDERS);
+            } else {
+                this.body = BodyTemplate.json(bodyTemplate, BODY_PLACEHOLDERS);
+            }
+            this.weight = weight;
+            this.expectedStatus = expectedStatus;
+        }
+    }
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    final int skippedLines;
+    private final FileChannel file;
+    private final long[] offsets;
+    private final int[] lengths;
+    private final double[] cumulativeWeights;
+    private final Map<Integer, Entry> cache;
+
+    private WorkloadMix(FileChannel file, long[] offsets, int[] lengths, double[] cumulativeWeights,
+                        int skippedLines, int cachedEntries) {
+        this.file = file;
+        this.offsets = offsets;
+        this.lengths = lengths;
+        this.cumulativeWeights = cumulativeWeights;
+        this.skippedLines = skippedLines;
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, Entry> eldest) {
+                return size() > cachedEntries;
+            }
+        };
+    }
+
+    static WorkloadMix load(Path file) throws IOException {
+        return load(file, CACHED_ENTRIES);
+    }
+
+    /** Indexes the usable lines of file in one streaming pass, caching up to cachedEntries parsed entries. */
+    static WorkloadMix load(Path file, int cachedEntries) throws IOException {
+        long[] offsets = new long[64];
+        int[] lengths = new int[64];
+        double[] cumulativeWeights = new double[64];
+        Map<Integer, Entry> firstEntries = new LinkedHashMap<>();
+        int count = 0;
+        int skipped = 0;
+        double total = 0;
+        byte[] line = new byte[1_024];
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(file))) {
+            long lineStart = 0;
+            long position = 0;
+            int length = 0;
+            for (int b = in.read(); ; b = in.read()) {
+                if (b >= 0 && b != '\n') {
+                    if (length == line.length) {
+                        line = Arrays.copyOf(line, length * 2);
+                    }
+                    line[length++] = (byte) b;
+                    position++;
+                    continue;
+                }
+                if (length > 0 && line[length - 1] == '\r') {
+                    length--;
+                }
+                if (b >= 0 || length > 0) {
+                    Entry entry = parse(line, length);
+                    if (entry == null) {
+                        skipped++;
+                    } else {
+                        if (count == offsets.length) {
+                            offsets = Arrays.copyOf(offsets, count * 2);
+                            lengths = Arrays.copyOf(lengths, count * 2);
+                            cumulativeWeights = Arrays.copyOf(cumulativeWeights, count * 2);
+                        }
+                        total += entry.weight;
+                        offsets[count] = lineStart;
+                        lengths[count] = length;
+                        cumulativeWeights[count] = total;
+                        if (firstEntries.size() < cachedEntries) {
+                            firstEntries.put(count, entry);
+                        }
+                        count++;
+                    }
+                }
+                if (b < 0) {
+                    break;
+                }
+                position++;
+                lineStart = position;
+                length = 0;
+            }
+        }
+        if (count == 0) {
+            throw new IllegalArgumentException("Workload has no usable entries");
+        }
+        WorkloadMix mix = new WorkloadMix(FileChannel.open(file), Arrays.copyOf(offsets, count),
+                Arrays.copyOf(lengths, count), Arrays.copyOf(cumulativeWeights, count), skipped, cachedEntries);
+        mix.cache.putAll(firstEntries);
+        return mix;
+    }
+
+    /** Number of usable entries. */
+    int size() {
+        return offsets.length;
+    }
+
+    /** The entry for the index-th usable line, from the cache or read back from the file. */
+    synchronized Entry entry(int index) {
+        Entry entry = cache.get(index);
+        if (entry != null) {
+            return entry;
+        }
+        byte[] line = new byte[lengths[index]];
+        ByteBuffer buffer = ByteBuffer.wrap(line);
+        try {
+            while (buffer.hasRemaining()) {
+                if (file.read(buffer, offsets[index] + buffer.position()) < 0) {
+                    break;
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read workload entry " + index, e);
+        }
+        entry = buffer.hasRemaining() ? null : parse(line, line.length);
+        if (entry == null) {
+            throw new IllegalStateException("Workload file changed while in use, entry " + index);
+        }
+        cache.put(index, entry);
+        return entry;
+    }
+
+    @Override
+    public void close() throws IOException {
+        file.close();
+    }
+
+    /** The entry on a line of UTF-8 bytes, or null if the line is blank or not a workload entry. */
+    private static Entry parse(byte[] line, int length) {
+        JsonNode node;
+        try {
+            node = length == 0 ? null : MAPPER.readTree(line, 0, length);
+        } catch (IOException e) {
+            return null;
+        }
+        if (node == null) {
+            return null;
+        }
+        if (!node.hasNonNull("method") || !node.hasNonNull("route")) {
+            return null;
+        }
+        double weight = node.path("weight").asDouble(1);
+        if (weight <= 0) {
+            return null;
+        }
+        String mediaType = "xml".equalsIgnoreCase(node.path("contentType").asText("json"))
+                ? SuiteEndpoint.XML : SuiteEndpoint.JSON;
+        return new Entry(
+                node.get("method").asText().toUpperCase(),
+                node.get("route").asText(),
+                mediaType,
+                node.hasNonNull("body") ? node.get("body").asText() : null,
+                weight,
+                node.path("expect").asInt(200));
+    }
+
+    /**
+     * Picks entries by weight and expands them with ids from idOf (collection to id).
+     * The returned supplier is meant for a single scheduling thread.
+     */
+    Supplier<SuiteEndpoint> sampler(Function<String, String> idOf, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        double total = cumulativeWeights[cumulativeWeights.length - 1];
+        long[] sequence = {0};
+        return () -> {
+            int index = Arrays.binarySearch(cumulativeWeights, random.nextDouble() * total);
+            index = index >= 0 ? index + 1 : -index - 1;
+            return expand(entry(Math.min(index, size() - 1)), idOf, sequence[0]++);
+        };
+    }
+
+    /** The entry as a request, with ids from idOf; the route was split when the entry was parsed. */
+    static SuiteEndpoint expand(Entry entry, Function<String, String> idOf, long sequence) {
+        String path = entry.routeParts[0];
+        if (entry.idCollections.length > 0) {
+            StringBuilder builder = new StringBuilder(entry.route.length() + 8 * entry.idCollections.length);
+            builder.append(path);
+            for (int i = 0; i < entry.idCollections.length; i++) {
+                builder.append(idOf.apply(entry.idCollections[i])).append(entry.routeParts[i + 1]);
+            }
+            path = builder.toString();
+        }
+
+        byte[] body = null;
+        if (entry.body != null) {
+            String[] values = new String[BODY_PLACEHOLDERS.length];
+            for (int i = 0; i < PLACEHOLDER_COLLECTIONS.length; i++) {
+                // Only draw ids the body uses, so unused placeholders do not consume random ids
+                values[i] = entry.body.uses(i) ? idOf.apply(PLACEHOLDER_COLLECTIONS[i]) : "";
+            }
+            values[BODY_PLACEHOLDERS.length - 1] = Long.toString(sequence);
+            body = entry.body.render(values);
+        }
+        return SuiteEndpoint.encoded(entry.method, entry.route, path, entry.mediaType, body,
+                entry.expectedStatus);
+    }
+}